@@ -0,0 +1,73 @@
+package fr.norsys.docsapi.benchmark;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import fr.norsys.docsapi.dto.document.DocumentResponseDto;
+import fr.norsys.docsapi.dto.document.MetaDataDto;
+import fr.norsys.docsapi.dto.document.PermissionDto;
+import fr.norsys.docsapi.entity.Permission;
+import fr.norsys.docsapi.utils.DocumentFields;
+import org.openjdk.jmh.annotations.*;
+import org.springframework.http.converter.json.Jackson2ObjectMapperBuilder;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * JSON rendering of a document listing page, with every field and with a {@code ?fields=}
+ * selection, through an ObjectMapper configured like the application one.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class DocumentSerializationBenchmark {
+
+    @Param({"20", "100"})
+    public int pageSize;
+
+    @Param({"", "id,name,size", "id,name,size,permissions,metaData"})
+    public String fields;
+
+    private ObjectMapper objectMapper;
+    private List<DocumentResponseDto> page;
+    private DocumentFields selection;
+
+    @Setup(Level.Trial)
+    public void init() {
+        objectMapper = Jackson2ObjectMapperBuilder.json()
+                .filters(DocumentFields.defaultFilterProvider())
+                .build();
+        selection = DocumentFields.parse(fields);
+        UUID owner = UUID.randomUUID();
+        page = new ArrayList<>(pageSize);
+        for (int i = 0; i < pageSize; i++) {
+            UUID id = UUID.randomUUID();
+            page.add(DocumentResponseDto.builder()
+                    .id(id)
+                    .name("annual_report_" + i + ".pdf")
+                    .type("application/pdf")
+                    .size(1_048_576L + i)
+                    .ownerId(owner)
+                    .owner("owner")
+                    .dateCreation("2026-10-18T10:00:00")
+                    .dateModification("2026-10-18T10:00:00")
+                    .permissions(List.of(
+                            new PermissionDto(id, owner, "owner", Permission.ALL),
+                            new PermissionDto(id, UUID.randomUUID(), "reader", Permission.READ)))
+                    .metaData(List.of(
+                            new MetaDataDto(id, "client", "Norsys"),
+                            new MetaDataDto(id, "year", "2026")))
+                    .build());
+        }
+    }
+
+    @Benchmark
+    public byte[] serialize() throws JsonProcessingException {
+        return objectMapper.writer(selection.filterProvider()).writeValueAsBytes(page);
+    }
+}
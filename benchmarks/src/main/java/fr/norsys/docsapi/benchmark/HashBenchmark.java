@@ -0,0 +1,82 @@
+package fr.norsys.docsapi.benchmark;
+
+import fr.norsys.docsapi.utils.DocumentHashCalculator;
+import org.openjdk.jmh.annotations.*;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * SHA-256 of uploaded content: the standalone pass of {@link DocumentHashCalculator#calculateHash}
+ * against the single pass of {@link DocumentHashCalculator#copyAndHash}, and the effect of the
+ * read buffer size on the standalone pass.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class HashBenchmark {
+
+    @Param({"65536", "1048576", "33554432"})
+    public int fileSize;
+
+    private Path directory;
+    private Path file;
+    private Path copy;
+
+    @State(Scope.Benchmark)
+    public static class Buffer {
+        @Param({"8192", "65536", "1048576"})
+        public int bufferSize;
+    }
+
+    @Setup(Level.Trial)
+    public void createFile() throws IOException {
+        directory = Files.createTempDirectory("hash-benchmark");
+        file = directory.resolve("content.bin");
+        copy = directory.resolve("copy.bin");
+        byte[] content = new byte[fileSize];
+        ThreadLocalRandom.current().nextBytes(content);
+        Files.write(file, content);
+    }
+
+    @TearDown(Level.Trial)
+    public void deleteFiles() throws IOException {
+        Files.deleteIfExists(copy);
+        Files.deleteIfExists(file);
+        Files.deleteIfExists(directory);
+    }
+
+    @Benchmark
+    public String calculateHash() throws NoSuchAlgorithmException, IOException {
+        return DocumentHashCalculator.calculateHash(file);
+    }
+
+    @Benchmark
+    public String calculateHashWithBuffer(Buffer buffer) throws NoSuchAlgorithmException, IOException {
+        MessageDigest digest = MessageDigest.getInstance("SHA-256");
+        byte[] bytes = new byte[buffer.bufferSize];
+        int count;
+        try (InputStream inputStream = Files.newInputStream(file)) {
+            while ((count = inputStream.read(bytes)) != -1) {
+                digest.update(bytes, 0, count);
+            }
+        }
+        return DocumentHashCalculator.bytesToHex(digest.digest());
+    }
+
+    @Benchmark
+    public String copyAndHash() throws NoSuchAlgorithmException, IOException {
+        try (InputStream inputStream = Files.newInputStream(file)) {
+            return DocumentHashCalculator.copyAndHash(inputStream, copy);
+        }
+    }
+}
@@ -0,0 +1,63 @@
+package fr.norsys.docsapi.benchmark;
+
+import fr.norsys.docsapi.security.service.UserDetailsImpl;
+import fr.norsys.docsapi.utils.JwtUtils;
+import io.jsonwebtoken.Claims;
+import org.openjdk.jmh.annotations.*;
+import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
+import org.springframework.security.core.Authentication;
+import org.springframework.util.ReflectionUtils;
+
+import java.util.UUID;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Token issue on login and the per-request validation done by the authentication filter.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class JwtBenchmark {
+
+    // Same secret and lifetime as application.yml
+    private static final String SECRET = "2D4A614E645267556B58703273357638792F423F4428472B4C6250655368566A";
+    private static final int EXPIRATION_MS = 86_400_000;
+
+    private JwtUtils jwtUtils;
+    private Authentication authentication;
+    private String token;
+
+    @Setup(Level.Trial)
+    public void init() {
+        jwtUtils = new JwtUtils();
+        set("jwtSecret", SECRET);
+        set("jwtExpirationMs", EXPIRATION_MS);
+        var init = ReflectionUtils.findMethod(JwtUtils.class, "init");
+        ReflectionUtils.makeAccessible(init);
+        ReflectionUtils.invokeMethod(init, jwtUtils);
+
+        UserDetailsImpl user = new UserDetailsImpl(UUID.randomUUID(), "benchmark", "benchmark@norsys.fr", null);
+        authentication = new UsernamePasswordAuthenticationToken(user, null, user.getAuthorities());
+        token = jwtUtils.generateJwtToken(authentication);
+    }
+
+    private void set(String field, Object value) {
+        var declared = ReflectionUtils.findField(JwtUtils.class, field);
+        ReflectionUtils.makeAccessible(declared);
+        ReflectionUtils.setField(declared, jwtUtils, value);
+    }
+
+    @Benchmark
+    public String generate() {
+        return jwtUtils.generateJwtToken(authentication);
+    }
+
+    @Benchmark
+    public UserDetailsImpl validate() {
+        Claims claims = jwtUtils.parseValidClaims(token);
+        return jwtUtils.getPrincipalFromClaims(claims);
+    }
+}
@@ -0,0 +1,71 @@
+package fr.norsys.docsapi.search;
+
+import fr.norsys.docsapi.utils.UuidV7;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.SplittableRandom;
+import java.util.UUID;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Search request handling: parsing of the {@code searchValue} parameter into the
+ * {@code to_tsquery} expression sent to PostgreSQL, and a lookup in the in-memory
+ * {@link InvertedIndex} for a reader holding grants on a fraction of the documents.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class SearchBenchmark {
+
+    private static final String[] WORDS = {"annual", "report", "invoice", "budget", "contract", "meeting",
+            "minutes", "draft", "final", "review", "plan", "roadmap", "release", "notes", "summary"};
+
+    @Param({"10000", "100000"})
+    public int documents;
+
+    @Param({"report", "annual report 2024", "client:Norsys"})
+    public String searchValue;
+
+    private InvertedIndex index;
+    private UUID reader;
+    private List<String> terms;
+
+    @Setup(Level.Trial)
+    public void buildIndex() {
+        SplittableRandom random = new SplittableRandom(42);
+        UUID owner = UUID.randomUUID();
+        reader = UUID.randomUUID();
+        index = new InvertedIndex();
+        List<UUID> ids = new ArrayList<>(documents);
+        for (int i = 0; i < documents; i++) {
+            UUID id = UuidV7.randomUuid();
+            String name = WORDS[random.nextInt(WORDS.length)] + "_" + WORDS[random.nextInt(WORDS.length)]
+                    + "_" + (2015 + random.nextInt(10)) + ".pdf";
+            index.addDocument(new IndexedDocument(id, name, "application/pdf", owner, "owner"));
+            if (random.nextInt(4) == 0) {
+                index.addMetaData(id, "client", "Norsys");
+            }
+            ids.add(id);
+        }
+        // One document in ten is shared with the reader
+        for (int i = 0; i < ids.size(); i += 10) {
+            index.grant(ids.get(i), reader);
+        }
+        terms = SearchQuery.parse(searchValue).terms();
+    }
+
+    @Benchmark
+    public String parseToTsQuery() {
+        return SearchQuery.parse(searchValue).toTsQuery();
+    }
+
+    @Benchmark
+    public List<IndexedDocument> searchIndex() {
+        return index.search(reader, terms, 20);
+    }
+}
@@ -0,0 +1,49 @@
+package fr.norsys.docsapi.service;
+
+import fr.norsys.docsapi.entity.Permission;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Parsing and folding of the {@code permissions} parameter of the share endpoints. Lives in the
+ * service package because both steps are package-private helpers of {@link DocumentLocalService}.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class PermissionBenchmark {
+
+    @Param({"READ", "READ,WRITE", "READ,WRITE,DELETE", "ALL"})
+    public String permissions;
+
+    private List<Permission> parsed;
+
+    @Setup(Level.Trial)
+    public void parse() {
+        parsed = DocumentLocalService.parsePermissions(permissions);
+    }
+
+    @Benchmark
+    public List<Permission> parsePermissions() {
+        return DocumentLocalService.parsePermissions(permissions);
+    }
+
+    @Benchmark
+    public List<Permission> resolveEffectivePermissions() {
+        return DocumentLocalService.resolveEffectivePermissions(parsed);
+    }
+
+    @Benchmark
+    public int mask() {
+        int mask = 0;
+        for (Permission permission : DocumentLocalService.resolveEffectivePermissions(DocumentLocalService.parsePermissions(permissions))) {
+            mask |= permission.mask();
+        }
+        return mask;
+    }
+}
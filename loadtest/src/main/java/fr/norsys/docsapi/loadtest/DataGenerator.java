@@ -0,0 +1,226 @@
+package fr.norsys.docsapi.loadtest;
+
+import fr.norsys.docsapi.storage.BlobSource;
+import fr.norsys.docsapi.storage.BlobStore;
+import fr.norsys.docsapi.storage.StoredBlob;
+import fr.norsys.docsapi.utils.DocumentHashCalculator;
+import fr.norsys.docsapi.utils.UuidV7;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.security.crypto.password.PasswordEncoder;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.security.NoSuchAlgorithmException;
+import java.sql.Timestamp;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.SplittableRandom;
+import java.util.UUID;
+
+/**
+ * Bulk loads synthetic users, documents, metadata and shares straight into the tables created by
+ * the Flyway migrations. Document contents come from a pool of real blobs written through the
+ * {@link BlobStore}, so downloads of generated documents work; each user references every pool
+ * entry at most once, as an upload would.
+ */
+public class DataGenerator {
+
+    private static final Logger logger = LoggerFactory.getLogger(DataGenerator.class);
+
+    static final String PASSWORD = "loadtest";
+    static final String[] WORDS = {"annual", "report", "invoice", "budget", "contract", "meeting", "minutes",
+            "draft", "final", "review", "plan", "roadmap", "release", "notes", "summary", "proposal", "audit",
+            "forecast", "payroll", "onboarding", "architecture", "specification", "quote", "order", "policy"};
+    private static final String[] CLIENTS = {"Norsys", "Acme", "Globex", "Initech", "Umbrella", "Hooli", "Soylent", "Stark"};
+    private static final String[] DEPARTMENTS = {"finance", "legal", "sales", "engineering", "hr", "marketing"};
+    private static final String[] STATUSES = {"draft", "validated", "archived", "signed"};
+    private static final String[][] TYPES = {
+            {"pdf", "application/pdf"},
+            {"docx", "application/vnd.openxmlformats-officedocument.wordprocessingml.document"},
+            {"xlsx", "application/vnd.openxmlformats-officedocument.spreadsheetml.sheet"},
+            {"txt", "text/plain"},
+            {"png", "image/png"}};
+    private static final int USERS_PER_TRANSACTION = 20;
+    private static final int BATCH_SIZE = 1000;
+
+    private final JdbcTemplate jdbcTemplate;
+    private final TransactionTemplate transactionTemplate;
+    private final BlobStore blobStore;
+    private final PasswordEncoder passwordEncoder;
+    private final LoadTestOptions options;
+    private final SplittableRandom random;
+
+    public DataGenerator(JdbcTemplate jdbcTemplate, TransactionTemplate transactionTemplate, BlobStore blobStore,
+                         PasswordEncoder passwordEncoder, LoadTestOptions options) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.transactionTemplate = transactionTemplate;
+        this.blobStore = blobStore;
+        this.passwordEncoder = passwordEncoder;
+        this.options = options;
+        this.random = new SplittableRandom(options.seed());
+    }
+
+    record GeneratedUser(UUID id, String username) {
+    }
+
+    private record PooledBlob(String checksum, long size, String extension, String type, StoredBlob stored) {
+    }
+
+    /**
+     * Loads the data set and returns the generated users, who all log in with {@link #PASSWORD}.
+     */
+    public List<GeneratedUser> generate(Path stagingDir) throws IOException, NoSuchAlgorithmException {
+        long start = System.nanoTime();
+        List<PooledBlob> pool = createBlobPool(stagingDir, options.documentsPerUser());
+
+        // A single hash for everyone: BCrypt is deliberately slow and the cost of login is not what is measured here
+        String passwordHash = passwordEncoder.encode(PASSWORD);
+        String runId = Long.toString(System.currentTimeMillis(), 36);
+        List<GeneratedUser> users = new ArrayList<>(options.users());
+        for (int i = 0; i < options.users(); i++) {
+            users.add(new GeneratedUser(UuidV7.randomUuid(), "load_" + runId + "_" + i));
+        }
+        jdbcTemplate.batchUpdate("INSERT INTO users (id, user_name, email, password) VALUES (?, ?, ?, ?)", users, BATCH_SIZE,
+                (statement, user) -> {
+                    statement.setObject(1, user.id());
+                    statement.setString(2, user.username());
+                    statement.setString(3, user.username() + "@loadtest.local");
+                    statement.setString(4, passwordHash);
+                });
+
+        for (int from = 0; from < users.size(); from += USERS_PER_TRANSACTION) {
+            List<GeneratedUser> owners = users.subList(from, Math.min(from + USERS_PER_TRANSACTION, users.size()));
+            transactionTemplate.executeWithoutResult(status -> insertDocuments(owners, users, pool));
+            logger.info("Generated documents of {}/{} users", from + owners.size(), users.size());
+        }
+
+        // Blob reference counts must match the documents pointing at them, as after real uploads
+        jdbcTemplate.update("UPDATE blob b SET ref_count = (SELECT count(*) FROM document d WHERE d.checksum = b.checksum) "
+                + "WHERE b.checksum = ANY (?)", (Object) pool.stream().map(PooledBlob::checksum).toArray(String[]::new));
+        jdbcTemplate.execute("ANALYZE");
+
+        logger.info("Generated {} users, {} documents in {}s", users.size(), (long) users.size() * options.documentsPerUser(),
+                Duration.ofNanos(System.nanoTime() - start).toSeconds());
+        return users;
+    }
+
+    private void insertDocuments(List<GeneratedUser> owners, List<GeneratedUser> users, List<PooledBlob> pool) {
+        List<Object[]> documents = new ArrayList<>();
+        List<Object[]> metadata = new ArrayList<>();
+        List<Object[]> permissions = new ArrayList<>();
+        long now = System.currentTimeMillis();
+        long twoYears = Duration.ofDays(730).toMillis();
+
+        for (GeneratedUser owner : owners) {
+            int offset = random.nextInt(pool.size());
+            for (int i = 0; i < options.documentsPerUser(); i++) {
+                PooledBlob blob = pool.get((offset + i) % pool.size());
+                long created = now - random.nextLong(twoYears);
+                UUID id = UuidV7.fromEpochMillis(created);
+                String name = WORDS[random.nextInt(WORDS.length)] + "_" + WORDS[random.nextInt(WORDS.length)]
+                        + "_" + i + "." + blob.extension();
+                documents.add(new Object[]{id, name, blob.type(), blob.size(), new Timestamp(created), new Timestamp(created),
+                        owner.id(), blob.checksum(), blob.stored().key(), blob.stored().codec().name(), blob.stored().storedSize()});
+
+                for (int m = 0; m < options.metadataPerDocument(); m++) {
+                    metadata.add(new Object[]{UuidV7.randomUuid(), id, metadataKey(m), metadataValue(m)});
+                }
+                // Uploads give the owner an ALL grant, shares add one row per recipient
+                permissions.add(new Object[]{UuidV7.randomUuid(), id, owner.id(), "ALL"});
+                for (UUID recipient : recipients(owner.id(), users)) {
+                    permissions.add(new Object[]{UuidV7.randomUuid(), id, recipient, random.nextInt(4) == 0 ? "WRITE" : "READ"});
+                }
+            }
+        }
+
+        jdbcTemplate.batchUpdate("INSERT INTO document (id, name, type, size, creation_date, modification_date, owner_id, "
+                + "checksum, storage_location, codec, stored_size) VALUES (?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?)", documents);
+        jdbcTemplate.batchUpdate("INSERT INTO metadata (id, document_id, key, value) VALUES (?, ?, ?, ?)", metadata);
+        jdbcTemplate.batchUpdate("INSERT INTO permissions (id, document_id, user_id, permission) VALUES (?, ?, ?, ?)", permissions);
+    }
+
+    /**
+     * Share fan-out is skewed like real usage: most documents stay private or go to a few
+     * colleagues, a few are shared with many people. The mean is {@code shareFanOut}.
+     */
+    private List<UUID> recipients(UUID owner, List<GeneratedUser> users) {
+        if (options.shareFanOut() == 0 || users.size() < 2) {
+            return List.of();
+        }
+        // Geometric distribution with the requested mean
+        double p = 1.0 / (options.shareFanOut() + 1);
+        int count = (int) Math.min(users.size() - 1, Math.floor(Math.log(1 - random.nextDouble()) / Math.log(1 - p)));
+        List<UUID> recipients = new ArrayList<>(count);
+        while (recipients.size() < count) {
+            UUID candidate = users.get(random.nextInt(users.size())).id();
+            if (!candidate.equals(owner) && !recipients.contains(candidate)) {
+                recipients.add(candidate);
+            }
+        }
+        return recipients;
+    }
+
+    private String metadataKey(int index) {
+        return switch (index) {
+            case 0 -> "client";
+            case 1 -> "department";
+            case 2 -> "status";
+            case 3 -> "year";
+            default -> "tag" + index;
+        };
+    }
+
+    private String metadataValue(int index) {
+        return switch (index) {
+            case 0 -> CLIENTS[random.nextInt(CLIENTS.length)];
+            case 1 -> DEPARTMENTS[random.nextInt(DEPARTMENTS.length)];
+            case 2 -> STATUSES[random.nextInt(STATUSES.length)];
+            case 3 -> String.valueOf(2015 + random.nextInt(12));
+            default -> WORDS[random.nextInt(WORDS.length)];
+        };
+    }
+
+    /**
+     * Distinct contents between 1 KB and 1 MB, log-uniformly distributed so most are small.
+     */
+    private List<PooledBlob> createBlobPool(Path stagingDir, int count) throws IOException, NoSuchAlgorithmException {
+        Files.createDirectories(stagingDir);
+        List<BlobSource> sources = new ArrayList<>(count);
+        List<String[]> types = new ArrayList<>(count);
+        for (int i = 0; i < count; i++) {
+            String[] type = TYPES[random.nextInt(TYPES.length)];
+            int size = (int) Math.round(Math.pow(2, 10 + random.nextDouble() * 10));
+            Path file = stagingDir.resolve("blob-" + i);
+            Files.write(file, content(type[1], size, i));
+            sources.add(new BlobSource(file, DocumentHashCalculator.calculateHash(file), Files.size(file), type[1]));
+            types.add(type);
+        }
+        // Outside any transaction, as for uploads: the store commits its own references
+        List<StoredBlob> stored = blobStore.storeAll(sources);
+        List<PooledBlob> pool = new ArrayList<>(count);
+        for (int i = 0; i < count; i++) {
+            BlobSource source = sources.get(i);
+            pool.add(new PooledBlob(source.checksum(), source.size(), types.get(i)[0], source.type(), stored.get(i)));
+        }
+        return pool;
+    }
+
+    private byte[] content(String type, int size, int index) {
+        if (type.startsWith("text/")) {
+            StringBuilder text = new StringBuilder(size + 16).append(index).append('\n');
+            while (text.length() < size) {
+                text.append(WORDS[random.nextInt(WORDS.length)]).append(random.nextInt(8) == 0 ? '\n' : ' ');
+            }
+            return text.toString().getBytes(StandardCharsets.UTF_8);
+        }
+        byte[] bytes = new byte[size];
+        random.nextBytes(bytes);
+        return bytes;
+    }
+}
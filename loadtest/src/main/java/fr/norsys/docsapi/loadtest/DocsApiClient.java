@@ -0,0 +1,124 @@
+package fr.norsys.docsapi.loadtest;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.net.URI;
+import java.net.URLEncoder;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+
+/**
+ * Minimal HTTP client for the endpoints exercised by the scenarios. Every call returns the
+ * response status; bodies are only parsed where the next request depends on them.
+ */
+public class DocsApiClient {
+
+    private static final Duration TIMEOUT = Duration.ofSeconds(30);
+
+    private final HttpClient httpClient;
+    private final URI baseUri;
+    private final ObjectMapper objectMapper = new ObjectMapper();
+
+    public DocsApiClient(HttpClient httpClient, URI baseUri) {
+        this.httpClient = httpClient;
+        this.baseUri = baseUri;
+    }
+
+    record Page(int status, String nextCursor) {
+    }
+
+    record Upload(int status, UUID documentId) {
+    }
+
+    public String login(String username, String password) throws IOException, InterruptedException {
+        byte[] body = objectMapper.writeValueAsBytes(Map.of("username", username, "password", password));
+        HttpResponse<byte[]> response = httpClient.send(HttpRequest.newBuilder(baseUri.resolve("/api/auth/login"))
+                .timeout(TIMEOUT)
+                .header("Content-Type", "application/json")
+                .POST(HttpRequest.BodyPublishers.ofByteArray(body))
+                .build(), HttpResponse.BodyHandlers.ofByteArray());
+        if (response.statusCode() != 200) {
+            throw new IOException("Login of " + username + " failed with status " + response.statusCode());
+        }
+        return objectMapper.readTree(response.body()).get("token").asText();
+    }
+
+    public Upload upload(String token, String name, byte[] content, String metadata) throws IOException, InterruptedException {
+        String boundary = "loadtest-" + UUID.randomUUID();
+        ByteArrayOutputStream body = new ByteArrayOutputStream(content.length + 512);
+        body.writeBytes(("--" + boundary + "\r\nContent-Disposition: form-data; name=\"document\"; filename=\"" + name
+                + "\"\r\nContent-Type: application/octet-stream\r\n\r\n").getBytes(StandardCharsets.UTF_8));
+        body.writeBytes(content);
+        body.writeBytes(("\r\n--" + boundary + "\r\nContent-Disposition: form-data; name=\"metadata\"\r\n\r\n" + metadata
+                + "\r\n--" + boundary + "--\r\n").getBytes(StandardCharsets.UTF_8));
+
+        HttpResponse<byte[]> response = httpClient.send(authorized(token, "/api/documents/upload")
+                .header("Content-Type", "multipart/form-data; boundary=" + boundary)
+                .POST(HttpRequest.BodyPublishers.ofByteArray(body.toByteArray()))
+                .build(), HttpResponse.BodyHandlers.ofByteArray());
+        if (response.statusCode() != 200) {
+            return new Upload(response.statusCode(), null);
+        }
+        String downloadUri = objectMapper.readTree(response.body()).get("downloadUri").asText();
+        return new Upload(response.statusCode(), UUID.fromString(downloadUri.substring(downloadUri.lastIndexOf('/') + 1)));
+    }
+
+    public int list(String token) throws IOException, InterruptedException {
+        return discard(authorized(token, "/api/documents?fields=id,name,size,dateCreation").GET().build());
+    }
+
+    public Page page(String token, String cursor, int size) throws IOException, InterruptedException {
+        String path = "/api/documents/cursor?size=" + size + (cursor == null ? "" : "&cursor=" + encode(cursor));
+        HttpResponse<byte[]> response = httpClient.send(authorized(token, path).GET().build(), HttpResponse.BodyHandlers.ofByteArray());
+        if (response.statusCode() != 200) {
+            return new Page(response.statusCode(), null);
+        }
+        JsonNode nextCursor = objectMapper.readTree(response.body()).get("nextCursor");
+        return new Page(response.statusCode(), nextCursor == null || nextCursor.isNull() ? null : nextCursor.asText());
+    }
+
+    public int search(String token, String searchValue) throws IOException, InterruptedException {
+        return discard(authorized(token, "/api/documents/search?searchValue=" + encode(searchValue)).GET().build());
+    }
+
+    public int share(String token, UUID documentId, List<UUID> userIds, String permissions) throws IOException, InterruptedException {
+        byte[] body = objectMapper.writeValueAsBytes(Map.of(
+                "documentId", documentId.toString(),
+                "usersIds", userIds.stream().map(UUID::toString).toList(),
+                "permissions", permissions));
+        return discard(authorized(token, "/api/documents/share")
+                .header("Content-Type", "application/json")
+                .POST(HttpRequest.BodyPublishers.ofByteArray(body))
+                .build());
+    }
+
+    public int download(String token, UUID documentId) throws IOException, InterruptedException {
+        return discard(authorized(token, "/api/documents/download/" + documentId)
+                .header("Accept-Encoding", "gzip")
+                .GET()
+                .build());
+    }
+
+    private HttpRequest.Builder authorized(String token, String path) {
+        return HttpRequest.newBuilder(baseUri.resolve(path))
+                .timeout(TIMEOUT)
+                .header("Authorization", "Bearer " + token);
+    }
+
+    private int discard(HttpRequest request) throws IOException, InterruptedException {
+        return httpClient.send(request, HttpResponse.BodyHandlers.discarding()).statusCode();
+    }
+
+    private static String encode(String value) {
+        return URLEncoder.encode(value, StandardCharsets.UTF_8);
+    }
+}
@@ -0,0 +1,201 @@
+package fr.norsys.docsapi.loadtest;
+
+import fr.norsys.docsapi.loadtest.DataGenerator.GeneratedUser;
+import org.HdrHistogram.ConcurrentHistogram;
+import org.HdrHistogram.Histogram;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.EnumMap;
+import java.util.List;
+import java.util.Map;
+import java.util.SplittableRandom;
+import java.util.UUID;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Closed-model load: {@code concurrency} clients, each logged in as one generated user, send
+ * requests back to back with scenarios drawn from the configured mix. Only requests started
+ * after the warm-up are recorded.
+ */
+public class LoadDriver {
+
+    private static final Logger logger = LoggerFactory.getLogger(LoadDriver.class);
+
+    private static final int PAGE_SIZE = 20;
+    private static final String METADATA = "[{\"key\":\"client\",\"value\":\"Norsys\"},{\"key\":\"status\",\"value\":\"draft\"}]";
+
+    private final DocsApiClient client;
+    private final JdbcTemplate jdbcTemplate;
+    private final LoadTestOptions options;
+    private final List<GeneratedUser> users;
+    private final Scenario[] weightedScenarios;
+    private final Map<Scenario, Histogram> latencies = new EnumMap<>(Scenario.class);
+    private final Map<Scenario, LongAdder> errors = new EnumMap<>(Scenario.class);
+
+    public LoadDriver(URI baseUri, JdbcTemplate jdbcTemplate, LoadTestOptions options, List<GeneratedUser> users) {
+        this.client = new DocsApiClient(HttpClient.newBuilder()
+                .version(HttpClient.Version.HTTP_1_1)
+                .connectTimeout(Duration.ofSeconds(5))
+                .executor(Executors.newVirtualThreadPerTaskExecutor())
+                .build(), baseUri);
+        this.jdbcTemplate = jdbcTemplate;
+        this.options = options;
+        this.users = users;
+
+        List<Scenario> weighted = new ArrayList<>();
+        options.mix().forEach((scenario, weight) -> {
+            for (int i = 0; i < weight; i++) {
+                weighted.add(scenario);
+            }
+            // Microseconds, auto-resizing so slow outliers are never clipped
+            latencies.put(scenario, new ConcurrentHistogram(3));
+            errors.put(scenario, new LongAdder());
+        });
+        this.weightedScenarios = weighted.toArray(Scenario[]::new);
+    }
+
+    /**
+     * Per client state: who it is, which documents it owns and where its listing stands.
+     */
+    private class Session {
+        final GeneratedUser user;
+        final String token;
+        final List<UUID> documents;
+        final SplittableRandom random;
+        String cursor;
+
+        Session(GeneratedUser user, String token, List<UUID> documents, SplittableRandom random) {
+            this.user = user;
+            this.token = token;
+            this.documents = documents;
+            this.random = random;
+        }
+    }
+
+    public LoadReport run() throws InterruptedException {
+        long startNanos = System.nanoTime();
+        long measureFrom = startNanos + options.warmup().toNanos();
+        long deadline = measureFrom + options.duration().toNanos();
+
+        logger.info("Running {} clients for {} after a {} warm-up", options.concurrency(), options.duration(), options.warmup());
+        try (ExecutorService clients = Executors.newVirtualThreadPerTaskExecutor()) {
+            for (int i = 0; i < options.concurrency(); i++) {
+                GeneratedUser user = users.get(i % users.size());
+                SplittableRandom random = new SplittableRandom(options.seed() + i);
+                clients.submit(() -> {
+                    try {
+                        runClient(user, random, measureFrom, deadline);
+                    } catch (Exception e) {
+                        logger.error("Client of {} stopped", user.username(), e);
+                    }
+                });
+            }
+            clients.shutdown();
+            if (!clients.awaitTermination(options.warmup().plus(options.duration()).plusMinutes(1).toMillis(), TimeUnit.MILLISECONDS)) {
+                clients.shutdownNow();
+            }
+        }
+
+        Duration window = options.duration();
+        List<LoadReport.ScenarioResult> results = new ArrayList<>();
+        latencies.forEach((scenario, histogram) ->
+                results.add(LoadReport.ScenarioResult.of(scenario, histogram, errors.get(scenario).sum(), window)));
+        return LoadReport.of(options, window, results);
+    }
+
+    private void runClient(GeneratedUser user, SplittableRandom random, long measureFrom, long deadline) throws Exception {
+        String token = client.login(user.username(), DataGenerator.PASSWORD);
+        List<UUID> documents = new ArrayList<>(jdbcTemplate.queryForList(
+                "SELECT id FROM document WHERE owner_id = ? ORDER BY creation_date DESC LIMIT 200", UUID.class, user.id()));
+        Session session = new Session(user, token, documents, random);
+
+        long now;
+        while ((now = System.nanoTime()) < deadline) {
+            Scenario scenario = weightedScenarios[random.nextInt(weightedScenarios.length)];
+            Boolean ok;
+            try {
+                ok = execute(scenario, session);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                return;
+            } catch (Exception e) {
+                logger.debug("{} failed", scenario, e);
+                ok = false;
+            }
+            if (ok != null && now >= measureFrom) {
+                latencies.get(scenario).recordValue(TimeUnit.NANOSECONDS.toMicros(System.nanoTime() - now));
+                if (!ok) {
+                    errors.get(scenario).increment();
+                }
+            }
+        }
+    }
+
+    /**
+     * Whether the request succeeded, or null when the client has nothing to do for this scenario yet.
+     */
+    private Boolean execute(Scenario scenario, Session session) throws Exception {
+        SplittableRandom random = session.random;
+        return switch (scenario) {
+            case UPLOAD -> {
+                byte[] content = new byte[16_384 + random.nextInt(245_760)];
+                random.nextBytes(content);
+                // Clients may share a user, so names must not depend on a per client counter
+                String name = "upload_" + Long.toHexString(random.nextLong()) + ".bin";
+                DocsApiClient.Upload upload = client.upload(session.token, name, content, METADATA);
+                if (upload.documentId() != null) {
+                    session.documents.add(upload.documentId());
+                }
+                yield isSuccess(upload.status());
+            }
+            case LIST -> isSuccess(client.list(session.token));
+            case PAGE -> {
+                // Mostly keep scrolling, sometimes start over from the newest documents
+                String cursor = random.nextInt(10) < 7 ? session.cursor : null;
+                DocsApiClient.Page page = client.page(session.token, cursor, PAGE_SIZE);
+                session.cursor = page.nextCursor();
+                yield isSuccess(page.status());
+            }
+            case SEARCH -> isSuccess(client.search(session.token, searchValue(random)));
+            case SHARE -> {
+                if (session.documents.isEmpty() || users.size() < 2) {
+                    yield null;
+                }
+                UUID recipient = users.get(random.nextInt(users.size())).id();
+                if (recipient.equals(session.user.id())) {
+                    yield null;
+                }
+                UUID document = session.documents.get(random.nextInt(session.documents.size()));
+                yield isSuccess(client.share(session.token, document, List.of(recipient), "READ"));
+            }
+            case DOWNLOAD -> {
+                if (session.documents.isEmpty()) {
+                    yield null;
+                }
+                yield isSuccess(client.download(session.token, session.documents.get(random.nextInt(session.documents.size()))));
+            }
+        };
+    }
+
+    private static String searchValue(SplittableRandom random) {
+        String[] words = DataGenerator.WORDS;
+        return switch (random.nextInt(4)) {
+            case 0 -> words[random.nextInt(words.length)] + " " + words[random.nextInt(words.length)];
+            case 1 -> "client:Norsys";
+            default -> words[random.nextInt(words.length)].substring(0, 4);
+        };
+    }
+
+    private static boolean isSuccess(int status) {
+        return status >= 200 && status < 300;
+    }
+}
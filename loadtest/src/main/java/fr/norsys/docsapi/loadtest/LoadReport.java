@@ -0,0 +1,62 @@
+package fr.norsys.docsapi.loadtest;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import org.HdrHistogram.Histogram;
+
+import java.io.IOException;
+import java.io.PrintStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.List;
+
+/**
+ * Throughput and latency percentiles per scenario over the measured window. Latencies are
+ * in milliseconds; errors are transport failures and non 2xx answers.
+ */
+public record LoadReport(int users, int documentsPerUser, int concurrency, long measuredSeconds,
+                         long requests, long errors, double throughput, List<ScenarioResult> scenarios) {
+
+    public record ScenarioResult(String scenario, long requests, long errors, double throughput,
+                                 double mean, double p50, double p90, double p99, double p999, double max) {
+
+        static ScenarioResult of(Scenario scenario, Histogram histogram, long errors, Duration window) {
+            return new ScenarioResult(scenario.key(), histogram.getTotalCount(), errors,
+                    histogram.getTotalCount() / (window.toMillis() / 1000.0),
+                    histogram.getMean() / 1000.0,
+                    millis(histogram, 50), millis(histogram, 90), millis(histogram, 99), millis(histogram, 99.9),
+                    histogram.getMaxValue() / 1000.0);
+        }
+
+        private static double millis(Histogram histogram, double percentile) {
+            return histogram.getValueAtPercentile(percentile) / 1000.0;
+        }
+    }
+
+    static LoadReport of(LoadTestOptions options, Duration window, List<ScenarioResult> scenarios) {
+        long requests = scenarios.stream().mapToLong(ScenarioResult::requests).sum();
+        long errors = scenarios.stream().mapToLong(ScenarioResult::errors).sum();
+        return new LoadReport(options.users(), options.documentsPerUser(), options.concurrency(), window.toSeconds(),
+                requests, errors, requests / (window.toMillis() / 1000.0), List.copyOf(scenarios));
+    }
+
+    public void print(PrintStream out) {
+        out.printf("%n%d users x %d documents, %d concurrent clients, %ds measured%n", users, documentsPerUser, concurrency, measuredSeconds);
+        out.printf("%-10s %10s %8s %10s %9s %9s %9s %9s %9s %9s%n",
+                "scenario", "requests", "errors", "req/s", "mean ms", "p50 ms", "p90 ms", "p99 ms", "p99.9 ms", "max ms");
+        for (ScenarioResult result : scenarios) {
+            out.printf("%-10s %10d %8d %10.1f %9.2f %9.2f %9.2f %9.2f %9.2f %9.2f%n", result.scenario(), result.requests(),
+                    result.errors(), result.throughput(), result.mean(), result.p50(), result.p90(), result.p99(),
+                    result.p999(), result.max());
+        }
+        out.printf("%-10s %10d %8d %10.1f%n", "total", requests, errors, throughput);
+    }
+
+    public void write(Path file) throws IOException {
+        if (file.getParent() != null) {
+            Files.createDirectories(file.getParent());
+        }
+        new ObjectMapper().enable(SerializationFeature.INDENT_OUTPUT).writeValue(file.toFile(), this);
+    }
+}
@@ -0,0 +1,86 @@
+package fr.norsys.docsapi.loadtest;
+
+import fr.norsys.docsapi.DocsApiApplication;
+import fr.norsys.docsapi.storage.BlobStore;
+import io.zonky.test.db.postgres.embedded.EmbeddedPostgres;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.boot.web.context.WebServerApplicationContext;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.security.crypto.password.PasswordEncoder;
+import org.springframework.transaction.support.TransactionTemplate;
+import org.testcontainers.containers.PostgreSQLContainer;
+import org.testcontainers.utility.DockerImageName;
+
+import java.net.URI;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+
+/**
+ * End-to-end load test: starts PostgreSQL (see {@link LoadTestOptions}), boots the application on it
+ * so Flyway creates the schema, bulk loads a synthetic data set, replays the scenario mix over HTTP
+ * and reports throughput and latency percentiles.
+ * <pre>
+ * mvn install -DskipTests                       # in the parent directory
+ * mvn compile exec:java -Dexec.args="--users=1000 --documents-per-user=500 --concurrency=100 --duration=PT5M"
+ * </pre>
+ * The clients run in the same JVM as the application, so compare runs made on the same machine.
+ */
+public class LoadTest {
+
+    private static final Logger logger = LoggerFactory.getLogger(LoadTest.class);
+
+    public static void main(String[] args) throws Exception {
+        LoadTestOptions options = LoadTestOptions.parse(args);
+        PostgreSQLContainer<?> container = null;
+        EmbeddedPostgres embedded = null;
+        String jdbcUrl = options.jdbcUrl();
+        String username = options.jdbcUsername();
+        String password = options.jdbcPassword();
+        if (jdbcUrl == null && "embedded".equals(options.database())) {
+            embedded = EmbeddedPostgres.builder().start();
+            jdbcUrl = embedded.getJdbcUrl("postgres", "postgres");
+            username = "postgres";
+            password = "";
+            logger.info("Started embedded PostgreSQL at {}", jdbcUrl);
+        } else if (jdbcUrl == null) {
+            container = new PostgreSQLContainer<>(DockerImageName.parse(options.postgresImage()).asCompatibleSubstituteFor("postgres"))
+                    .withDatabaseName("apidoc")
+                    .withUsername(username)
+                    .withPassword(password);
+            container.start();
+            jdbcUrl = container.getJdbcUrl();
+            logger.info("Started {} at {}", options.postgresImage(), jdbcUrl);
+        }
+
+        Path storage = Files.createTempDirectory("docs-api-loadtest");
+        // Command line arguments, so they take precedence over application.yml
+        try (ConfigurableApplicationContext context = new SpringApplicationBuilder(DocsApiApplication.class).run(
+                "--spring.datasource.url=" + jdbcUrl + (jdbcUrl.contains("?") ? "&" : "?") + "reWriteBatchedInserts=true",
+                "--spring.datasource.username=" + username,
+                "--spring.datasource.password=" + password,
+                "--server.port=0",
+                "--management.server.port=0",
+                "--file.upload-dir=" + storage)) {
+            DataGenerator generator = new DataGenerator(context.getBean(JdbcTemplate.class), context.getBean(TransactionTemplate.class),
+                    context.getBean(BlobStore.class), context.getBean(PasswordEncoder.class), options);
+            List<DataGenerator.GeneratedUser> users = generator.generate(storage.resolve("generator"));
+
+            int port = ((WebServerApplicationContext) context).getWebServer().getPort();
+            LoadReport report = new LoadDriver(URI.create("http://localhost:" + port), context.getBean(JdbcTemplate.class), options, users).run();
+            report.print(System.out);
+            report.write(options.report());
+            logger.info("Report written to {}", options.report().toAbsolutePath());
+        } finally {
+            if (container != null) {
+                container.stop();
+            }
+            if (embedded != null) {
+                embedded.close();
+            }
+        }
+    }
+}
@@ -0,0 +1,70 @@
+package fr.norsys.docsapi.loadtest;
+
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.EnumMap;
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * Load test settings, given as {@code --name=value} arguments. {@code jdbcUrl} points the run at an
+ * existing database; without it a throwaway PostgreSQL is started, in a container or, with
+ * {@code --database=embedded}, from binaries unpacked locally for machines without Docker.
+ *
+ * @param mix relative weight of each scenario in the request stream
+ */
+public record LoadTestOptions(int users,
+                              int documentsPerUser,
+                              int metadataPerDocument,
+                              int shareFanOut,
+                              int concurrency,
+                              Duration warmup,
+                              Duration duration,
+                              Map<Scenario, Integer> mix,
+                              String database,
+                              String jdbcUrl,
+                              String jdbcUsername,
+                              String jdbcPassword,
+                              String postgresImage,
+                              Path report,
+                              long seed) {
+
+    public static LoadTestOptions parse(String[] args) {
+        Map<String, String> values = new HashMap<>();
+        for (String arg : args) {
+            if (!arg.startsWith("--") || !arg.contains("=")) {
+                throw new IllegalArgumentException("Expected --name=value, got " + arg);
+            }
+            String[] parts = arg.substring(2).split("=", 2);
+            values.put(parts[0], parts[1]);
+        }
+
+        Map<Scenario, Integer> mix = new EnumMap<>(Scenario.class);
+        for (Scenario scenario : Scenario.values()) {
+            int weight = Integer.parseInt(values.getOrDefault("mix." + scenario.key(), String.valueOf(scenario.defaultWeight())));
+            if (weight > 0) {
+                mix.put(scenario, weight);
+            }
+        }
+        if (mix.isEmpty()) {
+            throw new IllegalArgumentException("Every scenario has a zero weight");
+        }
+
+        return new LoadTestOptions(
+                Integer.parseInt(values.getOrDefault("users", "200")),
+                Integer.parseInt(values.getOrDefault("documents-per-user", "100")),
+                Integer.parseInt(values.getOrDefault("metadata-per-document", "3")),
+                Integer.parseInt(values.getOrDefault("share-fan-out", "5")),
+                Integer.parseInt(values.getOrDefault("concurrency", "50")),
+                Duration.parse(values.getOrDefault("warmup", "PT30S")),
+                Duration.parse(values.getOrDefault("duration", "PT2M")),
+                mix,
+                values.getOrDefault("database", "container"),
+                values.get("jdbc-url"),
+                values.getOrDefault("jdbc-username", "root"),
+                values.getOrDefault("jdbc-password", "password"),
+                values.getOrDefault("postgres-image", "postgres:16-alpine"),
+                Path.of(values.getOrDefault("report", "target/loadtest-report.json")),
+                Long.parseLong(values.getOrDefault("seed", "42")));
+    }
+}
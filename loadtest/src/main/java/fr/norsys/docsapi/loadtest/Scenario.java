@@ -0,0 +1,30 @@
+package fr.norsys.docsapi.loadtest;
+
+/**
+ * User actions replayed by the load test, with their default share of the traffic
+ * (mostly reads, as in production).
+ */
+public enum Scenario {
+    UPLOAD("upload", 5),
+    LIST("list", 15),
+    PAGE("page", 30),
+    SEARCH("search", 25),
+    SHARE("share", 5),
+    DOWNLOAD("download", 20);
+
+    private final String key;
+    private final int defaultWeight;
+
+    Scenario(String key, int defaultWeight) {
+        this.key = key;
+        this.defaultWeight = defaultWeight;
+    }
+
+    public String key() {
+        return key;
+    }
+
+    public int defaultWeight() {
+        return defaultWeight;
+    }
+}
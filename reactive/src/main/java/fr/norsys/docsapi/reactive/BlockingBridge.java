@@ -0,0 +1,60 @@
+package fr.norsys.docsapi.reactive;
+
+import org.springframework.beans.factory.DisposableBean;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.security.core.context.ReactiveSecurityContextHolder;
+import org.springframework.security.core.context.SecurityContext;
+import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.stereotype.Component;
+import reactor.core.publisher.Mono;
+import reactor.core.scheduler.Scheduler;
+import reactor.core.scheduler.Schedulers;
+
+import java.util.Optional;
+import java.util.concurrent.Callable;
+import java.util.concurrent.Executor;
+
+/**
+ * Runs the blocking JPA services off the event loop on a bounded pool sized like the connection
+ * pool, so waiting for a connection happens in its queue rather than in HikariCP. The caller's
+ * reactive security context is installed for the duration of the call, as the services read
+ * the user from {@link SecurityContextHolder}.
+ */
+@Component
+public class BlockingBridge implements DisposableBean {
+
+    private final Scheduler scheduler;
+
+    public BlockingBridge(@Value("${docsapi.reactive.blocking.thread-cap:20}") int threadCap,
+                          @Value("${docsapi.reactive.blocking.queued-task-cap:10000}") int queuedTaskCap) {
+        this.scheduler = Schedulers.newBoundedElastic(threadCap, queuedTaskCap, "jdbc-bridge");
+    }
+
+    public <T> Mono<T> call(Callable<T> task) {
+        return ReactiveSecurityContextHolder.getContext()
+                .map(Optional::of)
+                .defaultIfEmpty(Optional.empty())
+                .flatMap(context -> Mono.fromCallable(() -> callWith(context, task)).subscribeOn(scheduler));
+    }
+
+    /**
+     * For producers that write to an {@code OutputStream}, such as the streamed listings.
+     */
+    public Executor executor() {
+        return scheduler::schedule;
+    }
+
+    @Override
+    public void destroy() {
+        scheduler.dispose();
+    }
+
+    private static <T> T callWith(Optional<SecurityContext> context, Callable<T> task) throws Exception {
+        context.ifPresent(SecurityContextHolder::setContext);
+        try {
+            return task.call();
+        } finally {
+            SecurityContextHolder.clearContext();
+        }
+    }
+}
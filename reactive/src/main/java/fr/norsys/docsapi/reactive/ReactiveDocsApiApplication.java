@@ -0,0 +1,42 @@
+package fr.norsys.docsapi.reactive;
+
+import fr.norsys.docsapi.service.AuthService;
+import fr.norsys.docsapi.utils.DocumentStorageProperties;
+import fr.norsys.docsapi.utils.IngestionConfig;
+import fr.norsys.docsapi.utils.JacksonConfig;
+import fr.norsys.docsapi.utils.JwtUtils;
+import fr.norsys.docsapi.utils.S3StorageConfig;
+import org.springframework.boot.SpringApplication;
+import org.springframework.boot.SpringBootConfiguration;
+import org.springframework.boot.autoconfigure.EnableAutoConfiguration;
+import org.springframework.boot.autoconfigure.domain.EntityScan;
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
+import org.springframework.context.annotation.ComponentScan;
+import org.springframework.context.annotation.FilterType;
+import org.springframework.context.annotation.Import;
+import org.springframework.data.jpa.repository.config.EnableJpaRepositories;
+
+/**
+ * The document API on WebFlux. Services, storage and repositories are the servlet
+ * application's; its MVC controllers and security are replaced by the ones in this package,
+ * and sign-in stays on the servlet application (tokens share the JWT secret).
+ */
+@SpringBootConfiguration
+@EnableAutoConfiguration
+@ComponentScan(basePackages = {
+        "fr.norsys.docsapi.reactive",
+        "fr.norsys.docsapi.service",
+        "fr.norsys.docsapi.storage",
+        "fr.norsys.docsapi.search",
+        "fr.norsys.docsapi.security.service",
+}, excludeFilters = @ComponentScan.Filter(type = FilterType.ASSIGNABLE_TYPE, classes = AuthService.class))
+@EnableJpaRepositories("fr.norsys.docsapi.repository")
+@EntityScan("fr.norsys.docsapi.entity")
+@EnableConfigurationProperties(DocumentStorageProperties.class)
+@Import({IngestionConfig.class, JacksonConfig.class, S3StorageConfig.class, JwtUtils.class})
+public class ReactiveDocsApiApplication {
+
+    public static void main(String[] args) {
+        SpringApplication.run(ReactiveDocsApiApplication.class, args);
+    }
+}
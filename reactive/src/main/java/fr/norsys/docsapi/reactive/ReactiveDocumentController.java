@@ -0,0 +1,359 @@
+package fr.norsys.docsapi.reactive;
+
+import com.fasterxml.jackson.core.type.TypeReference;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import fr.norsys.docsapi.dto.document.BulkShareDto;
+import fr.norsys.docsapi.dto.document.DocumentDownloadDto;
+import fr.norsys.docsapi.dto.document.DocumentUploadResponse;
+import fr.norsys.docsapi.dto.document.ShareDto;
+import fr.norsys.docsapi.entity.MetaData;
+import fr.norsys.docsapi.entity.StorageCodec;
+import fr.norsys.docsapi.service.IDocumentService;
+import fr.norsys.docsapi.storage.RangeReadableResource;
+import fr.norsys.docsapi.utils.DocumentFields;
+import fr.norsys.docsapi.utils.DocumentHashCalculator;
+import fr.norsys.docsapi.utils.DocumentStorageProperties;
+import org.springframework.core.io.Resource;
+import org.springframework.core.io.buffer.DataBuffer;
+import org.springframework.core.io.buffer.DataBufferFactory;
+import org.springframework.core.io.buffer.DataBufferUtils;
+import org.springframework.core.io.buffer.DefaultDataBufferFactory;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpRange;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.InvalidMediaTypeException;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.http.codec.multipart.FilePartEvent;
+import org.springframework.http.codec.multipart.FormPartEvent;
+import org.springframework.http.codec.multipart.PartEvent;
+import org.springframework.util.StringUtils;
+import org.springframework.web.bind.annotation.*;
+import org.springframework.web.server.ResponseStatusException;
+import org.springframework.web.server.ServerWebExchange;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+import reactor.core.scheduler.Schedulers;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardOpenOption;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * The servlet {@code /api/documents} surface on WebFlux. Transfers never block an event loop
+ * thread: uploads are streamed part by part into a staged file with backpressure and downloads
+ * are read through an {@code AsynchronousFileChannel}. Everything touching the database goes
+ * through the {@link BlockingBridge}.
+ */
+@RestController
+@RequestMapping("/api/documents")
+@CrossOrigin(exposedHeaders = {"Content-Disposition", "Content-Range", "Accept-Ranges", "ETag", "Content-Encoding"})
+public class ReactiveDocumentController {
+
+    private static final int BUFFER_SIZE = 64 * 1024;
+
+    private final IDocumentService documentService;
+    private final BlockingBridge blockingBridge;
+    private final DocumentStorageProperties documentStorageProperties;
+    private final ObjectMapper objectMapper;
+    private final DataBufferFactory bufferFactory = DefaultDataBufferFactory.sharedInstance;
+
+    public ReactiveDocumentController(IDocumentService documentService, BlockingBridge blockingBridge, DocumentStorageProperties documentStorageProperties, ObjectMapper objectMapper) {
+        this.documentService = documentService;
+        this.blockingBridge = blockingBridge;
+        this.documentStorageProperties = documentStorageProperties;
+        this.objectMapper = objectMapper;
+    }
+
+    /**
+     * Takes the same multipart form as the servlet endpoint ({@code document} file and
+     * {@code metadata} JSON field), read as part events so the file is never buffered whole.
+     */
+    @PostMapping(value = "/upload", consumes = MediaType.MULTIPART_FORM_DATA_VALUE)
+    public Mono<DocumentUploadResponse> upload(@RequestBody Flux<PartEvent> parts) {
+        IncomingUpload upload = new IncomingUpload();
+        return parts.windowUntil(PartEvent::isLast)
+                .concatMap(events -> events.switchOnFirst((first, all) -> {
+                    if (first.get() instanceof FormPartEvent form && "metadata".equals(form.name())) {
+                        upload.metadata = form.value();
+                        return all.then();
+                    }
+                    if (first.get() instanceof FilePartEvent file && "document".equals(file.name())) {
+                        upload.name = StringUtils.cleanPath(file.filename());
+                        return stage(all.map(PartEvent::content), upload);
+                    }
+                    return all.doOnNext(event -> DataBufferUtils.release(event.content())).then();
+                }))
+                .then(Mono.defer(() -> persist(upload)))
+                .doFinally(signal -> upload.deleteStagedFile());
+    }
+
+    @GetMapping(value = "")
+    public Mono<?> getDocuments(@RequestParam(required = false) String fields) {
+        return blockingBridge.call(documentService::getList).map(DocumentFields.parse(fields)::select);
+    }
+
+    @GetMapping(value = "{docId}")
+    public Mono<?> getDocument(@PathVariable String docId, @RequestParam(required = false) String fields) {
+        return blockingBridge.call(() -> documentService.getDetails(UUID.fromString(docId))).map(DocumentFields.parse(fields)::select);
+    }
+
+    @GetMapping(value = "/stream", produces = {MediaType.APPLICATION_JSON_VALUE, MediaType.APPLICATION_NDJSON_VALUE})
+    public Mono<ResponseEntity<Flux<DataBuffer>>> streamDocuments(@RequestParam(required = false) String fields, ServerWebExchange exchange) {
+        boolean ndjson = isNdjson(exchange);
+        return blockingBridge.call(() -> documentService.streamList(ndjson, DocumentFields.parse(fields)))
+                .map(body -> streamed(body, ndjson));
+    }
+
+    @GetMapping(value = "/sharedwithme/stream", produces = {MediaType.APPLICATION_JSON_VALUE, MediaType.APPLICATION_NDJSON_VALUE})
+    public Mono<ResponseEntity<Flux<DataBuffer>>> streamSharedWithMe(@RequestParam(required = false) String fields, ServerWebExchange exchange) {
+        boolean ndjson = isNdjson(exchange);
+        return blockingBridge.call(() -> documentService.streamSharedWithMe(ndjson, DocumentFields.parse(fields)))
+                .map(body -> streamed(body, ndjson));
+    }
+
+    @GetMapping(value = "/page")
+    public Mono<?> getDocumentsPagination(@RequestParam(defaultValue = "0") int page, @RequestParam(defaultValue = "10") int size,
+                                          @RequestParam(required = false) String fields) {
+        return blockingBridge.call(() -> documentService.getListPagination(page, size)).map(DocumentFields.parse(fields)::select);
+    }
+
+    @GetMapping(value = "/cursor")
+    public Mono<?> getDocumentsCursor(@RequestParam(required = false) String cursor,
+                                      @RequestParam(defaultValue = "10") int size,
+                                      @RequestParam(defaultValue = "false") boolean includeTotal,
+                                      @RequestParam(required = false) String fields) {
+        return blockingBridge.call(() -> documentService.getListCursor(cursor, size, includeTotal)).map(DocumentFields.parse(fields)::select);
+    }
+
+    /**
+     * Same headers and validators as the servlet download, with the bytes read from the blob
+     * through an {@code AsynchronousFileChannel}. A single byte range is served as 206; other
+     * range sets get the whole body, which HTTP allows.
+     */
+    @GetMapping("/download/{docId}")
+    public Mono<ResponseEntity<Flux<DataBuffer>>> download(@PathVariable String docId, ServerWebExchange exchange) {
+        HttpHeaders requestHeaders = exchange.getRequest().getHeaders();
+        return blockingBridge.call(() -> documentService.download(docId)).map(download -> {
+            StorageCodec codec = download.getCodec() == null ? StorageCodec.NONE : download.getCodec();
+            List<HttpRange> ranges = requestHeaders.getRange();
+            boolean passThrough = download.getEncodedResource() != null && ranges.isEmpty()
+                    && codec.isAcceptedBy(requestHeaders.getFirst(HttpHeaders.ACCEPT_ENCODING));
+            Resource resource = passThrough ? download.getEncodedResource() : download.getResource();
+            long length = contentLength(resource);
+
+            HttpHeaders headers = new HttpHeaders();
+            headers.setContentType(resolveContentType(download.getType()));
+            headers.set(HttpHeaders.CONTENT_DISPOSITION, "attachment; filename=\"" + download.getName() + "\"");
+            headers.set(HttpHeaders.ACCEPT_RANGES, "bytes");
+            headers.setETag("\"" + (passThrough ? download.getChecksum() + "-" + codec.contentEncoding() : download.getChecksum()) + "\"");
+            if (codec != StorageCodec.NONE) {
+                headers.setVary(List.of(HttpHeaders.ACCEPT_ENCODING));
+            }
+            if (passThrough) {
+                headers.set(HttpHeaders.CONTENT_ENCODING, codec.contentEncoding());
+            }
+            if (download.getLastModified() > 0) {
+                headers.setLastModified(download.getLastModified());
+            }
+
+            if (ranges.size() == 1) {
+                HttpRange range = ranges.get(0);
+                long start;
+                long end;
+                try {
+                    start = range.getRangeStart(length);
+                    end = range.getRangeEnd(length);
+                } catch (IllegalArgumentException e) {
+                    headers.set(HttpHeaders.CONTENT_RANGE, "bytes */" + length);
+                    return ResponseEntity.status(HttpStatus.REQUESTED_RANGE_NOT_SATISFIABLE).headers(headers).<Flux<DataBuffer>>build();
+                }
+                long count = end - start + 1;
+                headers.set(HttpHeaders.CONTENT_RANGE, "bytes " + start + "-" + end + "/" + length);
+                headers.setContentLength(count);
+                return ResponseEntity.status(HttpStatus.PARTIAL_CONTENT).headers(headers)
+                        .body(DataBufferUtils.takeUntilByteCount(readRange(resource, start, count), count));
+            }
+            headers.setContentLength(length);
+            return ResponseEntity.ok().headers(headers).body(read(resource, 0));
+        });
+    }
+
+    @GetMapping(value = "/search")
+    public Mono<?> searchDocuments(@RequestParam(defaultValue = "") String searchValue, @RequestParam(required = false) String fields) {
+        return blockingBridge.call(() -> documentService.search(searchValue)).map(DocumentFields.parse(fields)::select);
+    }
+
+    @GetMapping(value = "/suggest")
+    public Mono<?> suggestDocuments(@RequestParam(defaultValue = "") String searchValue) {
+        return blockingBridge.call(() -> documentService.suggest(searchValue));
+    }
+
+    @GetMapping(value = "/searchwithme")
+    public Mono<?> searchWithMeDocument(@RequestParam(defaultValue = "") String searchValue, @RequestParam(required = false) String fields) {
+        return blockingBridge.call(() -> documentService.searchSharedWithMe(searchValue)).map(DocumentFields.parse(fields)::select);
+    }
+
+    @DeleteMapping(value = "/{docId}")
+    public Mono<ResponseEntity<Void>> delete(@PathVariable String docId) {
+        return blockingBridge.call(() -> {
+            documentService.delete(docId);
+            return ResponseEntity.noContent().build();
+        });
+    }
+
+    @PostMapping("/share")
+    public Mono<ResponseEntity<String>> share(@RequestBody ShareDto shareDto) {
+        return blockingBridge.call(() -> {
+            documentService.share(shareDto);
+            return ResponseEntity.status(HttpStatus.ACCEPTED).body("File Successfully Shared");
+        });
+    }
+
+    @PostMapping("/share/bulk")
+    public Mono<ResponseEntity<String>> shareBulk(@RequestBody BulkShareDto bulkShareDto) {
+        return blockingBridge.call(() -> ResponseEntity.status(HttpStatus.ACCEPTED)
+                .body("Documents Successfully Shared, " + documentService.shareBulk(bulkShareDto) + " permissions granted"));
+    }
+
+    @GetMapping("/sharedwithme")
+    public Mono<?> shareWithMe(@RequestParam(required = false) String fields) {
+        return blockingBridge.call(documentService::sharedWithMe).map(DocumentFields.parse(fields)::select);
+    }
+
+    /**
+     * Writes the part into a staged file, hashing each buffer on its way; the file write
+     * requests the next buffers only once the previous ones are on disk.
+     */
+    private Mono<Void> stage(Flux<DataBuffer> content, IncomingUpload upload) {
+        return Mono.fromCallable(() -> {
+                    Path uploadPath = Paths.get(documentStorageProperties.getUploadDir());
+                    Files.createDirectories(uploadPath);
+                    return Files.createTempFile(uploadPath, "upload-", ".tmp");
+                })
+                .subscribeOn(Schedulers.boundedElastic())
+                .flatMap(stagedFile -> {
+                    upload.stagedFile = stagedFile;
+                    return DataBufferUtils.write(content.doOnNext(upload::hash), stagedFile, StandardOpenOption.WRITE);
+                });
+    }
+
+    private Mono<DocumentUploadResponse> persist(IncomingUpload upload) {
+        if (upload.stagedFile == null) {
+            return Mono.error(new ResponseStatusException(HttpStatus.BAD_REQUEST, "Missing document part"));
+        }
+        List<MetaData> metadata;
+        try {
+            metadata = upload.metadata == null ? List.of() : objectMapper.readValue(upload.metadata, new TypeReference<>() {});
+        } catch (IOException e) {
+            return Mono.error(new ResponseStatusException(HttpStatus.BAD_REQUEST, "Invalid metadata"));
+        }
+        String checksum = DocumentHashCalculator.bytesToHex(upload.digest.digest());
+        return blockingBridge.call(() -> documentService.uploadAssembled(upload.stagedFile, upload.name, upload.size.get(), checksum, metadata))
+                .map(fileId -> DocumentUploadResponse.builder()
+                        .docName(upload.name)
+                        .downloadUri("/api/documents/download/" + fileId)
+                        .build());
+    }
+
+    /**
+     * File backed blobs are read through an {@code AsynchronousFileChannel}; other stores (S3,
+     * decoded blobs) only offer an {@code InputStream}, which is read off the event loop.
+     */
+    /**
+     * A resource that can fetch the range itself is asked for just those bytes.
+     */
+    private Flux<DataBuffer> readRange(Resource resource, long position, long count) {
+        if (resource instanceof RangeReadableResource ranged) {
+            return DataBufferUtils.readInputStream(() -> ranged.getInputStream(position, count), bufferFactory, BUFFER_SIZE)
+                    .subscribeOn(Schedulers.boundedElastic());
+        }
+        return read(resource, position);
+    }
+
+    private Flux<DataBuffer> read(Resource resource, long position) {
+        Flux<DataBuffer> content = DataBufferUtils.read(resource, position, bufferFactory, BUFFER_SIZE);
+        return resource.isFile() ? content : content.subscribeOn(Schedulers.boundedElastic());
+    }
+
+    private ResponseEntity<Flux<DataBuffer>> streamed(StreamingResponseBody body, boolean ndjson) {
+        Flux<DataBuffer> content = Flux.from(DataBufferUtils.outputStreamPublisher(outputStream -> {
+            try {
+                body.writeTo(outputStream);
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+        }, bufferFactory, blockingBridge.executor(), BUFFER_SIZE));
+        return ResponseEntity.ok()
+                .contentType(ndjson ? MediaType.APPLICATION_NDJSON : MediaType.APPLICATION_JSON)
+                .body(content);
+    }
+
+    private static boolean isNdjson(ServerWebExchange exchange) {
+        return exchange.getRequest().getHeaders().getAccept().stream()
+                .anyMatch(MediaType.APPLICATION_NDJSON::equalsTypeAndSubtype);
+    }
+
+    private static long contentLength(Resource resource) {
+        try {
+            return resource.contentLength();
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    private static MediaType resolveContentType(String type) {
+        try {
+            return type != null && type.contains("/") ? MediaType.parseMediaType(type) : MediaType.APPLICATION_OCTET_STREAM;
+        } catch (InvalidMediaTypeException e) {
+            return MediaType.APPLICATION_OCTET_STREAM;
+        }
+    }
+
+    /**
+     * State of one multipart upload while its parts arrive.
+     */
+    private static final class IncomingUpload {
+        private final MessageDigest digest;
+        private final AtomicLong size = new AtomicLong();
+        private String name;
+        private String metadata;
+        private Path stagedFile;
+
+        private IncomingUpload() {
+            try {
+                this.digest = MessageDigest.getInstance("SHA-256");
+            } catch (NoSuchAlgorithmException e) {
+                throw new IllegalStateException(e);
+            }
+        }
+
+        private void hash(DataBuffer buffer) {
+            size.addAndGet(buffer.readableByteCount());
+            try (DataBuffer.ByteBufferIterator iterator = buffer.readableByteBuffers()) {
+                iterator.forEachRemaining(digest::update);
+            }
+        }
+
+        private void deleteStagedFile() {
+            if (stagedFile == null) {
+                return;
+            }
+            try {
+                // the blob store has already moved the file away once the document is saved
+                Files.deleteIfExists(stagedFile);
+            } catch (IOException ignored) {
+                // left to the temp directory cleanup
+            }
+        }
+    }
+}
@@ -0,0 +1,77 @@
+package fr.norsys.docsapi.reactive;
+
+import fr.norsys.docsapi.security.service.PrincipalCache;
+import fr.norsys.docsapi.utils.JwtUtils;
+import io.jsonwebtoken.Claims;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.security.authentication.BadCredentialsException;
+import org.springframework.security.authentication.ReactiveAuthenticationManager;
+import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
+import org.springframework.security.config.annotation.web.reactive.EnableWebFluxSecurity;
+import org.springframework.security.config.web.server.SecurityWebFiltersOrder;
+import org.springframework.security.config.web.server.ServerHttpSecurity;
+import org.springframework.security.core.userdetails.UserDetails;
+import org.springframework.security.web.server.SecurityWebFilterChain;
+import org.springframework.security.web.server.authentication.AuthenticationWebFilter;
+import org.springframework.security.web.server.authentication.HttpStatusServerEntryPoint;
+import org.springframework.security.web.server.authentication.ServerAuthenticationEntryPointFailureHandler;
+import org.springframework.security.web.server.context.NoOpServerSecurityContextRepository;
+import reactor.core.publisher.Mono;
+
+/**
+ * Stateless bearer token authentication, accepting the tokens issued by the servlet application.
+ */
+@Configuration
+@EnableWebFluxSecurity
+public class ReactiveSecurityConfig {
+
+    private static final String BEARER = "Bearer ";
+
+    @Bean
+    public ReactiveAuthenticationManager jwtAuthenticationManager(JwtUtils jwtUtils, PrincipalCache principalCache, BlockingBridge blockingBridge) {
+        return authentication -> {
+            String jwt = (String) authentication.getCredentials();
+            Claims claims = jwtUtils.parseValidClaims(jwt);
+            if (claims == null) {
+                return Mono.error(new BadCredentialsException("Invalid token"));
+            }
+            UserDetails principal = jwtUtils.getPrincipalFromClaims(claims);
+            // Older tokens without the user claims need a (cached) database lookup
+            Mono<UserDetails> userDetails = principal != null
+                    ? Mono.just(principal)
+                    : blockingBridge.call(() -> principalCache.loadUserByUsername(claims.getSubject()));
+            return userDetails.map(details -> new UsernamePasswordAuthenticationToken(details, null, details.getAuthorities()));
+        };
+    }
+
+    @Bean
+    public SecurityWebFilterChain securityWebFilterChain(ServerHttpSecurity http, ReactiveAuthenticationManager jwtAuthenticationManager) {
+        AuthenticationWebFilter jwtFilter = new AuthenticationWebFilter(jwtAuthenticationManager);
+        jwtFilter.setServerAuthenticationConverter(exchange -> {
+            String header = exchange.getRequest().getHeaders().getFirst(HttpHeaders.AUTHORIZATION);
+            if (header == null || !header.startsWith(BEARER)) {
+                return Mono.empty();
+            }
+            String jwt = header.substring(BEARER.length());
+            return Mono.just(new UsernamePasswordAuthenticationToken(jwt, jwt));
+        });
+        HttpStatusServerEntryPoint unauthorized = new HttpStatusServerEntryPoint(HttpStatus.UNAUTHORIZED);
+        jwtFilter.setAuthenticationFailureHandler(new ServerAuthenticationEntryPointFailureHandler(unauthorized));
+        jwtFilter.setSecurityContextRepository(NoOpServerSecurityContextRepository.getInstance());
+
+        return http
+                .csrf(ServerHttpSecurity.CsrfSpec::disable)
+                .httpBasic(ServerHttpSecurity.HttpBasicSpec::disable)
+                .formLogin(ServerHttpSecurity.FormLoginSpec::disable)
+                .securityContextRepository(NoOpServerSecurityContextRepository.getInstance())
+                .exceptionHandling(exceptions -> exceptions.authenticationEntryPoint(unauthorized))
+                .addFilterAt(jwtFilter, SecurityWebFiltersOrder.AUTHENTICATION)
+                .authorizeExchange(exchanges -> exchanges
+                        .pathMatchers("/actuator/health").permitAll()
+                        .anyExchange().authenticated())
+                .build();
+    }
+}
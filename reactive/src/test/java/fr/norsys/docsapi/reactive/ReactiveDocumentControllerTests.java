@@ -0,0 +1,105 @@
+package fr.norsys.docsapi.reactive;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import fr.norsys.docsapi.dto.document.DocumentDownloadDto;
+import fr.norsys.docsapi.service.IDocumentService;
+import fr.norsys.docsapi.utils.DocumentHashCalculator;
+import fr.norsys.docsapi.utils.DocumentStorageProperties;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.core.io.ByteArrayResource;
+import org.springframework.core.io.FileSystemResource;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
+import org.springframework.http.client.MultipartBodyBuilder;
+import org.springframework.test.web.reactive.server.WebTestClient;
+import org.springframework.web.reactive.function.BodyInserters;
+
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+class ReactiveDocumentControllerTests {
+
+    private static final String DOC_ID = "3f2b7c1e-0000-4000-8000-000000000001";
+    private static final String CHECKSUM = "abcdef";
+
+    @TempDir
+    Path tempDir;
+
+    private IDocumentService documentService;
+    private WebTestClient client;
+
+    @BeforeEach
+    void setUp() throws Exception {
+        Path file = tempDir.resolve("report.txt");
+        Files.writeString(file, "0123456789", StandardCharsets.US_ASCII);
+
+        documentService = mock(IDocumentService.class);
+        when(documentService.download(DOC_ID)).thenReturn(DocumentDownloadDto.builder()
+                .resource(new FileSystemResource(file))
+                .name("report.txt")
+                .type("text/plain")
+                .checksum(CHECKSUM)
+                .lastModified(1_700_000_000_000L)
+                .build());
+
+        DocumentStorageProperties properties = new DocumentStorageProperties();
+        properties.setUploadDir(tempDir.toString());
+        client = WebTestClient.bindToController(new ReactiveDocumentController(documentService, new BlockingBridge(2, 100), properties, new ObjectMapper()))
+                .build();
+    }
+
+    @Test
+    void downloadStreamsFileWithValidators() {
+        client.get().uri("/api/documents/download/" + DOC_ID)
+                .exchange()
+                .expectStatus().isOk()
+                .expectHeader().valueEquals(HttpHeaders.ETAG, "\"" + CHECKSUM + "\"")
+                .expectHeader().contentLength(10)
+                .expectBody(String.class).isEqualTo("0123456789");
+
+        client.get().uri("/api/documents/download/" + DOC_ID)
+                .header(HttpHeaders.RANGE, "bytes=2-5")
+                .exchange()
+                .expectStatus().isEqualTo(206)
+                .expectHeader().valueEquals(HttpHeaders.CONTENT_RANGE, "bytes 2-5/10")
+                .expectBody(String.class).isEqualTo("2345");
+    }
+
+    @Test
+    void uploadStreamsPartIntoStagedFileAndHashesIt() throws Exception {
+        byte[] content = "line of text\n".repeat(10_000).getBytes(StandardCharsets.US_ASCII);
+        Path expected = tempDir.resolve("expected.txt");
+        Files.write(expected, content);
+        when(documentService.uploadAssembled(any(), eq("notes.txt"), anyLong(), any(), anyList())).thenReturn(DOC_ID);
+
+        MultipartBodyBuilder body = new MultipartBodyBuilder();
+        body.part("metadata", "[{\"key\":\"project\",\"value\":\"docs\"}]");
+        body.part("document", new ByteArrayResource(content) {
+            @Override
+            public String getFilename() {
+                return "notes.txt";
+            }
+        }).contentType(MediaType.TEXT_PLAIN);
+
+        client.post().uri("/api/documents/upload")
+                .contentType(MediaType.MULTIPART_FORM_DATA)
+                .body(BodyInserters.fromMultipartData(body.build()))
+                .exchange()
+                .expectStatus().isOk()
+                .expectBody().jsonPath("$.downloadUri").isEqualTo("/api/documents/download/" + DOC_ID);
+
+        verify(documentService).uploadAssembled(any(), eq("notes.txt"), eq((long) content.length),
+                eq(DocumentHashCalculator.calculateHash(expected)), anyList());
+    }
+}
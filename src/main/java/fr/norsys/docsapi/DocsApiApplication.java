@@ -1,13 +1,17 @@
 package fr.norsys.docsapi;
 
 import fr.norsys.docsapi.utils.DocumentStorageProperties;
+import fr.norsys.docsapi.utils.SqlBudgetProperties;
 import org.springframework.boot.SpringApplication;
 import org.springframework.boot.autoconfigure.SpringBootApplication;
 import org.springframework.boot.context.properties.EnableConfigurationProperties;
+import org.springframework.scheduling.annotation.EnableScheduling;
 
 @SpringBootApplication
+@EnableScheduling
 @EnableConfigurationProperties({
 		DocumentStorageProperties.class,
+		SqlBudgetProperties.class,
 })
 public class DocsApiApplication {
 
@@ -2,19 +2,26 @@ package fr.norsys.docsapi.controller;
 
 import com.fasterxml.jackson.core.type.TypeReference;
 import com.fasterxml.jackson.databind.ObjectMapper;
+import fr.norsys.docsapi.dto.document.BulkShareDto;
+import fr.norsys.docsapi.dto.document.DocumentDownloadDto;
 import fr.norsys.docsapi.dto.document.DocumentResponseDto;
 import fr.norsys.docsapi.dto.document.DocumentUploadResponse;
 import fr.norsys.docsapi.dto.document.ShareDto;
 import fr.norsys.docsapi.entity.MetaData;
+import fr.norsys.docsapi.entity.StorageCodec;
+import fr.norsys.docsapi.exception.CustomExceptionHandler;
 import fr.norsys.docsapi.service.IDocumentService;
+import fr.norsys.docsapi.utils.DocumentFields;
 import org.springframework.core.io.Resource;
 import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
+import org.springframework.http.InvalidMediaTypeException;
 import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.util.StringUtils;
 import org.springframework.web.bind.annotation.*;
 import org.springframework.web.multipart.MultipartFile;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 import org.springframework.web.server.ResponseStatusException;
 import java.io.IOException;
 import java.security.NoSuchAlgorithmException;
@@ -22,7 +29,7 @@ import java.util.*;
 
 @RestController
 @RequestMapping("/api/documents")
-@CrossOrigin(exposedHeaders = {"Content-Disposition"})
+@CrossOrigin(exposedHeaders = {"Content-Disposition", "Content-Range", "Accept-Ranges", "ETag", "Content-Encoding"})
 public class DocumentController {
 
     private final IDocumentService documentService;
@@ -49,15 +56,27 @@ public class DocumentController {
         }
     }
 
+    @PostMapping(value = "/upload/batch")
+    public ResponseEntity<?> uploadBatch(@RequestPart("documents") List<MultipartFile> documents,
+                                         @RequestParam(value = "metadata", defaultValue = "[]") String metadata) {
+        try {
+            List<List<MetaData>> metadataMapped = new ObjectMapper().readValue(metadata, new TypeReference<>() {});
+            return ResponseEntity.status(HttpStatus.MULTI_STATUS).body(documentService.uploadBatch(documents, metadataMapped));
+        } catch (IOException e) {
+            return ResponseEntity.badRequest().body("Invalid metadata");
+        }
+    }
+
     /**
      * Karim
      */
     @GetMapping(value = "")
-    public ResponseEntity<?> getDocuments() {
+    public ResponseEntity<?> getDocuments(@RequestParam(required = false) String fields) {
         try {
             List<DocumentResponseDto> documents = documentService.getList();
-            return ResponseEntity.ok(documents);
+            return ResponseEntity.ok(DocumentFields.parse(fields).select(documents));
         } catch (Exception e) {
+            rethrowIfPoolTimeout(e);
             return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR).body("Error retrieving documents");
         }
     }
@@ -66,66 +85,113 @@ public class DocumentController {
      * Aymane
      */
     @GetMapping(value = "{docId}")
-    public ResponseEntity<?> getDocument(@PathVariable String docId) {
-        return ResponseEntity.ok(documentService.get(UUID.fromString(docId)));
+    public ResponseEntity<?> getDocument(@PathVariable String docId, @RequestParam(required = false) String fields) {
+        return ResponseEntity.ok(DocumentFields.parse(fields).select(documentService.getDetails(UUID.fromString(docId))));
+    }
+
+    @GetMapping(value = "/stream", produces = MediaType.APPLICATION_JSON_VALUE)
+    public ResponseEntity<StreamingResponseBody> streamDocuments(@RequestParam(required = false) String fields) {
+        return ResponseEntity.ok().contentType(MediaType.APPLICATION_JSON).body(documentService.streamList(false, DocumentFields.parse(fields)));
+    }
+
+    @GetMapping(value = "/stream", produces = MediaType.APPLICATION_NDJSON_VALUE)
+    public ResponseEntity<StreamingResponseBody> streamDocumentsNdjson(@RequestParam(required = false) String fields) {
+        return ResponseEntity.ok().contentType(MediaType.APPLICATION_NDJSON).body(documentService.streamList(true, DocumentFields.parse(fields)));
     }
 
     /**
      * Aymane
      */
     @GetMapping(value = "/page")
-    public ResponseEntity<?> getDocumentsPagination(@RequestParam(defaultValue = "0") int page, @RequestParam(defaultValue = "10") int size) {
+    public ResponseEntity<?> getDocumentsPagination(@RequestParam(defaultValue = "0") int page, @RequestParam(defaultValue = "10") int size,
+                                                    @RequestParam(required = false) String fields) {
         try {
-            return new ResponseEntity<>(documentService.getListPagination(page, size), HttpStatus.OK);
+            return new ResponseEntity<>(DocumentFields.parse(fields).select(documentService.getListPagination(page, size)), HttpStatus.OK);
+        } catch (ResponseStatusException e) {
+            throw e;
         } catch (Exception e) {
+            rethrowIfPoolTimeout(e);
             return new ResponseEntity<>(null, HttpStatus.INTERNAL_SERVER_ERROR);
         }
     }
 
+    @GetMapping(value = "/cursor")
+    public ResponseEntity<?> getDocumentsCursor(@RequestParam(required = false) String cursor,
+                                                @RequestParam(defaultValue = "10") int size,
+                                                @RequestParam(defaultValue = "false") boolean includeTotal,
+                                                @RequestParam(required = false) String fields) {
+        return ResponseEntity.ok(DocumentFields.parse(fields).select(documentService.getListCursor(cursor, size, includeTotal)));
+    }
+
     /**
      * Karim
      */
     @GetMapping("/download/{docId}")
-    public ResponseEntity<Resource> download(@PathVariable String docId)
+    public ResponseEntity<Resource> download(@PathVariable String docId,
+                                             @RequestHeader(value = HttpHeaders.ACCEPT_ENCODING, required = false) String acceptEncoding,
+                                             @RequestHeader(value = HttpHeaders.RANGE, required = false) String range)
             throws IOException, NoSuchAlgorithmException {
-        Resource resource = documentService.download(docId);
-        if (resource == null) {
+        DocumentDownloadDto download = documentService.download(docId);
+        if (download == null || download.getResource() == null) {
             return ResponseEntity.notFound().build();
         }
-        String contentType = MediaType.APPLICATION_OCTET_STREAM_VALUE;
-        String headerValue = "attachment; filename=\"" + resource.getFilename() + "\"";
-        return ResponseEntity.ok()
-                .contentType(MediaType.parseMediaType(contentType))
+        String headerValue = "attachment; filename=\"" + download.getName() + "\"";
+        StorageCodec codec = download.getCodec() == null ? StorageCodec.NONE : download.getCodec();
+        // Compressed blobs go out untouched to clients that accept the encoding; ranges always
+        // address the decoded bytes so they are served from the decoding resource instead
+        boolean passThrough = download.getEncodedResource() != null && range == null
+                && codec.isAcceptedBy(acceptEncoding);
+        // Range, If-None-Match and If-Modified-Since are answered by Spring MVC from these headers
+        ResponseEntity.BodyBuilder response = ResponseEntity.ok()
+                .contentType(resolveContentType(download.getType()))
                 .header(HttpHeaders.CONTENT_DISPOSITION, headerValue)
-                .body(resource);
+                .header(HttpHeaders.ACCEPT_RANGES, "bytes")
+                .eTag(passThrough ? download.getChecksum() + "-" + codec.contentEncoding() : download.getChecksum());
+        if (codec != StorageCodec.NONE) {
+            response.varyBy(HttpHeaders.ACCEPT_ENCODING);
+        }
+        if (passThrough) {
+            response.header(HttpHeaders.CONTENT_ENCODING, codec.contentEncoding());
+        }
+        if (download.getLastModified() > 0) {
+            response.lastModified(download.getLastModified());
+        }
+        return response.body(passThrough ? download.getEncodedResource() : download.getResource());
     }
 
     /**
      * Aymane
      */
     @GetMapping(value = "/search")
-    public ResponseEntity<?> searchDocuments(@RequestParam(defaultValue = "") String searchValue) {
+    public ResponseEntity<?> searchDocuments(@RequestParam(defaultValue = "") String searchValue, @RequestParam(required = false) String fields) {
         try {
             List<DocumentResponseDto> documents = documentService.search(searchValue);
-            return ResponseEntity.ok(documents);
+            return ResponseEntity.ok(DocumentFields.parse(fields).select(documents));
         } catch (ResponseStatusException e) {
             throw e;
         } catch (Exception e) {
+            rethrowIfPoolTimeout(e);
             return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR).body("Error Searching documents");
         }
     }
 
+    @GetMapping(value = "/suggest")
+    public ResponseEntity<?> suggestDocuments(@RequestParam(defaultValue = "") String searchValue) {
+        return ResponseEntity.ok(documentService.suggest(searchValue));
+    }
+
     /**
      * Karim
      */
     @GetMapping(value = "/searchwithme")
-    public ResponseEntity<?> searchWithMeDocument(@RequestParam(defaultValue = "") String searchValue){
+    public ResponseEntity<?> searchWithMeDocument(@RequestParam(defaultValue = "") String searchValue, @RequestParam(required = false) String fields){
         try {
             List<DocumentResponseDto> documents = documentService.searchSharedWithMe(searchValue);
-            return ResponseEntity.ok(documents);
+            return ResponseEntity.ok(DocumentFields.parse(fields).select(documents));
         } catch (ResponseStatusException e) {
             throw e;
         } catch (Exception e) {
+            rethrowIfPoolTimeout(e);
             return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR).body("Error Searching documents");
         }
     }
@@ -139,6 +205,7 @@ public class DocumentController {
             documentService.delete(docId);
             return ResponseEntity.status(HttpStatus.NO_CONTENT).build();
         } catch (ResponseStatusException e) {
+            rethrowIfPoolTimeout(e);
             return ResponseEntity.status(e.getStatusCode()).body(e.getReason());
         }
     }
@@ -151,20 +218,67 @@ public class DocumentController {
         try {
             documentService.share(shareDto);
             return ResponseEntity.status(HttpStatus.ACCEPTED).body("File Successfully Shared");
-        }catch (Exception e){
+        } catch (ResponseStatusException e) {
+            rethrowIfPoolTimeout(e);
+            return ResponseEntity.status(e.getStatusCode()).body(e.getReason());
+        } catch (Exception e) {
+            rethrowIfPoolTimeout(e);
             return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR).body("Error Sharing Document");
         }
     }
 
+    @PostMapping("/share/bulk")
+    public ResponseEntity<?> shareBulk(@RequestBody BulkShareDto bulkShareDto) {
+        try {
+            int granted = documentService.shareBulk(bulkShareDto);
+            return ResponseEntity.status(HttpStatus.ACCEPTED).body("Documents Successfully Shared, " + granted + " permissions granted");
+        } catch (ResponseStatusException e) {
+            rethrowIfPoolTimeout(e);
+            return ResponseEntity.status(e.getStatusCode()).body(e.getReason());
+        } catch (Exception e) {
+            rethrowIfPoolTimeout(e);
+            return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR).body("Error Sharing Documents");
+        }
+    }
+
+    @GetMapping(value = "/sharedwithme/stream", produces = MediaType.APPLICATION_JSON_VALUE)
+    public ResponseEntity<StreamingResponseBody> streamSharedWithMe(@RequestParam(required = false) String fields) {
+        return ResponseEntity.ok().contentType(MediaType.APPLICATION_JSON).body(documentService.streamSharedWithMe(false, DocumentFields.parse(fields)));
+    }
+
+    @GetMapping(value = "/sharedwithme/stream", produces = MediaType.APPLICATION_NDJSON_VALUE)
+    public ResponseEntity<StreamingResponseBody> streamSharedWithMeNdjson(@RequestParam(required = false) String fields) {
+        return ResponseEntity.ok().contentType(MediaType.APPLICATION_NDJSON).body(documentService.streamSharedWithMe(true, DocumentFields.parse(fields)));
+    }
+
     /**
      * Karim
      */
     @GetMapping("/sharedwithme")
-    public ResponseEntity<?> shareWithMe() {
+    public ResponseEntity<?> shareWithMe(@RequestParam(required = false) String fields) {
         try {
-            return ResponseEntity.ok(documentService.sharedWithMe());
+            return ResponseEntity.ok(DocumentFields.parse(fields).select(documentService.sharedWithMe()));
         } catch (Exception e) {
+            rethrowIfPoolTimeout(e);
             return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR).body("Error retrieving Shared documents");
         }
     }
+
+    /**
+     * Lets a connection pool timeout reach {@link CustomExceptionHandler}, which sheds it with 503
+     * and Retry-After, instead of the catch block reporting it as a failure.
+     */
+    private static void rethrowIfPoolTimeout(Exception e) {
+        if (CustomExceptionHandler.isConnectionTimeout(e)) {
+            throw e instanceof RuntimeException runtime ? runtime : new ResponseStatusException(HttpStatus.SERVICE_UNAVAILABLE, null, e);
+        }
+    }
+
+        private static MediaType resolveContentType(String type) {
+        try {
+            return type != null && type.contains("/") ? MediaType.parseMediaType(type) : MediaType.APPLICATION_OCTET_STREAM;
+        } catch (InvalidMediaTypeException e) {
+            return MediaType.APPLICATION_OCTET_STREAM;
+        }
+    }
 }
@@ -0,0 +1,67 @@
+package fr.norsys.docsapi.controller;
+
+import fr.norsys.docsapi.dto.group.GroupDto;
+import fr.norsys.docsapi.dto.group.GroupMembersDto;
+import fr.norsys.docsapi.service.GroupService;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+import org.springframework.web.server.ResponseStatusException;
+
+import java.util.UUID;
+
+@RestController
+@RequestMapping("/api/groups")
+@CrossOrigin
+public class GroupController {
+
+    private final GroupService groupService;
+
+    public GroupController(GroupService groupService) {
+        this.groupService = groupService;
+    }
+
+    @PostMapping
+    public ResponseEntity<?> create(@RequestBody GroupDto groupDto) {
+        try {
+            return ResponseEntity.status(HttpStatus.CREATED).body(groupService.create(groupDto));
+        } catch (ResponseStatusException e) {
+            return ResponseEntity.status(e.getStatusCode()).body(e.getReason());
+        }
+    }
+
+    @GetMapping
+    public ResponseEntity<?> getList() {
+        return ResponseEntity.ok(groupService.getList());
+    }
+
+    @PostMapping("/{groupId}/members")
+    public ResponseEntity<?> addMembers(@PathVariable UUID groupId, @RequestBody GroupMembersDto groupMembersDto) {
+        try {
+            groupService.addMembers(groupId, groupMembersDto);
+            return ResponseEntity.status(HttpStatus.ACCEPTED).body("Members Successfully Added");
+        } catch (ResponseStatusException e) {
+            return ResponseEntity.status(e.getStatusCode()).body(e.getReason());
+        }
+    }
+
+    @DeleteMapping("/{groupId}/members/{userId}")
+    public ResponseEntity<?> removeMember(@PathVariable UUID groupId, @PathVariable UUID userId) {
+        try {
+            groupService.removeMember(groupId, userId);
+            return ResponseEntity.ok("Member Successfully Removed");
+        } catch (ResponseStatusException e) {
+            return ResponseEntity.status(e.getStatusCode()).body(e.getReason());
+        }
+    }
+
+    @DeleteMapping("/{groupId}")
+    public ResponseEntity<?> delete(@PathVariable UUID groupId) {
+        try {
+            groupService.delete(groupId);
+            return ResponseEntity.ok("Group Successfully Deleted");
+        } catch (ResponseStatusException e) {
+            return ResponseEntity.status(e.getStatusCode()).body(e.getReason());
+        }
+    }
+}
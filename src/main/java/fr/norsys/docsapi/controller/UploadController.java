@@ -0,0 +1,85 @@
+package fr.norsys.docsapi.controller;
+
+import fr.norsys.docsapi.dto.upload.UploadSessionDto;
+import fr.norsys.docsapi.service.UploadSessionService;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+import org.springframework.web.server.ResponseStatusException;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.UUID;
+
+/**
+ * Resumable uploads for files too large for a single multipart request: create a session, PUT
+ * its chunks (raw bodies, in any order, retried freely) and complete it.
+ */
+@RestController
+@RequestMapping("/api/uploads")
+@CrossOrigin
+public class UploadController {
+
+    private final UploadSessionService uploadSessionService;
+
+    public UploadController(UploadSessionService uploadSessionService) {
+        this.uploadSessionService = uploadSessionService;
+    }
+
+    @PostMapping
+    public ResponseEntity<?> create(@RequestBody UploadSessionDto uploadSessionDto) {
+        try {
+            return ResponseEntity.status(HttpStatus.CREATED).body(uploadSessionService.create(uploadSessionDto));
+        } catch (ResponseStatusException e) {
+            return ResponseEntity.status(e.getStatusCode()).body(e.getReason());
+        } catch (IOException e) {
+            return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR).body("Could not create upload");
+        }
+    }
+
+    @GetMapping("/{uploadId}")
+    public ResponseEntity<?> getStatus(@PathVariable UUID uploadId) {
+        try {
+            return ResponseEntity.ok(uploadSessionService.getStatus(uploadId));
+        } catch (ResponseStatusException e) {
+            return ResponseEntity.status(e.getStatusCode()).body(e.getReason());
+        }
+    }
+
+    @PutMapping(value = "/{uploadId}/chunks/{index}", consumes = MediaType.APPLICATION_OCTET_STREAM_VALUE)
+    public ResponseEntity<?> writeChunk(@PathVariable UUID uploadId, @PathVariable int index, InputStream body,
+                                        @RequestHeader(value = "X-Chunk-Checksum", required = false) String checksum) {
+        try {
+            uploadSessionService.writeChunk(uploadId, index, body, checksum);
+            return ResponseEntity.noContent().build();
+        } catch (ResponseStatusException e) {
+            return ResponseEntity.status(e.getStatusCode()).body(e.getReason());
+        } catch (IOException e) {
+            return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR).body("Could not write chunk " + index);
+        }
+    }
+
+    @PostMapping("/{uploadId}/complete")
+    public ResponseEntity<?> complete(@PathVariable UUID uploadId) {
+        try {
+            return ResponseEntity.status(HttpStatus.CREATED).body(uploadSessionService.complete(uploadId));
+        } catch (ResponseStatusException e) {
+            return ResponseEntity.status(e.getStatusCode()).body(e.getReason());
+        } catch (IOException e) {
+            return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR).body("Could not save document");
+        }
+    }
+
+    @DeleteMapping("/{uploadId}")
+    public ResponseEntity<?> abort(@PathVariable UUID uploadId) {
+        try {
+            uploadSessionService.abort(uploadId);
+            return ResponseEntity.ok("Upload Successfully Aborted");
+        } catch (ResponseStatusException e) {
+            return ResponseEntity.status(e.getStatusCode()).body(e.getReason());
+        } catch (IOException e) {
+            return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR).body("Could not abort upload");
+        }
+    }
+}
@@ -0,0 +1,15 @@
+package fr.norsys.docsapi.dto.document;
+
+import com.fasterxml.jackson.annotation.JsonInclude;
+import lombok.Builder;
+import lombok.Data;
+
+@Data
+@Builder
+@JsonInclude(JsonInclude.Include.NON_NULL)
+public class BatchUploadResultDto {
+    private String docName;
+    private int status;
+    private String downloadUri;
+    private String message;
+}
@@ -0,0 +1,13 @@
+package fr.norsys.docsapi.dto.document;
+
+
+import lombok.Data;
+
+import java.util.List;
+
+@Data
+public class BulkShareDto {
+    private List<String> documentIds;
+    private List<String> usersIds;
+    private String permissions;
+}
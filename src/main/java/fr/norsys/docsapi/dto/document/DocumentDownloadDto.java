@@ -0,0 +1,19 @@
+package fr.norsys.docsapi.dto.document;
+
+import fr.norsys.docsapi.entity.StorageCodec;
+import lombok.Builder;
+import lombok.Data;
+import org.springframework.core.io.Resource;
+
+@Data
+@Builder
+public class DocumentDownloadDto {
+    private Resource resource;
+    /** The stored bytes when they are encoded with {@link #codec}, served as is to clients accepting it. */
+    private Resource encodedResource;
+    private StorageCodec codec;
+    private String name;
+    private String type;
+    private String checksum;
+    private long lastModified;
+}
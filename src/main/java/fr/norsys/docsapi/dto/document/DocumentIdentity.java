@@ -0,0 +1,7 @@
+package fr.norsys.docsapi.dto.document;
+
+/**
+ * Name and checksum of an existing document, used by the batch duplicate check.
+ */
+public record DocumentIdentity(String name, String checksum) {
+}
@@ -1,7 +1,8 @@
 package fr.norsys.docsapi.dto.document;
 
-import fr.norsys.docsapi.entity.MetaData;
-import fr.norsys.docsapi.entity.PermissionEntry;
+import com.fasterxml.jackson.annotation.JsonFilter;
+import com.fasterxml.jackson.annotation.JsonInclude;
+import fr.norsys.docsapi.utils.DocumentFields;
 import lombok.Builder;
 import lombok.Data;
 
@@ -9,15 +10,21 @@ import java.util.List;
 import java.util.UUID;
 
 @Data
-@Builder
+@Builder(toBuilder = true)
+@JsonFilter(DocumentFields.FILTER)
 public class DocumentResponseDto {
     private UUID id;
     private String name;
     private String type;
     private long size;
+    private UUID ownerId;
     private String owner;
     private String dateCreation;
     private String dateModification;
-    private List<PermissionEntry> permissions;
-    private List<MetaData> metaData;
+    private List<PermissionDto> permissions;
+    private List<MetaDataDto> metaData;
+    @JsonInclude(JsonInclude.Include.NON_NULL)
+    private Float rank;
+    @JsonInclude(JsonInclude.Include.NON_NULL)
+    private String highlight;
 }
@@ -0,0 +1,19 @@
+package fr.norsys.docsapi.dto.document;
+
+import fr.norsys.docsapi.entity.Document;
+
+import java.sql.Timestamp;
+import java.util.UUID;
+
+/**
+ * Scalar columns of a document and its owner, selected with a JPQL constructor expression.
+ */
+public record DocumentRow(UUID id, String name, String type, long size, UUID ownerId, String owner,
+                          Timestamp creationDate, Timestamp modificationDate) {
+
+    public static DocumentRow of(Document document) {
+        return new DocumentRow(document.getId(), document.getName(), document.getType(), document.getSize(),
+                document.getUser().getId(), document.getUser().getUserName(),
+                document.getCreationDate(), document.getModificationDate());
+    }
+}
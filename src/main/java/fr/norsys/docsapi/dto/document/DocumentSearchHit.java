@@ -0,0 +1,12 @@
+package fr.norsys.docsapi.dto.document;
+
+import java.util.UUID;
+
+/**
+ * Row returned by the ranked full text search queries.
+ */
+public interface DocumentSearchHit {
+    UUID getId();
+    float getRank();
+    String getHighlight();
+}
@@ -0,0 +1,15 @@
+package fr.norsys.docsapi.dto.document;
+
+import lombok.Builder;
+import lombok.Data;
+
+import java.util.UUID;
+
+@Data
+@Builder
+public class DocumentSuggestionDto {
+    private UUID id;
+    private String name;
+    private String type;
+    private String owner;
+}
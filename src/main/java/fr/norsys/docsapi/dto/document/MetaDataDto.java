@@ -0,0 +1,8 @@
+package fr.norsys.docsapi.dto.document;
+
+import com.fasterxml.jackson.annotation.JsonIgnore;
+
+import java.util.UUID;
+
+public record MetaDataDto(@JsonIgnore UUID documentId, String key, String value) {
+}
@@ -0,0 +1,9 @@
+package fr.norsys.docsapi.dto.document;
+
+import com.fasterxml.jackson.annotation.JsonIgnore;
+import fr.norsys.docsapi.entity.Permission;
+
+import java.util.UUID;
+
+public record PermissionDto(@JsonIgnore UUID documentId, UUID userId, String userName, Permission permission) {
+}
@@ -9,5 +9,6 @@ import java.util.List;
 public class ShareDto {
     private String documentId;
     private List<String> usersIds;
+    private List<String> groupsIds;
     private String permissions;
 }
@@ -0,0 +1,12 @@
+package fr.norsys.docsapi.dto.group;
+
+
+import lombok.Data;
+
+import java.util.List;
+
+@Data
+public class GroupDto {
+    private String name;
+    private List<String> membersIds;
+}
@@ -0,0 +1,11 @@
+package fr.norsys.docsapi.dto.group;
+
+
+import lombok.Data;
+
+import java.util.List;
+
+@Data
+public class GroupMembersDto {
+    private List<String> usersIds;
+}
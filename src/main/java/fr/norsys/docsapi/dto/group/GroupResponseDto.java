@@ -0,0 +1,16 @@
+package fr.norsys.docsapi.dto.group;
+
+import lombok.Builder;
+import lombok.Data;
+
+import java.sql.Timestamp;
+import java.util.UUID;
+
+@Data
+@Builder
+public class GroupResponseDto {
+    private UUID id;
+    private String name;
+    private UUID ownerId;
+    private Timestamp creationDate;
+}
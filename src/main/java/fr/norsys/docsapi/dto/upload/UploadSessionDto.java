@@ -0,0 +1,15 @@
+package fr.norsys.docsapi.dto.upload;
+
+import fr.norsys.docsapi.entity.MetaData;
+import lombok.Data;
+
+import java.util.List;
+
+@Data
+public class UploadSessionDto {
+    private String name;
+    private long size;
+    // Optional, defaults to docsapi.upload.chunked.chunk-size
+    private Integer chunkSize;
+    private List<MetaData> metadata;
+}
@@ -0,0 +1,20 @@
+package fr.norsys.docsapi.dto.upload;
+
+import lombok.Builder;
+import lombok.Data;
+
+import java.sql.Timestamp;
+import java.util.List;
+import java.util.UUID;
+
+@Data
+@Builder
+public class UploadSessionResponseDto {
+    private UUID id;
+    private String name;
+    private long size;
+    private int chunkSize;
+    private int chunkCount;
+    private List<Integer> receivedChunks;
+    private Timestamp expirationDate;
+}
@@ -0,0 +1,27 @@
+package fr.norsys.docsapi.entity;
+
+import jakarta.persistence.*;
+import lombok.*;
+
+import java.sql.Timestamp;
+
+@Entity
+@Getter
+@Setter
+@AllArgsConstructor
+@NoArgsConstructor
+@Builder
+@Table(name = "blob")
+public class Blob {
+    @Id
+    private String checksum;
+    private long size;
+    @Column(name = "ref_count")
+    private int refCount;
+    @Enumerated(EnumType.STRING)
+    private StorageCodec codec;
+    @Column(name = "stored_size")
+    private long storedSize;
+    @Column(name = "creation_date", insertable = false, updatable = false)
+    private Timestamp creationDate;
+}
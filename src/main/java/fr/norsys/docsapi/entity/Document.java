@@ -15,10 +15,15 @@ import java.util.UUID;
 @Builder
 public class Document {
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @UuidV7Id
     private UUID id;
     private String name;
     private long size;
+    @Enumerated(EnumType.STRING)
+    @Builder.Default
+    private StorageCodec codec = StorageCodec.NONE;
+    @Column(name = "stored_size")
+    private long storedSize;
     private String type;
     @Column(name = "creation_date")
     private Timestamp creationDate;
@@ -0,0 +1,35 @@
+package fr.norsys.docsapi.entity;
+
+import jakarta.persistence.*;
+import lombok.*;
+import org.hibernate.annotations.Immutable;
+
+import java.io.Serializable;
+import java.util.UUID;
+
+/**
+ * The OR of a user's direct and group grants on a document, as {@link Permission#mask()} bits.
+ * Maintained by database triggers on permissions, group_permissions and group_memberships.
+ */
+@Entity
+@Immutable
+@Getter
+@NoArgsConstructor
+@Table(name = "effective_permissions")
+public class EffectivePermission {
+    @EmbeddedId
+    private Key id;
+    private short mask;
+
+    @Embeddable
+    @Getter
+    @EqualsAndHashCode
+    @NoArgsConstructor
+    @AllArgsConstructor
+    public static class Key implements Serializable {
+        @Column(name = "user_id")
+        private UUID userId;
+        @Column(name = "document_id")
+        private UUID documentId;
+    }
+}
@@ -0,0 +1,27 @@
+package fr.norsys.docsapi.entity;
+
+import jakarta.persistence.*;
+import lombok.*;
+
+import java.sql.Timestamp;
+import java.util.UUID;
+
+@Entity(name = "UserGroup")
+@Getter
+@Setter
+@AllArgsConstructor
+@NoArgsConstructor
+@Builder
+@Table(name = "user_groups")
+public class Group {
+    @Id
+    @UuidV7Id
+    private UUID id;
+    private String name;
+    @Column(name = "creation_date")
+    private Timestamp creationDate;
+
+    @ManyToOne(fetch = FetchType.LAZY)
+    @JoinColumn(name = "owner_id")
+    private User owner;
+}
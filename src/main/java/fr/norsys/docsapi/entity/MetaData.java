@@ -17,7 +17,7 @@ import java.util.UUID;
 @Table(name = "metadata")
 public class MetaData {
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @UuidV7Id
     private UUID id;
 
     private String key;
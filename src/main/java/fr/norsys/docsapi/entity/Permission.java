@@ -1,5 +1,18 @@
 package fr.norsys.docsapi.entity;
 
 public enum Permission {
-    READ, WRITE, DELETE, ALL
+    READ(1), WRITE(2), DELETE(4), ALL(7);
+
+    private final int mask;
+
+    Permission(int mask) {
+        this.mask = mask;
+    }
+
+    /**
+     * Bits granted by this permission; ALL expands to READ | WRITE | DELETE.
+     */
+    public int mask() {
+        return mask;
+    }
 }
@@ -15,7 +15,7 @@ import java.util.UUID;
 @Table(name = "permissions")
 public class PermissionEntry {
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @UuidV7Id
     private UUID id;
 
     @ManyToOne
@@ -0,0 +1,44 @@
+package fr.norsys.docsapi.entity;
+
+import java.util.Arrays;
+
+/**
+ * How a blob's bytes are encoded at rest. The key suffix keeps encoded and raw copies of the
+ * same checksum apart, and the HTTP coding lets downloads pass the stored bytes through.
+ */
+public enum StorageCodec {
+    NONE("", null),
+    GZIP(".gz", "gzip");
+
+    private final String keySuffix;
+    private final String contentEncoding;
+
+    StorageCodec(String keySuffix, String contentEncoding) {
+        this.keySuffix = keySuffix;
+        this.contentEncoding = contentEncoding;
+    }
+
+    public String keySuffix() {
+        return keySuffix;
+    }
+
+    public String contentEncoding() {
+        return contentEncoding;
+    }
+
+    /**
+     * Whether an {@code Accept-Encoding} header lets the stored bytes be sent as they are.
+     */
+    public boolean isAcceptedBy(String acceptEncoding) {
+        if (acceptEncoding == null || contentEncoding == null) {
+            return false;
+        }
+        return Arrays.stream(acceptEncoding.split(","))
+                .map(String::trim)
+                .anyMatch(value -> {
+                    String[] parts = value.split(";");
+                    return parts[0].trim().equalsIgnoreCase(contentEncoding)
+                            && !(parts.length > 1 && parts[1].trim().replace(" ", "").matches("q=0(\\.0*)?"));
+                });
+    }
+}
@@ -0,0 +1,31 @@
+package fr.norsys.docsapi.entity;
+
+import jakarta.persistence.*;
+import lombok.*;
+
+import java.io.Serializable;
+import java.util.UUID;
+
+@Entity
+@Getter
+@NoArgsConstructor
+@Table(name = "upload_chunks")
+public class UploadChunk {
+    @EmbeddedId
+    private Key id;
+    private int size;
+    // SHA-256 of the chunk bytes, so a retried chunk can be told apart from the stored one
+    private String checksum;
+
+    @Embeddable
+    @Getter
+    @EqualsAndHashCode
+    @NoArgsConstructor
+    @AllArgsConstructor
+    public static class Key implements Serializable {
+        @Column(name = "session_id")
+        private UUID sessionId;
+        @Column(name = "chunk_index")
+        private int chunkIndex;
+    }
+}
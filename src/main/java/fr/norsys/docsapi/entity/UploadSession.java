@@ -0,0 +1,48 @@
+package fr.norsys.docsapi.entity;
+
+import jakarta.persistence.*;
+import lombok.*;
+
+import java.sql.Timestamp;
+import java.util.UUID;
+
+/**
+ * A resumable upload in progress; its chunks are tracked in {@link UploadChunk}.
+ */
+@Entity
+@Getter
+@Setter
+@AllArgsConstructor
+@NoArgsConstructor
+@Builder
+@Table(name = "upload_sessions")
+public class UploadSession {
+    @Id
+    @UuidV7Id
+    private UUID id;
+
+    @ManyToOne(fetch = FetchType.LAZY)
+    @JoinColumn(name = "user_id")
+    private User user;
+
+    private String name;
+    private long size;
+    @Column(name = "chunk_size")
+    private int chunkSize;
+    @Column(name = "chunk_count")
+    private int chunkCount;
+    // The upload metadata as JSON, applied when the session is completed
+    private String metadata;
+    @Column(name = "creation_date")
+    private Timestamp creationDate;
+    @Column(name = "expiration_date")
+    private Timestamp expirationDate;
+
+    public long chunkOffset(int index) {
+        return (long) index * chunkSize;
+    }
+
+    public int chunkLength(int index) {
+        return (int) Math.min(chunkSize, size - chunkOffset(index));
+    }
+}
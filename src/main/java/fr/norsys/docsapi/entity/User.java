@@ -1,5 +1,6 @@
 package fr.norsys.docsapi.entity;
 
+import com.fasterxml.jackson.annotation.JsonIgnore;
 import jakarta.persistence.*;
 import lombok.AllArgsConstructor;
 import lombok.Builder;
@@ -16,10 +17,11 @@ import java.util.UUID;
 @Builder
 public class User {
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @UuidV7Id
     private UUID id;
     @Column(name = "user_name")
     private String userName;
     private String email;
+    @JsonIgnore
     private String password;
 }
@@ -0,0 +1,11 @@
+package fr.norsys.docsapi.event;
+
+import java.util.Collection;
+import java.util.UUID;
+
+/**
+ * Published when a document is deleted. {@code userIds} are the users it was shared with,
+ * directly or through a group, so caches can drop their entries by key.
+ */
+public record DocumentDeletedEvent(UUID documentId, UUID ownerId, Collection<UUID> userIds) {
+}
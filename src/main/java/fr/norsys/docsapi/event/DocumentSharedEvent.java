@@ -0,0 +1,16 @@
+package fr.norsys.docsapi.event;
+
+import fr.norsys.docsapi.entity.Permission;
+
+import java.util.Collection;
+import java.util.List;
+import java.util.UUID;
+
+/**
+ * Published when the permissions on a document are replaced for {@code userIds}, directly or
+ * through a group they belong to. {@code granteeIds} are the users who could already read it,
+ * whose cached views embed its permission entries.
+ */
+public record DocumentSharedEvent(UUID documentId, UUID ownerId, Collection<UUID> userIds, List<Permission> permissions,
+                                  Collection<UUID> granteeIds) {
+}
@@ -0,0 +1,13 @@
+package fr.norsys.docsapi.event;
+
+import fr.norsys.docsapi.entity.MetaData;
+
+import java.util.List;
+import java.util.UUID;
+
+/**
+ * Published by the document service once a document and its metadata are saved.
+ */
+public record DocumentUploadedEvent(UUID documentId, String name, String type, UUID ownerId, String ownerName,
+                                    List<MetaData> metadata) {
+}
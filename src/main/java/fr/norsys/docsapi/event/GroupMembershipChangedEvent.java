@@ -0,0 +1,12 @@
+package fr.norsys.docsapi.event;
+
+import java.util.Collection;
+import java.util.UUID;
+
+/**
+ * Published when {@code userIds} join or leave a group, or the group is deleted. The effective
+ * permissions of those users on {@code documentIds}, the documents shared with the group, may
+ * have changed.
+ */
+public record GroupMembershipChangedEvent(UUID groupId, Collection<UUID> documentIds, Collection<UUID> userIds) {
+}
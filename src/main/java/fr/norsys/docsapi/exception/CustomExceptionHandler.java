@@ -1,8 +1,12 @@
 package fr.norsys.docsapi.exception;
 
+import org.springframework.dao.DataAccessException;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
+import org.springframework.jdbc.CannotGetJdbcConnectionException;
+import org.springframework.transaction.CannotCreateTransactionException;
 import org.springframework.web.HttpMediaTypeNotAcceptableException;
 import org.springframework.web.bind.annotation.ExceptionHandler;
 import org.springframework.web.bind.annotation.ResponseBody;
@@ -11,6 +15,7 @@ import org.springframework.web.server.ResponseStatusException;
 
 import java.io.IOException;
 import java.security.NoSuchAlgorithmException;
+import java.sql.SQLTransientConnectionException;
 
 /**
  * Karim
@@ -30,12 +35,45 @@ public class CustomExceptionHandler {
 
     @ExceptionHandler(ResponseStatusException.class)
     public ResponseEntity<String> handleResponseStatusException(ResponseStatusException ex) {
+        if (isConnectionTimeout(ex)) {
+            return serviceUnavailable();
+        }
         return ResponseEntity.status(ex.getStatusCode()).body(ex.getReason());
     }
 
+    /**
+     * With virtual threads the connection pool is what bounds database work; a request that
+     * could not get a connection in time is shed with a 503 instead of reported as a failure.
+     */
+    @ExceptionHandler({CannotCreateTransactionException.class, DataAccessException.class})
+    public ResponseEntity<String> handleDataAccessException(Exception ex) {
+        if (isConnectionTimeout(ex)) {
+            return serviceUnavailable();
+        }
+        return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR).body("Please try again later.");
+    }
+
     @ResponseBody
     @ExceptionHandler(HttpMediaTypeNotAcceptableException.class)
     public String handleHttpMediaTypeNotAcceptableException() {
         return "acceptable MIME type:" + MediaType.APPLICATION_JSON_VALUE;
     }
+
+    private static ResponseEntity<String> serviceUnavailable() {
+        return ResponseEntity.status(HttpStatus.SERVICE_UNAVAILABLE)
+                .header(HttpHeaders.RETRY_AFTER, "1")
+                .body("Server is busy, please retry");
+    }
+
+    /**
+     * Whether the pool gave up waiting for a connection, however the exception was wrapped.
+     */
+    public static boolean isConnectionTimeout(Throwable ex) {
+        for (Throwable cause = ex; cause != null; cause = cause.getCause()) {
+            if (cause instanceof SQLTransientConnectionException || cause instanceof CannotGetJdbcConnectionException) {
+                return true;
+            }
+        }
+        return false;
+    }
 }
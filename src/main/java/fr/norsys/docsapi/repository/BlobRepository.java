@@ -0,0 +1,33 @@
+package fr.norsys.docsapi.repository;
+
+import fr.norsys.docsapi.entity.Blob;
+import fr.norsys.docsapi.entity.StorageCodec;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+
+public interface BlobRepository extends JpaRepository<Blob, String> {
+    /**
+     * Takes a reference on the blob. A new row starts with {@code stored_size = -1}: its content is not stored yet.
+     */
+    @Modifying
+    @Query(value = "INSERT INTO blob (checksum, size, ref_count, codec, stored_size) VALUES (:checksum, :size, 1, 'NONE', -1) " +
+            "ON CONFLICT (checksum) DO UPDATE SET ref_count = blob.ref_count + 1", nativeQuery = true)
+    void acquire(String checksum, long size);
+
+    /**
+     * Records the stored content, unless the row is already stored under a codec other than {@code expectedCodec}.
+     */
+    @Modifying
+    @Query("UPDATE Blob b SET b.codec = :codec, b.storedSize = :storedSize " +
+            "WHERE b.checksum = :checksum AND (b.storedSize < 0 OR b.codec = :expectedCodec)")
+    int markStored(String checksum, StorageCodec codec, long storedSize, StorageCodec expectedCodec);
+
+    @Modifying
+    @Query("UPDATE Blob b SET b.refCount = b.refCount - 1 WHERE b.checksum = :checksum")
+    int decrement(String checksum);
+
+    @Modifying
+    @Query("DELETE FROM Blob b WHERE b.checksum = :checksum AND b.refCount <= 0")
+    int deleteIfUnreferenced(String checksum);
+}
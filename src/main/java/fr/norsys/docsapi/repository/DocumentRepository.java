@@ -1,22 +1,88 @@
 package fr.norsys.docsapi.repository;
 
+import fr.norsys.docsapi.dto.document.DocumentIdentity;
+import fr.norsys.docsapi.dto.document.DocumentRow;
+import fr.norsys.docsapi.dto.document.DocumentSearchHit;
 import fr.norsys.docsapi.entity.Document;
 import fr.norsys.docsapi.entity.User;
+import fr.norsys.docsapi.search.IndexedDocument;
+import jakarta.persistence.QueryHint;
+import org.hibernate.jpa.HibernateHints;
+import org.springframework.data.domain.Limit;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.repository.EntityGraph;
 import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
 import org.springframework.data.repository.PagingAndSortingRepository;
 import org.springframework.data.jpa.repository.JpaSpecificationExecutor;
+import java.sql.Timestamp;
+import java.util.Collection;
 import java.util.List;
-import java.util.Optional;
 import java.util.UUID;
+import java.util.stream.Stream;
 
+/**
+ * Listings select flat {@link DocumentRow}s with constructor expressions, so no entity is
+ * managed or serialized; the service loads permissions and metadata of a page with one query each.
+ * Searches are ranked full text queries on the search_vector column maintained by triggers.
+ */
 public interface DocumentRepository extends JpaRepository<Document, UUID>, PagingAndSortingRepository<Document, UUID>, JpaSpecificationExecutor<Document> {
-    Optional<Document> findByChecksum(String checksum);
-    Optional<Document> findByName(String filename);
-    List<Document> findByUser(User user);
-    Page<Document> findByUser(User user, Pageable pageable);
-    @Query("SELECT d FROM Document d JOIN d.permissions p WHERE p.user = :user AND d.user <> :user")
-    Optional<List<Document>> findSharedDocumentsForUser(User user);
+    String SEARCH_SELECT = "SELECT d.id AS id, " +
+            "ts_rank(d.search_vector, to_tsquery('simple', :query)) AS rank, " +
+            "ts_headline('simple', d.name, to_tsquery('simple', :query), 'StartSel=<mark>, StopSel=</mark>, HighlightAll=true') AS highlight " +
+            "FROM document d ";
+    String SEARCH_MATCH = "AND ((:query <> '' AND d.search_vector @@ to_tsquery('simple', :query)) " +
+            "OR (CAST(:day AS date) IS NOT NULL AND d.creation_date >= CAST(:day AS date) AND d.creation_date < CAST(:day AS date) + 1) " +
+            "OR (CAST(:metaKey AS text) IS NOT NULL AND EXISTS (SELECT 1 FROM metadata m WHERE m.document_id = d.id AND m.key = :metaKey AND m.value = :metaValue))) " +
+            "ORDER BY rank DESC, d.creation_date DESC LIMIT :limit";
+
+    String ROW_SELECT = "SELECT new fr.norsys.docsapi.dto.document.DocumentRow(d.id, d.name, d.type, d.size, u.id, u.userName, " +
+            "d.creationDate, d.modificationDate) FROM Document d JOIN d.user u ";
+    String SHARED_WITH = "WHERE u.id <> :userId " +
+            "AND d.id IN (SELECT e.id.documentId FROM EffectivePermission e WHERE e.id.userId = :userId) ";
+
+    boolean existsByUserAndChecksum(User user, String checksum);
+    boolean existsByUserAndName(User user, String filename);
+    @Query("SELECT new fr.norsys.docsapi.dto.document.DocumentIdentity(d.name, d.checksum) FROM Document d " +
+            "WHERE d.user = :user AND (d.checksum IN :checksums OR d.name IN :names)")
+    List<DocumentIdentity> findIdentities(User user, Collection<String> checksums, Collection<String> names);
+    @Query(ROW_SELECT + "WHERE u.id = :userId ORDER BY d.creationDate DESC, d.id DESC")
+    List<DocumentRow> findRowsByUserId(UUID userId);
+    @Query(value = ROW_SELECT + "WHERE u.id = :userId ORDER BY d.creationDate DESC, d.id DESC",
+            countQuery = "SELECT count(d) FROM Document d WHERE d.user.id = :userId")
+    Page<DocumentRow> findRowsByUserId(UUID userId, Pageable pageable);
+    @Query(ROW_SELECT + "WHERE u.id = :userId ORDER BY d.creationDate DESC, d.id DESC")
+    List<DocumentRow> findFirstPage(UUID userId, Limit limit);
+    @Query(ROW_SELECT + "WHERE u.id = :userId " +
+            "AND (d.creationDate < :creationDate OR (d.creationDate = :creationDate AND d.id < :id)) " +
+            "ORDER BY d.creationDate DESC, d.id DESC")
+    List<DocumentRow> findPageAfter(UUID userId, Timestamp creationDate, UUID id, Limit limit);
+    long countByUser(User user);
+    @Query(ROW_SELECT + SHARED_WITH + "ORDER BY d.creationDate DESC, d.id DESC")
+    List<DocumentRow> findSharedRows(UUID userId);
+    @Query(ROW_SELECT + "WHERE d.id IN :ids")
+    List<DocumentRow> findRowsByIdIn(Collection<UUID> ids);
+    @EntityGraph(attributePaths = "user")
+    List<Document> findByIdIn(Collection<UUID> ids);
+
+    @QueryHints(@QueryHint(name = HibernateHints.HINT_FETCH_SIZE, value = "500"))
+    @Query(ROW_SELECT + "WHERE u.id = :userId ORDER BY d.creationDate DESC, d.id DESC")
+    Stream<DocumentRow> streamRowsByUserId(UUID userId);
+    @QueryHints(@QueryHint(name = HibernateHints.HINT_FETCH_SIZE, value = "500"))
+    @Query(ROW_SELECT + SHARED_WITH + "ORDER BY d.creationDate DESC, d.id DESC")
+    Stream<DocumentRow> streamSharedRows(UUID userId);
+
+    @QueryHints(@QueryHint(name = HibernateHints.HINT_FETCH_SIZE, value = "1000"))
+    @Query("SELECT new fr.norsys.docsapi.search.IndexedDocument(d.id, d.name, d.type, u.id, u.userName) FROM Document d JOIN d.user u " +
+            "ORDER BY d.creationDate, d.id")
+    Stream<IndexedDocument> streamIndexedDocuments();
+
+    @Query(value = SEARCH_SELECT + "WHERE d.owner_id = :userId " + SEARCH_MATCH, nativeQuery = true)
+    List<DocumentSearchHit> searchOwned(UUID userId, String query, String day, String metaKey, String metaValue, int limit);
+
+    @Query(value = SEARCH_SELECT + "WHERE d.owner_id <> :userId " +
+            "AND EXISTS (SELECT 1 FROM effective_permissions e WHERE e.user_id = :userId AND e.document_id = d.id) " + SEARCH_MATCH, nativeQuery = true)
+    List<DocumentSearchHit> searchSharedWith(UUID userId, String query, String day, String metaKey, String metaValue, int limit);
 }
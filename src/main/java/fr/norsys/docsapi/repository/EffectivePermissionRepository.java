@@ -0,0 +1,30 @@
+package fr.norsys.docsapi.repository;
+
+import fr.norsys.docsapi.entity.EffectivePermission;
+import fr.norsys.docsapi.search.IndexedGrant;
+import jakarta.persistence.QueryHint;
+import org.hibernate.jpa.HibernateHints;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
+
+import java.util.Collection;
+import java.util.List;
+import java.util.Optional;
+import java.util.UUID;
+import java.util.stream.Stream;
+
+public interface EffectivePermissionRepository extends JpaRepository<EffectivePermission, EffectivePermission.Key> {
+    @Query("SELECT e.mask FROM EffectivePermission e WHERE e.id.userId = :userId AND e.id.documentId = :documentId")
+    Optional<Short> findMask(UUID documentId, UUID userId);
+    @Query("SELECT e.id.userId FROM EffectivePermission e WHERE e.id.documentId = :documentId")
+    List<UUID> findUserIds(UUID documentId);
+    @Query("SELECT DISTINCT e.id.userId FROM EffectivePermission e WHERE e.id.documentId IN :documentIds")
+    List<UUID> findUserIdsByDocumentIds(Collection<UUID> documentIds);
+    @Query("SELECT new fr.norsys.docsapi.search.IndexedGrant(e.id.documentId, e.id.userId) FROM EffectivePermission e " +
+            "WHERE e.id.userId IN :userIds AND e.id.documentId IN :documentIds")
+    List<IndexedGrant> findGrants(Collection<UUID> documentIds, Collection<UUID> userIds);
+    @QueryHints(@QueryHint(name = HibernateHints.HINT_FETCH_SIZE, value = "1000"))
+    @Query("SELECT new fr.norsys.docsapi.search.IndexedGrant(e.id.documentId, e.id.userId) FROM EffectivePermission e")
+    Stream<IndexedGrant> streamIndexedGrants();
+}
@@ -0,0 +1,20 @@
+package fr.norsys.docsapi.repository;
+
+import fr.norsys.docsapi.entity.Group;
+import fr.norsys.docsapi.entity.GroupMembership;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+
+import java.util.Collection;
+import java.util.List;
+import java.util.UUID;
+
+public interface GroupMembershipRepository extends JpaRepository<GroupMembership, UUID> {
+    @Query("SELECT m.user.id FROM GroupMembership m WHERE m.group.id IN :groupIds")
+    List<UUID> findUserIdsByGroupIds(Collection<UUID> groupIds);
+    long countByGroup(Group group);
+    @Modifying(flushAutomatically = true)
+    @Query("DELETE FROM GroupMembership m WHERE m.group = :group AND m.user.id IN :userIds")
+    int deleteByGroupAndUserIds(Group group, Collection<UUID> userIds);
+}
@@ -0,0 +1,19 @@
+package fr.norsys.docsapi.repository;
+
+import fr.norsys.docsapi.entity.Document;
+import fr.norsys.docsapi.entity.GroupPermissionEntry;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+
+import java.util.Collection;
+import java.util.List;
+import java.util.UUID;
+
+public interface GroupPermissionEntryRepository extends JpaRepository<GroupPermissionEntry, UUID> {
+    @Query("SELECT DISTINCT p.document.id FROM GroupPermissionEntry p WHERE p.group.id = :groupId")
+    List<UUID> findDocumentIdsByGroupId(UUID groupId);
+    @Modifying(flushAutomatically = true)
+    @Query("DELETE FROM GroupPermissionEntry p WHERE p.document = :document AND p.group.id IN :groupIds")
+    void deleteByDocumentAndGroupIds(Document document, Collection<UUID> groupIds);
+}
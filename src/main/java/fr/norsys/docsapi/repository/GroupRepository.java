@@ -0,0 +1,14 @@
+package fr.norsys.docsapi.repository;
+
+import fr.norsys.docsapi.entity.Group;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+
+import java.util.List;
+import java.util.UUID;
+
+public interface GroupRepository extends JpaRepository<Group, UUID> {
+    @Query("SELECT DISTINCT g FROM UserGroup g LEFT JOIN GroupMembership m ON m.group = g " +
+            "WHERE g.owner.id = :userId OR m.user.id = :userId")
+    List<Group> findVisibleTo(UUID userId);
+}
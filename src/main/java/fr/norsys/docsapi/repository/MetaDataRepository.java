@@ -1,7 +1,24 @@
 package fr.norsys.docsapi.repository;
 
+import fr.norsys.docsapi.dto.document.MetaDataDto;
 import fr.norsys.docsapi.entity.MetaData;
+import fr.norsys.docsapi.search.IndexedMetaData;
+import jakarta.persistence.QueryHint;
+import org.hibernate.jpa.HibernateHints;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
+
+import java.util.Collection;
+import java.util.List;
+import java.util.UUID;
+import java.util.stream.Stream;
 
 public interface MetaDataRepository extends JpaRepository<MetaData, Long> {
+    @QueryHints(@QueryHint(name = HibernateHints.HINT_FETCH_SIZE, value = "1000"))
+    @Query("SELECT new fr.norsys.docsapi.search.IndexedMetaData(m.document.id, m.key, m.value) FROM MetaData m")
+    Stream<IndexedMetaData> streamIndexedMetaData();
+    @Query("SELECT new fr.norsys.docsapi.dto.document.MetaDataDto(m.document.id, m.key, m.value) FROM MetaData m " +
+            "WHERE m.document.id IN :documentIds")
+    List<MetaDataDto> findDtosByDocumentIds(Collection<UUID> documentIds);
 }
@@ -1,15 +1,44 @@
 package fr.norsys.docsapi.repository;
 
+import fr.norsys.docsapi.dto.document.PermissionDto;
 import fr.norsys.docsapi.entity.Document;
 import fr.norsys.docsapi.entity.PermissionEntry;
-import fr.norsys.docsapi.entity.User;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
 
+import java.util.Collection;
 import java.util.List;
-import java.util.Optional;
 import java.util.UUID;
 
 public interface PermissionEntryRepository extends JpaRepository<PermissionEntry, UUID> {
-    Optional<List<PermissionEntry>> findByDocumentAndUser(Document document, User user);
-    void deleteByDocumentAndUser(Document document, User user);
+    @Modifying(flushAutomatically = true)
+    @Query("DELETE FROM PermissionEntry p WHERE p.document = :document AND p.user.id IN :userIds")
+    int deleteByDocumentAndUserIds(Document document, Collection<UUID> userIds);
+    /**
+     * Drops the grants of these users on these documents that are not in the new permission set.
+     */
+    @Modifying(flushAutomatically = true)
+    @Query(value = "DELETE FROM permissions p " +
+            "WHERE p.document_id = ANY (:documentIds) " +
+            "AND p.user_id = ANY (:userIds) " +
+            "AND NOT (p.permission = ANY (:permissions))", nativeQuery = true)
+    int deleteOtherGrants(UUID[] documentIds, UUID[] userIds, String[] permissions);
+
+    /**
+     * Grants every permission to every user on every document they do not own, in one statement.
+     */
+    @Modifying(flushAutomatically = true)
+    @Query(value = "INSERT INTO permissions (document_id, user_id, permission) " +
+            "SELECT d.id, u.user_id, p.permission " +
+            "FROM document d " +
+            "CROSS JOIN unnest(:userIds) AS u(user_id) " +
+            "CROSS JOIN unnest(:permissions) AS p(permission) " +
+            "WHERE d.id = ANY (:documentIds) AND d.owner_id <> u.user_id " +
+            "ON CONFLICT (document_id, user_id, permission) DO NOTHING", nativeQuery = true)
+    int upsertGrants(UUID[] documentIds, UUID[] userIds, String[] permissions);
+
+    @Query("SELECT new fr.norsys.docsapi.dto.document.PermissionDto(p.document.id, u.id, u.userName, p.permission) " +
+            "FROM PermissionEntry p JOIN p.user u WHERE p.document.id IN :documentIds")
+    List<PermissionDto> findDtosByDocumentIds(Collection<UUID> documentIds);
 }
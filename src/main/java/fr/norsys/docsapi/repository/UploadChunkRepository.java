@@ -0,0 +1,24 @@
+package fr.norsys.docsapi.repository;
+
+import fr.norsys.docsapi.entity.UploadChunk;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.util.List;
+import java.util.UUID;
+
+public interface UploadChunkRepository extends JpaRepository<UploadChunk, UploadChunk.Key> {
+    @Transactional
+    @Modifying
+    @Query(value = "INSERT INTO upload_chunks (session_id, chunk_index, size, checksum) VALUES (:sessionId, :chunkIndex, :size, :checksum) " +
+            "ON CONFLICT (session_id, chunk_index) DO UPDATE SET size = EXCLUDED.size, checksum = EXCLUDED.checksum", nativeQuery = true)
+    void record(UUID sessionId, int chunkIndex, int size, String checksum);
+
+    @Query("SELECT c.id.chunkIndex FROM UploadChunk c WHERE c.id.sessionId = :sessionId ORDER BY c.id.chunkIndex")
+    List<Integer> findIndexesBySessionId(UUID sessionId);
+
+    @Query("SELECT COUNT(c) FROM UploadChunk c WHERE c.id.sessionId = :sessionId")
+    long countBySessionId(UUID sessionId);
+}
@@ -0,0 +1,14 @@
+package fr.norsys.docsapi.repository;
+
+import fr.norsys.docsapi.entity.UploadSession;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+
+import java.sql.Timestamp;
+import java.util.List;
+import java.util.UUID;
+
+public interface UploadSessionRepository extends JpaRepository<UploadSession, UUID> {
+    @Query("SELECT s.id FROM UploadSession s WHERE s.expirationDate < :now")
+    List<UUID> findExpiredIds(Timestamp now);
+}
@@ -0,0 +1,173 @@
+package fr.norsys.docsapi.search;
+
+import fr.norsys.docsapi.event.DocumentDeletedEvent;
+import fr.norsys.docsapi.event.DocumentSharedEvent;
+import fr.norsys.docsapi.event.DocumentUploadedEvent;
+import fr.norsys.docsapi.event.GroupMembershipChangedEvent;
+import fr.norsys.docsapi.repository.DocumentRepository;
+import fr.norsys.docsapi.repository.MetaDataRepository;
+import fr.norsys.docsapi.repository.EffectivePermissionRepository;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.event.TransactionalEventListener;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+import java.util.function.Consumer;
+import java.util.stream.Stream;
+
+/**
+ * Optional in-process search over document names, types and metadata, enabled with
+ * {@code docsapi.search.in-memory.enabled}. It is rebuilt from the database at startup and
+ * kept up to date from the document events once their transaction commits.
+ */
+@Component
+@ConditionalOnProperty(prefix = "docsapi.search.in-memory", name = "enabled", havingValue = "true")
+public class InMemoryDocumentIndex {
+
+    private static final Logger logger = LoggerFactory.getLogger(InMemoryDocumentIndex.class);
+
+    private final DocumentRepository documentRepository;
+    private final MetaDataRepository metaDataRepository;
+    private final EffectivePermissionRepository effectivePermissionRepository;
+    private final TransactionTemplate transactionTemplate;
+
+    private final ReadWriteLock lock = new ReentrantReadWriteLock();
+    private final List<Consumer<InvertedIndex>> pendingChanges = new ArrayList<>();
+    private InvertedIndex index = new InvertedIndex();
+    private boolean ready;
+    private boolean rebuilding;
+
+    public InMemoryDocumentIndex(DocumentRepository documentRepository, MetaDataRepository metaDataRepository,
+                                 EffectivePermissionRepository effectivePermissionRepository, PlatformTransactionManager transactionManager) {
+        this.documentRepository = documentRepository;
+        this.metaDataRepository = metaDataRepository;
+        this.effectivePermissionRepository = effectivePermissionRepository;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.transactionTemplate.setReadOnly(true);
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void rebuild() {
+        lock.writeLock().lock();
+        try {
+            rebuilding = true;
+            pendingChanges.clear();
+        } finally {
+            lock.writeLock().unlock();
+        }
+
+        long start = System.nanoTime();
+        InvertedIndex fresh = new InvertedIndex();
+        try {
+            transactionTemplate.executeWithoutResult(status -> {
+                try (Stream<IndexedDocument> documents = documentRepository.streamIndexedDocuments()) {
+                    documents.forEach(fresh::addDocument);
+                }
+                try (Stream<IndexedMetaData> metadata = metaDataRepository.streamIndexedMetaData()) {
+                    metadata.forEach(item -> fresh.addMetaData(item.documentId(), item.key(), item.value()));
+                }
+                try (Stream<IndexedGrant> grants = effectivePermissionRepository.streamIndexedGrants()) {
+                    grants.forEach(grant -> fresh.grant(grant.documentId(), grant.userId()));
+                }
+            });
+        } catch (RuntimeException e) {
+            lock.writeLock().lock();
+            try {
+                rebuilding = false;
+                pendingChanges.clear();
+            } finally {
+                lock.writeLock().unlock();
+            }
+            logger.error("Could not build the in-memory search index: {}", e.getMessage());
+            return;
+        }
+
+        lock.writeLock().lock();
+        try {
+            // Changes committed while the database was being read are replayed; they are idempotent
+            pendingChanges.forEach(change -> change.accept(fresh));
+            pendingChanges.clear();
+            index = fresh;
+            rebuilding = false;
+            ready = true;
+        } finally {
+            lock.writeLock().unlock();
+        }
+        logger.info("In-memory search index built with {} documents in {} ms", fresh.size(), (System.nanoTime() - start) / 1_000_000);
+    }
+
+    public boolean isReady() {
+        lock.readLock().lock();
+        try {
+            return ready;
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    public List<IndexedDocument> suggest(UUID userId, String text, int limit) {
+        List<String> terms = SearchQuery.tokenize(text);
+        lock.readLock().lock();
+        try {
+            return index.search(userId, terms, limit);
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    @TransactionalEventListener
+    public void onUploaded(DocumentUploadedEvent event) {
+        apply(index -> {
+            index.addDocument(new IndexedDocument(event.documentId(), event.name(), event.type(), event.ownerId(), event.ownerName()));
+            event.metadata().forEach(item -> index.addMetaData(event.documentId(), item.getKey(), item.getValue()));
+        });
+    }
+
+    @TransactionalEventListener
+    public void onShared(DocumentSharedEvent event) {
+        apply(index -> event.userIds().forEach(userId -> index.grant(event.documentId(), userId)));
+    }
+
+    /**
+     * Membership changes can both add and remove access, so the affected pairs are revoked and
+     * re-granted from the committed effective permissions.
+     */
+    @TransactionalEventListener
+    public void onGroupMembershipChanged(GroupMembershipChangedEvent event) {
+        if (event.documentIds().isEmpty() || event.userIds().isEmpty()) {
+            return;
+        }
+        List<IndexedGrant> grants = effectivePermissionRepository.findGrants(event.documentIds(), event.userIds());
+        apply(index -> {
+            event.documentIds().forEach(documentId -> event.userIds().forEach(userId -> index.revoke(documentId, userId)));
+            grants.forEach(grant -> index.grant(grant.documentId(), grant.userId()));
+        });
+    }
+
+    @TransactionalEventListener
+    public void onDeleted(DocumentDeletedEvent event) {
+        apply(index -> index.remove(event.documentId()));
+    }
+
+    private void apply(Consumer<InvertedIndex> change) {
+        lock.writeLock().lock();
+        try {
+            if (rebuilding) {
+                pendingChanges.add(change);
+            }
+            change.accept(index);
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+}
@@ -0,0 +1,9 @@
+package fr.norsys.docsapi.search;
+
+import java.util.UUID;
+
+/**
+ * What the in-memory index keeps per document to answer suggestions on its own.
+ */
+public record IndexedDocument(UUID id, String name, String type, UUID ownerId, String ownerName) {
+}
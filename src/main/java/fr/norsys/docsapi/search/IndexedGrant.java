@@ -0,0 +1,6 @@
+package fr.norsys.docsapi.search;
+
+import java.util.UUID;
+
+public record IndexedGrant(UUID documentId, UUID userId) {
+}
@@ -0,0 +1,164 @@
+package fr.norsys.docsapi.search;
+
+import java.util.ArrayList;
+import java.util.BitSet;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.NavigableMap;
+import java.util.TreeMap;
+import java.util.UUID;
+
+/**
+ * Term to document ordinal postings plus a per user bitmap of readable documents. Ordinals follow
+ * insertion order, so documents must be added oldest first.
+ * Not thread safe; {@link InMemoryDocumentIndex} guards it with a read/write lock.
+ */
+class InvertedIndex {
+
+    private static final int DEFAULT_COMPACTION_THRESHOLD = 1024;
+
+    private final int compactionThreshold;
+    private final List<IndexedDocument> documents = new ArrayList<>();
+    private final Map<UUID, Integer> ordinals = new HashMap<>();
+    private final NavigableMap<String, PostingList> postings = new TreeMap<>();
+    private final Map<UUID, BitSet> readableByUser = new HashMap<>();
+    private final BitSet live = new BitSet();
+
+    InvertedIndex() {
+        this(DEFAULT_COMPACTION_THRESHOLD);
+    }
+
+    InvertedIndex(int compactionThreshold) {
+        this.compactionThreshold = compactionThreshold;
+    }
+
+    void addDocument(IndexedDocument document) {
+        if (ordinals.containsKey(document.id())) {
+            return;
+        }
+        int ordinal = documents.size();
+        documents.add(document);
+        ordinals.put(document.id(), ordinal);
+        live.set(ordinal);
+        indexText(ordinal, document.name());
+        indexText(ordinal, document.type());
+        readableByUser.computeIfAbsent(document.ownerId(), userId -> new BitSet()).set(ordinal);
+    }
+
+    void addMetaData(UUID documentId, String key, String value) {
+        Integer ordinal = ordinals.get(documentId);
+        if (ordinal == null) {
+            return;
+        }
+        indexText(ordinal, key);
+        indexText(ordinal, value);
+    }
+
+    void grant(UUID documentId, UUID userId) {
+        Integer ordinal = ordinals.get(documentId);
+        if (ordinal != null) {
+            readableByUser.computeIfAbsent(userId, id -> new BitSet()).set(ordinal);
+        }
+    }
+
+    void revoke(UUID documentId, UUID userId) {
+        Integer ordinal = ordinals.get(documentId);
+        BitSet readable = readableByUser.get(userId);
+        if (ordinal != null && readable != null && !userId.equals(documents.get(ordinal).ownerId())) {
+            readable.clear(ordinal);
+        }
+    }
+
+    /**
+     * Tombstones the ordinal. Once tombstones reach the compaction threshold and a quarter of all
+     * ordinals, the index is compacted so deletes do not grow it for the life of the process.
+     */
+    void remove(UUID documentId) {
+        Integer ordinal = ordinals.remove(documentId);
+        if (ordinal != null) {
+            live.clear(ordinal);
+            documents.set(ordinal, null);
+            int tombstones = documents.size() - ordinals.size();
+            if (tombstones >= compactionThreshold && tombstones * 4 >= documents.size()) {
+                compact();
+            }
+        }
+    }
+
+    /**
+     * Documents readable by the user that match every term by prefix, newest first.
+     */
+    List<IndexedDocument> search(UUID userId, List<String> terms, int limit) {
+        BitSet readable = readableByUser.get(userId);
+        if (readable == null || terms.isEmpty()) {
+            return List.of();
+        }
+        BitSet matches = (BitSet) readable.clone();
+        matches.and(live);
+        for (String term : terms) {
+            if (matches.isEmpty()) {
+                break;
+            }
+            BitSet termMatches = new BitSet();
+            for (PostingList postingList : postings.subMap(term, true, term + Character.MAX_VALUE, false).values()) {
+                postingList.orInto(termMatches);
+            }
+            matches.and(termMatches);
+        }
+
+        List<IndexedDocument> results = new ArrayList<>(Math.min(limit, matches.cardinality()));
+        for (int ordinal = matches.length() - 1; ordinal >= 0 && results.size() < limit; ordinal = matches.previousSetBit(ordinal - 1)) {
+            results.add(documents.get(ordinal));
+        }
+        return results;
+    }
+
+    int size() {
+        return ordinals.size();
+    }
+
+    int ordinalCount() {
+        return documents.size();
+    }
+
+    /**
+     * Renumbers the live documents from zero, keeping their order, and drops the tombstoned
+     * ordinals from the postings and the readable bitmaps.
+     */
+    private void compact() {
+        int[] remap = new int[documents.size()];
+        List<IndexedDocument> kept = new ArrayList<>(ordinals.size());
+        for (int ordinal = 0; ordinal < documents.size(); ordinal++) {
+            IndexedDocument document = documents.get(ordinal);
+            remap[ordinal] = document == null ? -1 : kept.size();
+            if (document != null) {
+                ordinals.put(document.id(), kept.size());
+                kept.add(document);
+            }
+        }
+        documents.clear();
+        documents.addAll(kept);
+        postings.values().removeIf(postingList -> postingList.remap(remap) == 0);
+        readableByUser.replaceAll((userId, readable) -> remap(readable, remap));
+        readableByUser.values().removeIf(BitSet::isEmpty);
+        live.clear();
+        live.set(0, documents.size());
+    }
+
+    private static BitSet remap(BitSet ordinals, int[] remap) {
+        BitSet remapped = new BitSet();
+        for (int ordinal = ordinals.nextSetBit(0); ordinal >= 0 && ordinal < remap.length; ordinal = ordinals.nextSetBit(ordinal + 1)) {
+            if (remap[ordinal] >= 0) {
+                remapped.set(remap[ordinal]);
+            }
+        }
+        return remapped;
+    }
+
+    private void indexText(int ordinal, String text) {
+        for (String term : SearchQuery.tokenize(text)) {
+            postings.computeIfAbsent(term, t -> new PostingList()).add(ordinal);
+        }
+    }
+}
@@ -0,0 +1,69 @@
+package fr.norsys.docsapi.search;
+
+import java.util.Arrays;
+import java.util.BitSet;
+
+/**
+ * Sorted, duplicate free list of document ordinals backed by a primitive int array.
+ * Not thread safe; guarded by the index lock.
+ */
+class PostingList {
+
+    private int[] ordinals = new int[4];
+    private int size;
+
+    void add(int ordinal) {
+        if (size > 0 && ordinals[size - 1] >= ordinal) {
+            int position = Arrays.binarySearch(ordinals, 0, size, ordinal);
+            if (position >= 0) {
+                return;
+            }
+            insertAt(-position - 1, ordinal);
+            return;
+        }
+        ensureCapacity();
+        ordinals[size++] = ordinal;
+    }
+
+    void orInto(BitSet target) {
+        for (int i = 0; i < size; i++) {
+            target.set(ordinals[i]);
+        }
+    }
+
+    int size() {
+        return size;
+    }
+
+    /**
+     * Replaces every ordinal by {@code remap[ordinal]} and drops those mapped to -1. The mapping
+     * must preserve order. Returns the remaining size.
+     */
+    int remap(int[] remap) {
+        int kept = 0;
+        for (int i = 0; i < size; i++) {
+            int ordinal = remap[ordinals[i]];
+            if (ordinal >= 0) {
+                ordinals[kept++] = ordinal;
+            }
+        }
+        size = kept;
+        if (size < ordinals.length / 4) {
+            ordinals = Arrays.copyOf(ordinals, Math.max(4, size));
+        }
+        return size;
+    }
+
+    private void insertAt(int position, int ordinal) {
+        ensureCapacity();
+        System.arraycopy(ordinals, position, ordinals, position + 1, size - position);
+        ordinals[position] = ordinal;
+        size++;
+    }
+
+    private void ensureCapacity() {
+        if (size == ordinals.length) {
+            ordinals = Arrays.copyOf(ordinals, ordinals.length * 2);
+        }
+    }
+}
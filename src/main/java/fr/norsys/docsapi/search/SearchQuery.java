@@ -0,0 +1,67 @@
+package fr.norsys.docsapi.search;
+
+import java.time.LocalDate;
+import java.time.format.DateTimeFormatter;
+import java.time.format.DateTimeParseException;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Locale;
+import java.util.stream.Collectors;
+
+/**
+ * A parsed search box value: free text terms matched by prefix, an optional creation day
+ * ({@code yyyy-MM-dd}) and an optional exact metadata match ({@code key:value}).
+ */
+public record SearchQuery(List<String> terms, LocalDate day, String metaKey, String metaValue) {
+
+    private static final DateTimeFormatter DAY_FORMAT = DateTimeFormatter.ofPattern("yyyy-MM-dd");
+
+    public static SearchQuery parse(String searchValue) {
+        String value = searchValue == null ? "" : searchValue.trim();
+
+        List<String> terms = tokenize(value);
+
+        String metaKey = null;
+        String metaValue = null;
+        if (value.contains(":")) {
+            String[] parts = value.split(":", 2);
+            metaKey = parts[0];
+            metaValue = parts[1];
+        }
+
+        LocalDate day = null;
+        try {
+            day = LocalDate.parse(value, DAY_FORMAT);
+        } catch (DateTimeParseException e) {
+            // not a date search
+        }
+        return new SearchQuery(terms, day, metaKey, metaValue);
+    }
+
+    /**
+     * Splits text on anything that is not a letter or a digit, lower cased and without duplicates.
+     */
+    public static List<String> tokenize(String text) {
+        if (text == null || text.isEmpty()) {
+            return List.of();
+        }
+        return Arrays.stream(text.split("[^\\p{L}\\p{N}]+"))
+                .filter(term -> !term.isEmpty())
+                .map(term -> term.toLowerCase(Locale.ROOT))
+                .distinct()
+                .toList();
+    }
+
+    public boolean isEmpty() {
+        return terms.isEmpty() && day == null && metaKey == null;
+    }
+
+    /**
+     * PostgreSQL {@code to_tsquery} expression where every term is a prefix match.
+     */
+    public String toTsQuery() {
+        return terms.stream()
+                .map(term -> term + ":*")
+                .collect(Collectors.joining(" & "));
+    }
+}
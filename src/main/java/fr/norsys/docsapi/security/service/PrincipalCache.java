@@ -0,0 +1,43 @@
+package fr.norsys.docsapi.security.service;
+
+import com.github.benmanes.caffeine.cache.AsyncCache;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import fr.norsys.docsapi.utils.AsyncCaches;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.security.core.userdetails.UserDetails;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+
+/**
+ * Short lived cache of principals for tokens that do not carry the user claims.
+ */
+@Component
+public class PrincipalCache {
+
+    private final UserDetailsServiceImpl userDetailsService;
+    private final AsyncCache<String, UserDetails> principals;
+
+    public PrincipalCache(UserDetailsServiceImpl userDetailsService,
+                          MeterRegistry meterRegistry,
+                          @Value("${docsapi.app.principalCache.maximumSize:10000}") long maximumSize,
+                          @Value("${docsapi.app.principalCache.ttl:60s}") Duration ttl) {
+        this.userDetailsService = userDetailsService;
+        this.principals = CaffeineCacheMetrics.monitor(meterRegistry, Caffeine.newBuilder()
+                .maximumSize(maximumSize)
+                .expireAfterWrite(ttl)
+                .recordStats()
+                .<String, UserDetails>buildAsync(), "principals");
+    }
+
+    public UserDetails loadUserByUsername(String username) {
+        return AsyncCaches.getOrLoad(principals, username, userDetailsService::loadUserByUsername);
+    }
+
+    public Cache<?, ?> cache() {
+        return principals.synchronous();
+    }
+}
@@ -0,0 +1,123 @@
+package fr.norsys.docsapi.service;
+
+import com.github.benmanes.caffeine.cache.AsyncCache;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import fr.norsys.docsapi.entity.Document;
+import fr.norsys.docsapi.entity.Permission;
+import fr.norsys.docsapi.event.DocumentDeletedEvent;
+import fr.norsys.docsapi.event.DocumentSharedEvent;
+import fr.norsys.docsapi.event.GroupMembershipChangedEvent;
+import fr.norsys.docsapi.repository.EffectivePermissionRepository;
+import fr.norsys.docsapi.utils.AsyncCaches;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.time.Duration;
+import java.util.UUID;
+
+/**
+ * Answers per document authorization checks from a bounded cache of (document, user) grants
+ * stored as {@link Permission#mask()} bits. A miss costs one index-only lookup on effective_permissions,
+ * which folds in group grants.
+ * <p>
+ * Share, group and delete events only reach the node that handled the change, so with several
+ * nodes a revoked grant stays usable elsewhere until its entry expires: {@code docsapi.acl.cache.expire-after-write}
+ * is the bound on that window and is kept short.
+ */
+@Service
+public class AccessControlService {
+
+    private static final int NONE = 0;
+
+    private final EffectivePermissionRepository effectivePermissionRepository;
+    private final AsyncCache<GrantKey, Integer> grants;
+
+    public AccessControlService(EffectivePermissionRepository effectivePermissionRepository,
+                                MeterRegistry meterRegistry,
+                                @Value("${docsapi.acl.cache.maximum-size:100000}") long maximumSize,
+                                @Value("${docsapi.acl.cache.expire-after-write:1m}") Duration expireAfterWrite) {
+        this.effectivePermissionRepository = effectivePermissionRepository;
+        // cache_gets{cache="acl.grants",result="hit|miss"} is the ACL check hit ratio
+        this.grants = CaffeineCacheMetrics.monitor(meterRegistry, Caffeine.newBuilder()
+                .maximumSize(maximumSize)
+                .expireAfterWrite(expireAfterWrite)
+                .recordStats()
+                .<GrantKey, Integer>buildAsync(), "acl.grants");
+    }
+
+    public boolean canAccess(Document document, UUID userId) {
+        return grantedMask(document, userId) != NONE;
+    }
+
+    public boolean canAccess(UUID documentId, UUID ownerId, UUID userId) {
+        return grantedMask(documentId, ownerId, userId) != NONE;
+    }
+
+    public boolean canRead(Document document, UUID userId) {
+        return has(document, userId, Permission.READ);
+    }
+
+    public boolean canWrite(Document document, UUID userId) {
+        return has(document, userId, Permission.WRITE);
+    }
+
+    public boolean canDelete(Document document, UUID userId) {
+        return has(document, userId, Permission.DELETE);
+    }
+
+    /**
+     * Sharing needs every right on the document: the owner or an ALL grant.
+     */
+    public boolean canShare(Document document, UUID userId) {
+        return has(document, userId, Permission.ALL);
+    }
+
+    public Cache<?, ?> cache() {
+        return grants.synchronous();
+    }
+
+    @TransactionalEventListener
+    public void onShared(DocumentSharedEvent event) {
+        event.userIds().forEach(userId -> grants.synchronous().invalidate(new GrantKey(event.documentId(), userId)));
+    }
+
+    @TransactionalEventListener
+    public void onGroupMembershipChanged(GroupMembershipChangedEvent event) {
+        event.documentIds().forEach(documentId -> event.userIds().forEach(userId -> grants.synchronous().invalidate(new GrantKey(documentId, userId))));
+    }
+
+    /**
+     * Drops the grants of the users the document was shared with; cached misses for anyone else
+     * name a document that no longer resolves and simply age out.
+     */
+    @TransactionalEventListener
+    public void onDeleted(DocumentDeletedEvent event) {
+        event.userIds().forEach(userId -> grants.synchronous().invalidate(new GrantKey(event.documentId(), userId)));
+    }
+
+    private boolean has(Document document, UUID userId, Permission permission) {
+        return (grantedMask(document, userId) & permission.mask()) == permission.mask();
+    }
+
+    private int grantedMask(Document document, UUID userId) {
+        return grantedMask(document.getId(), document.getUser() == null ? null : document.getUser().getId(), userId);
+    }
+
+    private int grantedMask(UUID documentId, UUID ownerId, UUID userId) {
+        if (userId.equals(ownerId)) {
+            return Permission.ALL.mask();
+        }
+        return AsyncCaches.getOrLoad(grants, new GrantKey(documentId, userId), this::loadMask);
+    }
+
+    private int loadMask(GrantKey key) {
+        return effectivePermissionRepository.findMask(key.documentId(), key.userId()).map(Short::intValue).orElse(NONE);
+    }
+
+    private record GrantKey(UUID documentId, UUID userId) {
+    }
+}
@@ -0,0 +1,226 @@
+package fr.norsys.docsapi.service;
+
+import com.github.benmanes.caffeine.cache.AsyncCache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import fr.norsys.docsapi.dto.document.BatchUploadResultDto;
+import fr.norsys.docsapi.dto.document.BulkShareDto;
+import fr.norsys.docsapi.dto.document.DocumentDownloadDto;
+import fr.norsys.docsapi.dto.document.DocumentResponseDto;
+import fr.norsys.docsapi.dto.document.DocumentSuggestionDto;
+import fr.norsys.docsapi.dto.document.ShareDto;
+import fr.norsys.docsapi.entity.Document;
+import fr.norsys.docsapi.entity.MetaData;
+import fr.norsys.docsapi.event.DocumentDeletedEvent;
+import fr.norsys.docsapi.event.DocumentSharedEvent;
+import fr.norsys.docsapi.event.DocumentUploadedEvent;
+import fr.norsys.docsapi.event.GroupMembershipChangedEvent;
+import fr.norsys.docsapi.security.service.UserDetailsImpl;
+import fr.norsys.docsapi.utils.AsyncCaches;
+import fr.norsys.docsapi.utils.DocumentFields;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Primary;
+import org.springframework.http.HttpStatus;
+import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.event.TransactionalEventListener;
+import org.springframework.web.multipart.MultipartFile;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
+import org.springframework.web.server.ResponseStatusException;
+
+import java.io.IOException;
+import java.nio.file.Path;
+import java.security.NoSuchAlgorithmException;
+import java.time.Duration;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+
+/**
+ * Serves the polled reads (owned list, shared-with-me list and document detail) from Caffeine
+ * caches and delegates everything else to {@link DocumentLocalService}. Entries are dropped
+ * after commit by the upload, share, delete and group membership events, so a steady-state
+ * poll never reaches the database; the TTL only bounds the damage of a missed event.
+ * <p>
+ * Cached DTOs are never handed out: every caller gets its own copy over immutable nested lists.
+ * Events are node-local, so on a multi-node deployment the TTL is also how long another node may
+ * keep listing a document after it was unshared or deleted.
+ */
+@Service
+@Primary
+public class CachingDocumentService implements IDocumentService {
+
+    private final DocumentLocalService delegate;
+    private final AccessControlService accessControlService;
+    private final AsyncCache<UUID, List<DocumentResponseDto>> ownedLists;
+    private final AsyncCache<UUID, List<DocumentResponseDto>> sharedLists;
+    private final AsyncCache<UUID, DocumentResponseDto> documents;
+
+    public CachingDocumentService(DocumentLocalService delegate, AccessControlService accessControlService,
+                                  MeterRegistry meterRegistry,
+                                  @Value("${docsapi.response-cache.maximum-size:10000}") long maximumSize,
+                                  @Value("${docsapi.response-cache.expire-after-write:1m}") Duration expireAfterWrite) {
+        this.delegate = delegate;
+        this.accessControlService = accessControlService;
+        this.ownedLists = CaffeineCacheMetrics.monitor(meterRegistry, newCache(maximumSize, expireAfterWrite), "documents.owned");
+        this.sharedLists = CaffeineCacheMetrics.monitor(meterRegistry, newCache(maximumSize, expireAfterWrite), "documents.shared");
+        this.documents = CaffeineCacheMetrics.monitor(meterRegistry, newCache(maximumSize, expireAfterWrite), "documents.detail");
+    }
+
+    @Override
+    public List<DocumentResponseDto> getList() {
+        return copyAll(AsyncCaches.getOrLoad(ownedLists, getAuthenticatedUserId(), userId -> freezeAll(delegate.getList())));
+    }
+
+    @Override
+    public List<DocumentResponseDto> sharedWithMe() {
+        return copyAll(AsyncCaches.getOrLoad(sharedLists, getAuthenticatedUserId(), userId -> freezeAll(delegate.sharedWithMe())));
+    }
+
+    @Override
+    public Document get(UUID id) {
+        return delegate.get(id);
+    }
+
+    /**
+     * The detail is cached once for every reader; access is still checked per caller against
+     * the ACL cache.
+     */
+    @Override
+    public DocumentResponseDto getDetails(UUID id) {
+        DocumentResponseDto document = AsyncCaches.getOrLoad(documents, id, key -> freeze(delegate.getDetails(key)));
+        if (!accessControlService.canAccess(document.getId(), document.getOwnerId(), getAuthenticatedUserId())) {
+            throw new ResponseStatusException(HttpStatus.FORBIDDEN, "User does not have permission to access this document");
+        }
+        return document.toBuilder().build();
+    }
+
+    @TransactionalEventListener
+    public void onUploaded(DocumentUploadedEvent event) {
+        ownedLists.synchronous().invalidate(event.ownerId());
+    }
+
+    @TransactionalEventListener
+    public void onShared(DocumentSharedEvent event) {
+        // The owner's list, the detail and every grantee's shared list embed the permission entries
+        ownedLists.synchronous().invalidate(event.ownerId());
+        documents.synchronous().invalidate(event.documentId());
+        sharedLists.synchronous().invalidateAll(event.userIds());
+        sharedLists.synchronous().invalidateAll(event.granteeIds());
+    }
+
+    @TransactionalEventListener
+    public void onDeleted(DocumentDeletedEvent event) {
+        ownedLists.synchronous().invalidate(event.ownerId());
+        documents.synchronous().invalidate(event.documentId());
+        sharedLists.synchronous().invalidateAll(event.userIds());
+    }
+
+    @TransactionalEventListener
+    public void onGroupMembershipChanged(GroupMembershipChangedEvent event) {
+        sharedLists.synchronous().invalidateAll(event.userIds());
+    }
+
+    @Override
+    public String upload(MultipartFile document, List<MetaData> metadata) throws IOException, NoSuchAlgorithmException {
+        return delegate.upload(document, metadata);
+    }
+
+    @Override
+    public List<BatchUploadResultDto> uploadBatch(List<MultipartFile> documents, List<List<MetaData>> metadata) {
+        return delegate.uploadBatch(documents, metadata);
+    }
+
+    @Override
+    public String uploadAssembled(Path file, String name, long size, String checksum, List<MetaData> metadata) throws IOException {
+        return delegate.uploadAssembled(file, name, size, checksum, metadata);
+    }
+
+    @Override
+    public DocumentDownloadDto download(String docId) throws IOException, NoSuchAlgorithmException {
+        return delegate.download(docId);
+    }
+
+    @Override
+    public List<DocumentResponseDto> searchSharedWithMe(String searchValue) {
+        return delegate.searchSharedWithMe(searchValue);
+    }
+
+    @Override
+    public List<DocumentSuggestionDto> suggest(String searchValue) {
+        return delegate.suggest(searchValue);
+    }
+
+    @Override
+    public void delete(String id) {
+        delegate.delete(id);
+    }
+
+    @Override
+    public List<DocumentResponseDto> search(String searchValue) {
+        return delegate.search(searchValue);
+    }
+
+    @Override
+    public Map<String, Object> getListPagination(int page, int size) {
+        return delegate.getListPagination(page, size);
+    }
+
+    @Override
+    public Map<String, Object> getListCursor(String cursor, int size, boolean includeTotal) {
+        return delegate.getListCursor(cursor, size, includeTotal);
+    }
+
+    @Override
+    public void share(ShareDto shareDto) {
+        delegate.share(shareDto);
+    }
+
+    @Override
+    public int shareBulk(BulkShareDto bulkShareDto) {
+        return delegate.shareBulk(bulkShareDto);
+    }
+
+    @Override
+    public StreamingResponseBody streamList(boolean ndjson, DocumentFields fields) {
+        return delegate.streamList(ndjson, fields);
+    }
+
+    @Override
+    public StreamingResponseBody streamSharedWithMe(boolean ndjson, DocumentFields fields) {
+        return delegate.streamSharedWithMe(ndjson, fields);
+    }
+
+    private static List<DocumentResponseDto> freezeAll(List<DocumentResponseDto> dtos) {
+        return dtos.stream().map(CachingDocumentService::freeze).toList();
+    }
+
+    /**
+     * The nested permission and metadata lists hold records, so making them immutable is enough
+     * for a shallow copy of the DTO to be safe to hand out.
+     */
+    private static DocumentResponseDto freeze(DocumentResponseDto dto) {
+        return dto.toBuilder()
+                .permissions(dto.getPermissions() == null ? null : List.copyOf(dto.getPermissions()))
+                .metaData(dto.getMetaData() == null ? null : List.copyOf(dto.getMetaData()))
+                .build();
+    }
+
+    private static List<DocumentResponseDto> copyAll(List<DocumentResponseDto> frozen) {
+        return frozen.stream().map(dto -> dto.toBuilder().build()).toList();
+    }
+
+    private static <K, V> AsyncCache<K, V> newCache(long maximumSize, Duration expireAfterWrite) {
+        return Caffeine.newBuilder()
+                .maximumSize(maximumSize)
+                .expireAfterWrite(expireAfterWrite)
+                .recordStats()
+                .buildAsync();
+    }
+
+    private UUID getAuthenticatedUserId() {
+        var authentication = SecurityContextHolder.getContext().getAuthentication();
+        return ((UserDetailsImpl) authentication.getPrincipal()).getId();
+    }
+}
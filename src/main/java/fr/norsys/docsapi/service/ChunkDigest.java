@@ -0,0 +1,121 @@
+package fr.norsys.docsapi.service;
+
+import fr.norsys.docsapi.entity.UploadSession;
+import fr.norsys.docsapi.utils.DocumentHashCalculator;
+
+import java.io.EOFException;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.Collection;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * SHA-256 of a file assembled from chunks arriving in any order. A chunk is folded in as soon as
+ * every chunk before it has arrived, while it is most likely still in the page cache, so
+ * completing the upload only hashes what is left.
+ */
+final class ChunkDigest {
+
+    private static final int BUFFER_SIZE = 64 * 1024;
+
+    private final Path file;
+    private final UploadSession session;
+    private final MessageDigest digest;
+    private final Set<Integer> received = ConcurrentHashMap.newKeySet();
+    private final ReentrantLock lock = new ReentrantLock();
+    private int next;
+
+    ChunkDigest(Path file, UploadSession session) {
+        this.file = file;
+        this.session = session;
+        try {
+            this.digest = MessageDigest.getInstance("SHA-256");
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
+    /**
+     * Records a written chunk and hashes forward unless another request is already doing so.
+     */
+    void received(int index) throws IOException {
+        received.add(index);
+        if (lock.tryLock()) {
+            try {
+                advance();
+            } finally {
+                lock.unlock();
+            }
+        }
+    }
+
+    /**
+     * Whether a chunk is already part of the digest, so rewriting it makes the digest stale.
+     */
+    boolean covers(int index) {
+        lock.lock();
+        try {
+            return index < next;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * Takes back a chunk whose rewrite failed, so it is not hashed until it is written again.
+     * Returns whether it had already been hashed, in which case the digest is stale.
+     */
+    boolean discard(int index) {
+        lock.lock();
+        try {
+            received.remove(index);
+            return index < next;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    String finish(Collection<Integer> indexes) throws IOException {
+        received.addAll(indexes);
+        lock.lock();
+        try {
+            advance();
+            if (next != session.getChunkCount()) {
+                throw new IllegalStateException("Chunk " + next + " has not been received");
+            }
+            return DocumentHashCalculator.bytesToHex(digest.digest());
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    private void advance() throws IOException {
+        if (!received.contains(next)) {
+            return;
+        }
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+            ByteBuffer buffer = ByteBuffer.allocate(BUFFER_SIZE);
+            while (next < session.getChunkCount() && received.contains(next)) {
+                long position = session.chunkOffset(next);
+                long end = position + session.chunkLength(next);
+                while (position < end) {
+                    buffer.clear().limit((int) Math.min(BUFFER_SIZE, end - position));
+                    int read = channel.read(buffer, position);
+                    if (read < 0) {
+                        throw new EOFException("Chunk " + next + " is truncated");
+                    }
+                    digest.update(buffer.flip());
+                    position += read;
+                }
+                next++;
+            }
+        }
+    }
+}
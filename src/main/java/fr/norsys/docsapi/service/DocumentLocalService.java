@@ -1,125 +1,375 @@
 package fr.norsys.docsapi.service;
 
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectWriter;
+import com.fasterxml.jackson.databind.SequenceWriter;
+import fr.norsys.docsapi.dto.document.BatchUploadResultDto;
+import fr.norsys.docsapi.dto.document.BulkShareDto;
+import fr.norsys.docsapi.dto.document.DocumentDownloadDto;
 import fr.norsys.docsapi.dto.document.DocumentResponseDto;
+import fr.norsys.docsapi.dto.document.DocumentRow;
+import fr.norsys.docsapi.dto.document.DocumentSearchHit;
+import fr.norsys.docsapi.dto.document.DocumentSuggestionDto;
+import fr.norsys.docsapi.dto.document.MetaDataDto;
+import fr.norsys.docsapi.dto.document.PermissionDto;
 import fr.norsys.docsapi.dto.document.ShareDto;
 import fr.norsys.docsapi.entity.*;
+import fr.norsys.docsapi.event.DocumentDeletedEvent;
+import fr.norsys.docsapi.event.DocumentSharedEvent;
+import fr.norsys.docsapi.event.DocumentUploadedEvent;
 import fr.norsys.docsapi.repository.DocumentRepository;
+import fr.norsys.docsapi.repository.EffectivePermissionRepository;
+import fr.norsys.docsapi.repository.GroupMembershipRepository;
+import fr.norsys.docsapi.repository.GroupPermissionEntryRepository;
+import fr.norsys.docsapi.repository.GroupRepository;
 import fr.norsys.docsapi.repository.MetaDataRepository;
 import fr.norsys.docsapi.repository.PermissionEntryRepository;
 import fr.norsys.docsapi.repository.UserRepository;
 import fr.norsys.docsapi.security.service.UserDetailsImpl;
-import fr.norsys.docsapi.specifications.DocumentSpecifications;
+import fr.norsys.docsapi.search.InMemoryDocumentIndex;
+import fr.norsys.docsapi.search.SearchQuery;
+import fr.norsys.docsapi.service.DocumentMetrics.UploadStage;
+import fr.norsys.docsapi.storage.BlobSource;
+import fr.norsys.docsapi.storage.DecodedResource;
+import fr.norsys.docsapi.storage.StoredBlob;
+import fr.norsys.docsapi.storage.BlobStore;
+import fr.norsys.docsapi.utils.DocumentCursor;
+import fr.norsys.docsapi.utils.DocumentFields;
 import fr.norsys.docsapi.utils.DocumentHashCalculator;
 import fr.norsys.docsapi.utils.DocumentStorageProperties;
-import jakarta.persistence.criteria.Join;
-import jakarta.persistence.criteria.JoinType;
+import fr.norsys.docsapi.utils.DocumentTypeDetector;
+import io.micrometer.core.instrument.Timer;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.core.io.FileSystemResource;
 import org.springframework.core.io.Resource;
-import org.springframework.core.io.UrlResource;
+import org.springframework.data.domain.Limit;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.PageRequest;
 import org.springframework.data.domain.Pageable;
-import org.springframework.data.jpa.domain.Specification;
 import org.springframework.http.HttpStatus;
 import org.springframework.security.core.context.SecurityContextHolder;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.annotation.Propagation;
 import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.transaction.support.TransactionTemplate;
 import org.springframework.util.StringUtils;
 import org.springframework.web.multipart.MultipartFile;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 import org.springframework.web.server.ResponseStatusException;
+import java.io.BufferedInputStream;
 import java.io.IOException;
 import java.io.InputStream;
+import java.io.OutputStream;
+import java.io.UncheckedIOException;
 import java.nio.file.*;
 import java.security.NoSuchAlgorithmException;
 import java.sql.Timestamp;
 import java.time.Instant;
 import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Future;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+import java.util.function.Supplier;
 import java.util.stream.Collectors;
+import java.util.stream.Stream;
 
 @Service
 @Transactional
 public class DocumentLocalService implements IDocumentService {
 
+    private static final Logger logger = LoggerFactory.getLogger(DocumentLocalService.class);
+    // Marks the slots of a batch whose request gave up, so late staged files delete themselves
+    private static final Object ABANDONED = new Object();
+
+    private static final int UPLOAD_BUFFER_SIZE = 64 * 1024;
+    private static final int SEARCH_RESULT_LIMIT = 100;
+    private static final int MAX_PAGE_SIZE = 100;
+    private static final int SUGGESTION_LIMIT = 10;
+    // Matches hibernate.default_batch_fetch_size so a window's collections load in one query each
+    private static final int STREAM_WINDOW = 100;
+
     private final DocumentStorageProperties documentStorageProperties;
     private final DocumentRepository documentRepository;
     private final UserRepository userRepository;
     private final MetaDataRepository metaDataRepository;
     private final PermissionEntryRepository permissionEntryRepository;
+    private final GroupRepository groupRepository;
+    private final GroupMembershipRepository groupMembershipRepository;
+    private final GroupPermissionEntryRepository groupPermissionEntryRepository;
+    private final EffectivePermissionRepository effectivePermissionRepository;
+    private final BlobStore blobStore;
+    private final AccessControlService accessControlService;
+    private final ApplicationEventPublisher eventPublisher;
+    private final Optional<InMemoryDocumentIndex> inMemoryIndex;
+    private final ExecutorService ingestionExecutor;
+    private final TransactionTemplate transactionTemplate;
+    private final TransactionTemplate readOnlyTransactionTemplate;
+    private final ObjectMapper objectMapper;
+    private final DocumentMetrics metrics;
+    private final int batchParallelismPerRequest;
 
-    public DocumentLocalService(DocumentStorageProperties documentStorageProperties, DocumentRepository documentRepository, UserRepository userRepository, MetaDataRepository metaDataRepository, PermissionEntryRepository permissionEntryRepository) {
+    public DocumentLocalService(DocumentStorageProperties documentStorageProperties, DocumentRepository documentRepository, UserRepository userRepository, MetaDataRepository metaDataRepository, PermissionEntryRepository permissionEntryRepository, GroupRepository groupRepository, GroupMembershipRepository groupMembershipRepository, GroupPermissionEntryRepository groupPermissionEntryRepository, EffectivePermissionRepository effectivePermissionRepository, BlobStore blobStore, AccessControlService accessControlService, ApplicationEventPublisher eventPublisher, Optional<InMemoryDocumentIndex> inMemoryIndex, ExecutorService ingestionExecutor, PlatformTransactionManager transactionManager, ObjectMapper objectMapper, DocumentMetrics metrics, @Value("${docsapi.upload.batch.per-request-parallelism:4}") int batchParallelismPerRequest) {
         this.documentStorageProperties = documentStorageProperties;
         this.documentRepository = documentRepository;
         this.userRepository = userRepository;
         this.metaDataRepository = metaDataRepository;
         this.permissionEntryRepository = permissionEntryRepository;
+        this.groupRepository = groupRepository;
+        this.groupMembershipRepository = groupMembershipRepository;
+        this.groupPermissionEntryRepository = groupPermissionEntryRepository;
+        this.effectivePermissionRepository = effectivePermissionRepository;
+        this.blobStore = blobStore;
+        this.accessControlService = accessControlService;
+        this.eventPublisher = eventPublisher;
+        this.inMemoryIndex = inMemoryIndex;
+        this.ingestionExecutor = ingestionExecutor;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.readOnlyTransactionTemplate = new TransactionTemplate(transactionManager);
+        this.readOnlyTransactionTemplate.setReadOnly(true);
+        this.objectMapper = objectMapper;
+        this.metrics = metrics;
+        this.batchParallelismPerRequest = Math.max(1, batchParallelismPerRequest);
     }
 
     /**
      * Karim
      * */
     @Override
+    @Transactional(propagation = Propagation.NOT_SUPPORTED)
     public String upload(MultipartFile file, List<MetaData> metadata) throws IOException, NoSuchAlgorithmException {
         User user = getAuthenticatedUser();
+        StagedDocument staged = stage(file);
+        try {
+            Timer.Sample duplicateCheck = metrics.start();
+            validateDocument(user, staged.checksum(), staged.name());
+            metrics.uploadStage(duplicateCheck, UploadStage.DUPLICATE_CHECK);
+            return String.valueOf(persistAll(user, List.of(staged), List.of(metadata)).get(0).getId());
+        } catch (IOException e) {
+            throw new IOException("Could not save document: " + staged.name(), e);
+        } finally {
+            Files.deleteIfExists(staged.tempFile());
+        }
+    }
 
-        Path uploadPath = Paths.get(documentStorageProperties.getUploadDir());
-        String originalFilename = StringUtils.cleanPath(Objects.requireNonNull(file.getOriginalFilename()));
-        createDirectories(uploadPath);
-        Path filePath = uploadPath.resolve(originalFilename);
-
-        try (InputStream inputStream = file.getInputStream()) {
-            Files.copy(inputStream, filePath, StandardCopyOption.REPLACE_EXISTING);
-            String checksum = DocumentHashCalculator.calculateHash(filePath);
-            validateDocument(checksum, originalFilename);
-            String type = Files.probeContentType(filePath);
-            if (type == null) {
-                type = originalFilename.split("\\.")[1].toUpperCase();
+    /**
+     * Writes and hashes the files in parallel, checks every duplicate with a single query and
+     * saves all rows in one transaction. Each file gets its own result.
+     * */
+    @Override
+    @Transactional(propagation = Propagation.NOT_SUPPORTED)
+    public List<BatchUploadResultDto> uploadBatch(List<MultipartFile> files, List<List<MetaData>> metadata) {
+        User user = getAuthenticatedUser();
+        List<Object> staging = stageAll(files);
+
+        BatchUploadResultDto[] results = new BatchUploadResultDto[files.size()];
+        List<StagedDocument> stagedDocuments = new ArrayList<>();
+        List<Integer> stagedPositions = new ArrayList<>();
+        for (int i = 0; i < staging.size(); i++) {
+            if (staging.get(i) instanceof StagedDocument staged) {
+                stagedDocuments.add(staged);
+                stagedPositions.add(i);
+            } else {
+                String message = staging.get(i) instanceof Exception e ? e.getMessage() : "Could not stage document";
+                results[i] = batchResult(files.get(i).getOriginalFilename(), HttpStatus.INTERNAL_SERVER_ERROR, message);
             }
-            Document document = createDocument(originalFilename, file.getSize(), type,checksum, filePath.toString(), user);
-            documentRepository.save(document);
+        }
 
-            PermissionEntry permissionEntry = PermissionEntry.builder()
-                    .document(document)
-                    .user(user)
-                    .permission(Permission.ALL)
-                    .build();
-            permissionEntryRepository.save(permissionEntry);
+        try {
+            Set<String> existingChecksums = new HashSet<>();
+            Set<String> existingNames = new HashSet<>();
+            if (!stagedDocuments.isEmpty()) {
+                Timer.Sample duplicateCheck = metrics.start();
+                documentRepository.findIdentities(user,
+                        stagedDocuments.stream().map(StagedDocument::checksum).toList(),
+                        stagedDocuments.stream().map(StagedDocument::name).toList())
+                        .forEach(identity -> {
+                            existingChecksums.add(identity.checksum());
+                            existingNames.add(identity.name());
+                        });
+                metrics.uploadStage(duplicateCheck, UploadStage.DUPLICATE_CHECK);
+            }
 
-            metadata.forEach(metaDataItem -> {
-                metaDataItem.setDocument(document);
-                metaDataRepository.save(metaDataItem);
+            List<StagedDocument> accepted = new ArrayList<>();
+            List<List<MetaData>> acceptedMetadata = new ArrayList<>();
+            List<Integer> acceptedPositions = new ArrayList<>();
+            for (int i = 0; i < stagedDocuments.size(); i++) {
+                StagedDocument staged = stagedDocuments.get(i);
+                int position = stagedPositions.get(i);
+                boolean duplicate = existingChecksums.contains(staged.checksum()) || existingNames.contains(staged.name());
+                // later files of the same batch are checked against the earlier ones too
+                existingChecksums.add(staged.checksum());
+                existingNames.add(staged.name());
+                if (duplicate) {
+                    results[position] = batchResult(staged.name(), HttpStatus.CONFLICT, "Document already exists");
+                    continue;
+                }
+                accepted.add(staged);
+                acceptedMetadata.add(position < metadata.size() ? metadata.get(position) : List.of());
+                acceptedPositions.add(position);
+            }
+
+            if (!accepted.isEmpty()) {
+                List<Document> documents;
+                try {
+                    documents = persistAll(user, accepted, acceptedMetadata);
+                } catch (IOException e) {
+                    throw new UncheckedIOException(e);
+                }
+                for (int i = 0; i < documents.size(); i++) {
+                    BatchUploadResultDto result = batchResult(accepted.get(i).name(), HttpStatus.CREATED, null);
+                    result.setDownloadUri("/api/documents/download/" + documents.get(i).getId());
+                    results[acceptedPositions.get(i)] = result;
+                }
+            }
+            return Arrays.asList(results);
+        } catch (RuntimeException e) {
+            throw new ResponseStatusException(HttpStatus.INTERNAL_SERVER_ERROR, "Could not save documents", e);
+        } finally {
+            stagedDocuments.forEach(staged -> {
+                try {
+                    Files.deleteIfExists(staged.tempFile());
+                } catch (IOException ignored) {
+                    // the blob store already took ownership of accepted files
+                }
             });
+        }
+    }
 
-            return String.valueOf(document.getId());
+    /**
+     * Stages the files of a batch on the shared ingestion executor, returning for each file its
+     * {@link StagedDocument} or the exception that stopped it. A batch has at most
+     * {@code batchParallelismPerRequest} files in flight, and each task stages a single file before
+     * queueing the next one, so concurrent batches take turns instead of one holding every thread.
+     * When the request thread is interrupted the pending tasks are cancelled and every staged file
+     * is deleted, including files that finish staging afterwards.
+     */
+    private List<Object> stageAll(List<MultipartFile> files) {
+        AtomicReferenceArray<Object> outcomes = new AtomicReferenceArray<>(files.size());
+        AtomicInteger next = new AtomicInteger();
+        CountDownLatch remaining = new CountDownLatch(files.size());
+        Set<Future<?>> tasks = ConcurrentHashMap.newKeySet();
+        Runnable stageNext = new Runnable() {
+            @Override
+            public void run() {
+                int i;
+                while ((i = next.getAndIncrement()) < files.size()) {
+                    Object outcome = null;
+                    try {
+                        outcome = stage(files.get(i));
+                    } catch (Exception e) {
+                        outcome = e;
+                    } finally {
+                        if (!outcomes.compareAndSet(i, null, outcome) && outcome instanceof StagedDocument staged) {
+                            deleteQuietly(staged.tempFile());
+                        }
+                        remaining.countDown();
+                    }
+                    if (outcomes.get(i) == ABANDONED) {
+                        return;
+                    }
+                    try {
+                        tasks.add(ingestionExecutor.submit(this));
+                        return;
+                    } catch (RejectedExecutionException e) {
+                        // The executor is shutting down: finish the batch on this thread
+                    }
+                }
+            }
+        };
+
+        boolean completed = false;
+        try {
+            for (int i = 0; i < Math.min(batchParallelismPerRequest, files.size()); i++) {
+                tasks.add(ingestionExecutor.submit(stageNext));
+            }
+            remaining.await();
+            completed = true;
+            List<Object> staged = new ArrayList<>(files.size());
+            for (int i = 0; i < files.size(); i++) {
+                staged.add(outcomes.get(i));
+            }
+            return staged;
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new ResponseStatusException(HttpStatus.SERVICE_UNAVAILABLE, "Upload interrupted", e);
+        } finally {
+            if (!completed) {
+                tasks.forEach(task -> task.cancel(true));
+                for (int i = 0; i < files.size(); i++) {
+                    if (outcomes.getAndSet(i, ABANDONED) instanceof StagedDocument staged) {
+                        deleteQuietly(staged.tempFile());
+                    }
+                }
+            }
+        }
+    }
+
+    private static void deleteQuietly(Path file) {
+        try {
+            Files.deleteIfExists(file);
         } catch (IOException e) {
-            Files.delete(filePath);
-            throw new IOException("Could not save document: " + originalFilename, e);
+            logger.warn("Could not delete staged file {}: {}", file, e.getMessage());
+        }
+    }
+
+    /**
+     * Creates a document from a file assembled and hashed elsewhere, such as a completed
+     * resumable upload. The blob store takes ownership of the file.
+     */
+    @Override
+    @Transactional(propagation = Propagation.NOT_SUPPORTED)
+    public String uploadAssembled(Path file, String name, long size, String checksum, List<MetaData> metadata) throws IOException {
+        User user = getAuthenticatedUser();
+        Timer.Sample duplicateCheck = metrics.start();
+        validateDocument(user, checksum, name);
+        metrics.uploadStage(duplicateCheck, UploadStage.DUPLICATE_CHECK);
+        metrics.uploaded(size);
+        String type;
+        try (InputStream inputStream = new BufferedInputStream(Files.newInputStream(file), DocumentTypeDetector.SNIFF_LENGTH)) {
+            type = DocumentTypeDetector.detect(inputStream, name);
         }
+        StagedDocument staged = new StagedDocument(name, size, type, checksum, file);
+        return String.valueOf(persistAll(user, List.of(staged), List.of(metadata)).get(0).getId());
     }
 
     /**
      * Karim
      * */
     @Override
-    public Resource download(String docId) throws IOException {
+    public DocumentDownloadDto download(String docId) throws IOException {
+        Timer.Sample firstByte = metrics.start();
         Document document = get(UUID.fromString(docId));
-        User user = getAuthenticatedUser();
-
-        if (!document.getUser().equals(user)) {
-            List<PermissionEntry> permissionEntries = permissionEntryRepository.findByDocumentAndUser(document, user)
-                    .orElseThrow(() -> new ResponseStatusException(HttpStatus.NOT_FOUND, "Permission entry not found for this user and document"));
-
-            boolean hasReadPermission = permissionEntries.stream()
-                    .anyMatch(permissionEntry -> permissionEntry.getPermission().equals(Permission.ALL) || permissionEntry.getPermission().equals(Permission.READ));
-            if (!hasReadPermission) {
-                throw new ResponseStatusException(HttpStatus.FORBIDDEN, "User does not have permission to download this document");
-            }
+        if (!accessControlService.canRead(document, getAuthenticatedUserId())) {
+            throw new ResponseStatusException(HttpStatus.FORBIDDEN, "User does not have permission to download this document");
         }
 
         try {
-            Path foundFile = Paths.get(documentStorageProperties.getUploadDir(), document.getName());
-            if (!Files.exists(foundFile)) {
+            Resource stored = resolveStoredResource(document);
+            if (!stored.exists()) {
                 throw new ResponseStatusException(HttpStatus.NOT_FOUND, "File not found");
             }
-            return new UrlResource(foundFile.toUri());
+            StorageCodec codec = document.getCodec() == null ? StorageCodec.NONE : document.getCodec();
+            metrics.downloadReady(firstByte, document.getSize());
+            return DocumentDownloadDto.builder()
+                    .resource(codec == StorageCodec.NONE ? stored : new DecodedResource(stored, codec, document.getSize()))
+                    .encodedResource(codec == StorageCodec.NONE ? null : stored)
+                    .codec(codec)
+                    .name(document.getName())
+                    .type(document.getType())
+                    .checksum(document.getChecksum())
+                    .lastModified(document.getModificationDate().getTime())
+                    .build();
         } catch (InvalidPathException e) {
             throw new IOException("Document not found");
         }
@@ -132,11 +382,7 @@ public class DocumentLocalService implements IDocumentService {
     @Override
     public List<DocumentResponseDto> getList() {
         try {
-            User user = getAuthenticatedUser();
-            List<Document> documents = documentRepository.findByUser(user);
-            return documents.stream()
-                    .map(this::convertToDto)
-                    .collect(Collectors.toList());
+            return convertToDtos(documentRepository.findRowsByUserId(getAuthenticatedUserId()), DocumentFields.ALL);
         } catch (Exception e) {
             throw new ResponseStatusException(HttpStatus.INTERNAL_SERVER_ERROR, "Please try again later.", e);
         }
@@ -147,14 +393,14 @@ public class DocumentLocalService implements IDocumentService {
      * */
     @Override
     public Map<String, Object> getListPagination(int page, int size) {
+        if (page < 0) {
+            throw new ResponseStatusException(HttpStatus.BAD_REQUEST, "Page index must not be negative");
+        }
+        int pageSize = pageSize(size);
         try {
-            User user = getAuthenticatedUser();
-
-            Pageable paging = PageRequest.of(page, size);
-            Page<Document> pageDocs = documentRepository.findByUser(user, paging);
-            List<DocumentResponseDto> documents = pageDocs.getContent().stream()
-                    .map(this::convertToDto)
-                    .toList();
+            Pageable paging = PageRequest.of(page, pageSize);
+            Page<DocumentRow> pageDocs = documentRepository.findRowsByUserId(getAuthenticatedUserId(), paging);
+            List<DocumentResponseDto> documents = convertToDtos(pageDocs.getContent(), DocumentFields.ALL);
 
             Map<String, Object> response = new HashMap<>();
             response.put("documents", documents);
@@ -168,73 +414,219 @@ public class DocumentLocalService implements IDocumentService {
         }
     }
 
+    /**
+     * Seeks on (creation_date, id) so every page costs the same as the first one.
+     * */
+    @Override
+    public Map<String, Object> getListCursor(String cursor, int requestedSize, boolean includeTotal) {
+        int size = pageSize(requestedSize);
+        User user = getAuthenticatedUser();
+        DocumentCursor position;
+        try {
+            position = cursor == null || cursor.isBlank() ? null : DocumentCursor.decode(cursor);
+        } catch (IllegalArgumentException e) {
+            throw new ResponseStatusException(HttpStatus.BAD_REQUEST, "Invalid cursor", e);
+        }
+
+        Limit limit = Limit.of(size + 1);
+        List<DocumentRow> rows = position == null
+                ? documentRepository.findFirstPage(user.getId(), limit)
+                : documentRepository.findPageAfter(user.getId(), position.creationDate(), position.id(), limit);
+        boolean hasNext = rows.size() > size;
+        List<DocumentRow> pageRows = hasNext ? rows.subList(0, size) : rows;
+
+        Map<String, Object> response = new HashMap<>();
+        response.put("documents", convertToDtos(pageRows, DocumentFields.ALL));
+        if (hasNext) {
+            DocumentRow last = pageRows.get(pageRows.size() - 1);
+            response.put("nextCursor", new DocumentCursor(last.creationDate(), last.id()).encode());
+        } else {
+            response.put("nextCursor", null);
+        }
+        if (includeTotal) {
+            response.put("totalItems", documentRepository.countByUser(user));
+        }
+        return response;
+    }
+
     /**
      * Karim
      * */
     @Override
     public void share(ShareDto shareDto) {
-        Document document = get(UUID.fromString(shareDto.getDocumentId()));
-        List<Permission> requestedPermissions = parsePermissions(shareDto.getPermissions());
-        validatePermissions(requestedPermissions);
-        List<Permission> effectivePermissions = resolveEffectivePermissions(requestedPermissions);
+        Document document = documentRepository.findById(parseId(shareDto.getDocumentId()))
+                .orElseThrow(() -> new ResponseStatusException(HttpStatus.NOT_FOUND, "Document not found"));
+        // Sharing hands out rights, so it takes full rights on the document, not just access to it
+        if (!accessControlService.canShare(document, getAuthenticatedUserId())) {
+            throw new ResponseStatusException(HttpStatus.FORBIDDEN, "User does not have permission to share this document");
+        }
+        List<Permission> effectivePermissions = resolveEffectivePermissions(parsePermissions(shareDto.getPermissions()));
+        List<UUID> granteeIds = effectivePermissionRepository.findUserIds(document.getId());
 
-        List<String> userIds = shareDto.getUsersIds().stream()
-                .filter(userId -> !userId.equals(document.getUser().getId().toString()))
+        List<UUID> userIds = parseIds(shareDto.getUsersIds()).stream()
+                .filter(userId -> !userId.equals(document.getUser().getId()))
                 .toList();
+        List<UUID> groupIds = parseIds(shareDto.getGroupsIds());
 
-        userIds.forEach(userId -> {
-            User user = userRepository.findById(UUID.fromString(userId))
-                    .orElseThrow(() -> new ResponseStatusException(HttpStatus.NOT_FOUND, "User not found"));
+        List<User> users = userRepository.findAllById(userIds);
+        if (users.size() != userIds.size()) {
+            throw new ResponseStatusException(HttpStatus.NOT_FOUND, "User not found");
+        }
+        List<Group> groups = groupRepository.findAllById(groupIds);
+        if (groups.size() != groupIds.size()) {
+            throw new ResponseStatusException(HttpStatus.NOT_FOUND, "Group not found");
+        }
 
-            // Delete existing permissions for this document and user
-            permissionEntryRepository.deleteByDocumentAndUser(document, user);
+        // Replace the existing permissions of these users with one bulk delete and one batched insert
+        if (!users.isEmpty()) {
+            permissionEntryRepository.deleteByDocumentAndUserIds(document, userIds);
+        }
+        List<PermissionEntry> permissionEntries = new ArrayList<>(users.size() * effectivePermissions.size());
+        users.forEach(user -> effectivePermissions.forEach(permission -> permissionEntries.add(PermissionEntry.builder()
+                .document(document)
+                .user(user)
+                .permission(permission)
+                .build())));
+        permissionEntryRepository.saveAll(permissionEntries);
 
-            // Save new permissions
-            effectivePermissions.forEach(permission -> {
-                PermissionEntry permissionEntry = new PermissionEntry();
-                permissionEntry.setDocument(document);
-                permissionEntry.setUser(user);
-                permissionEntry.setPermission(permission);
-                permissionEntryRepository.save(permissionEntry);
-            });
-        });
+        // A group grant is one row per permission whatever the group size; members get it through effective_permissions
+        Set<UUID> affectedUserIds = new LinkedHashSet<>(userIds);
+        if (!groups.isEmpty()) {
+            groupPermissionEntryRepository.deleteByDocumentAndGroupIds(document, groupIds);
+            List<GroupPermissionEntry> groupEntries = new ArrayList<>(groups.size() * effectivePermissions.size());
+            groups.forEach(group -> effectivePermissions.forEach(permission -> groupEntries.add(GroupPermissionEntry.builder()
+                    .document(document)
+                    .group(group)
+                    .permission(permission)
+                    .build())));
+            groupPermissionEntryRepository.saveAll(groupEntries);
+            groupMembershipRepository.findUserIdsByGroupIds(groupIds).stream()
+                    .filter(userId -> !userId.equals(document.getUser().getId()))
+                    .forEach(affectedUserIds::add);
+        }
+        metrics.shared("single", affectedUserIds.size());
+        eventPublisher.publishEvent(new DocumentSharedEvent(document.getId(), document.getUser().getId(),
+                affectedUserIds, effectivePermissions, granteeIds));
     }
 
 
+    /**
+     * Shares many documents with many users in a constant number of statements: one lookup per
+     * table, one delete of the replaced grants and one INSERT ... ON CONFLICT for the new ones.
+     * */
+    @Override
+    public int shareBulk(BulkShareDto bulkShareDto) {
+        List<Permission> effectivePermissions = resolveEffectivePermissions(parsePermissions(bulkShareDto.getPermissions()));
+        List<UUID> documentIds = parseIds(bulkShareDto.getDocumentIds());
+        List<UUID> userIds = parseIds(bulkShareDto.getUsersIds());
+        if (documentIds.isEmpty() || userIds.isEmpty()) {
+            return 0;
+        }
+
+        List<Document> documents = documentRepository.findByIdIn(documentIds);
+        if (documents.size() != documentIds.size()) {
+            throw new ResponseStatusException(HttpStatus.NOT_FOUND, "Document not found");
+        }
+        UUID authenticatedUserId = getAuthenticatedUserId();
+        // Sharing hands out rights, so it takes full rights on the document, not just access to it
+        if (documents.stream().anyMatch(document -> !accessControlService.canShare(document, authenticatedUserId))) {
+            throw new ResponseStatusException(HttpStatus.FORBIDDEN, "User does not have permission to share this document");
+        }
+        if (userRepository.findAllById(userIds).size() != userIds.size()) {
+            throw new ResponseStatusException(HttpStatus.NOT_FOUND, "User not found");
+        }
+
+        // One lookup for all documents; each event then names the grantees of the whole batch
+        List<UUID> granteeIds = effectivePermissionRepository.findUserIdsByDocumentIds(documentIds);
+        UUID[] documentIdArray = documentIds.toArray(UUID[]::new);
+        UUID[] userIdArray = userIds.toArray(UUID[]::new);
+        String[] permissionArray = effectivePermissions.stream().map(Permission::name).toArray(String[]::new);
+        permissionEntryRepository.deleteOtherGrants(documentIdArray, userIdArray, permissionArray);
+        int granted = permissionEntryRepository.upsertGrants(documentIdArray, userIdArray, permissionArray);
+        metrics.shared("bulk", userIds.size());
+
+        documents.forEach(document -> eventPublisher.publishEvent(new DocumentSharedEvent(document.getId(), document.getUser().getId(),
+                userIds.stream().filter(userId -> !userId.equals(document.getUser().getId())).toList(), effectivePermissions,
+                granteeIds)));
+        return granted;
+    }
+
     /**
      * Karim
      * */
     @Override
     public List<DocumentResponseDto> sharedWithMe() {
         try {
-            var authentication = SecurityContextHolder.getContext().getAuthentication();
-            var userDetails = (UserDetailsImpl) authentication.getPrincipal();
-            var user = userRepository.findByUserName(userDetails.getUsername()).orElseThrow();
-            List<Document> documents = documentRepository.findSharedDocumentsForUser(user)
-                    .orElseThrow(() -> new ResponseStatusException(HttpStatus.NOT_FOUND, "No Shared Documents found"));
-            return documents.stream()
-                    .map(this::convertToDto)
-                    .collect(Collectors.toList());
+            return convertToDtos(documentRepository.findSharedRows(getAuthenticatedUserId()), DocumentFields.ALL);
         }catch (Exception e){
             throw new ResponseStatusException(HttpStatus.INTERNAL_SERVER_ERROR, "Try Later Please");
         }
 
     }
 
+    @Override
+    public StreamingResponseBody streamList(boolean ndjson, DocumentFields fields) {
+        UUID userId = getAuthenticatedUserId();
+        return outputStream -> writeDocuments(outputStream, ndjson, fields, () -> documentRepository.streamRowsByUserId(userId));
+    }
+
+    @Override
+    public StreamingResponseBody streamSharedWithMe(boolean ndjson, DocumentFields fields) {
+        UUID userId = getAuthenticatedUserId();
+        return outputStream -> writeDocuments(outputStream, ndjson, fields, () -> documentRepository.streamSharedRows(userId));
+    }
+
+    /**
+     * Writes the documents as a JSON array or as NDJSON while reading them from a database cursor.
+     * Every {@link #STREAM_WINDOW} rows the permissions and metadata of the window are loaded,
+     * written and flushed; rows are plain records, so heap usage does not grow with the result size.
+     */
+    private void writeDocuments(OutputStream outputStream, boolean ndjson, DocumentFields fields, Supplier<Stream<DocumentRow>> source) {
+        readOnlyTransactionTemplate.executeWithoutResult(status -> {
+            ObjectWriter writer = objectMapper.writerFor(DocumentResponseDto.class)
+                    .with(fields.filterProvider())
+                    .without(JsonGenerator.Feature.AUTO_CLOSE_TARGET);
+            try (Stream<DocumentRow> rows = source.get();
+                 SequenceWriter sequence = ndjson
+                         ? writer.withRootValueSeparator("\n").writeValues(outputStream)
+                         : writer.writeValuesAsArray(outputStream)) {
+                List<DocumentRow> window = new ArrayList<>(STREAM_WINDOW);
+                Iterator<DocumentRow> iterator = rows.iterator();
+                while (iterator.hasNext()) {
+                    window.add(iterator.next());
+                    if (window.size() == STREAM_WINDOW || !iterator.hasNext()) {
+                        for (DocumentResponseDto dto : convertToDtos(window, fields)) {
+                            sequence.write(dto);
+                        }
+                        sequence.flush();
+                        window.clear();
+                    }
+                }
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+        });
+    }
+
     /**
      * Aymane
      * */
     @Override
     public List<DocumentResponseDto> search(String searchValue) {
+        Timer.Sample sample = metrics.start();
+        SearchQuery query = SearchQuery.parse(searchValue);
+        if (query.isEmpty()) {
+            List<DocumentResponseDto> documents = getList();
+            metrics.searched(sample, "owned", query);
+            return documents;
+        }
         try {
             User user = getAuthenticatedUser();
-            Specification<Document> specification = Specification.where(DocumentSpecifications.search(searchValue))
-                    .and((root, query, criteriaBuilder) ->
-                            criteriaBuilder.equal(root.get("user"), user));
-            List<Document> documents = documentRepository.findAll(specification);
-            return documents.stream()
-                    .map(this::convertToDto)
-                    .collect(Collectors.toList());
+            List<DocumentSearchHit> hits = documentRepository.searchOwned(user.getId(), query.toTsQuery(),
+                    dayParameter(query), query.metaKey(), query.metaValue(), SEARCH_RESULT_LIMIT);
+            List<DocumentResponseDto> documents = toRankedDtos(hits);
+            metrics.searched(sample, "owned", query);
+            return documents;
         } catch (Exception e) {
             throw new ResponseStatusException(HttpStatus.INTERNAL_SERVER_ERROR, "Try Later Please");
         }
@@ -245,26 +637,20 @@ public class DocumentLocalService implements IDocumentService {
      * */
     @Override
     public List<DocumentResponseDto> searchSharedWithMe(String searchValue) {
+        Timer.Sample sample = metrics.start();
+        SearchQuery query = SearchQuery.parse(searchValue);
+        if (query.isEmpty()) {
+            List<DocumentResponseDto> documents = sharedWithMe();
+            metrics.searched(sample, "shared", query);
+            return documents;
+        }
         try {
             User user = getAuthenticatedUser();
-
-            Specification<Document> sharedWithMeSpec = (root, query, criteriaBuilder) -> {
-                Join<Document, PermissionEntry> permissionJoin = root.join("permissions", JoinType.INNER);
-                return criteriaBuilder.equal(permissionJoin.get("user"), user);
-            };
-
-            Specification<Document> notOwnedByUserSpec = (root, query, criteriaBuilder) ->
-                    criteriaBuilder.notEqual(root.get("user"), user);
-
-            Specification<Document> combinedSpec = Specification.where(DocumentSpecifications.search(searchValue))
-                    .and(sharedWithMeSpec)
-                    .and(notOwnedByUserSpec);
-
-            List<Document> documents = documentRepository.findAll(combinedSpec);
-
-            return documents.stream()
-                    .map(this::convertToDto)
-                    .collect(Collectors.toList());
+            List<DocumentSearchHit> hits = documentRepository.searchSharedWith(user.getId(), query.toTsQuery(),
+                    dayParameter(query), query.metaKey(), query.metaValue(), SEARCH_RESULT_LIMIT);
+            List<DocumentResponseDto> documents = toRankedDtos(hits);
+            metrics.searched(sample, "shared", query);
+            return documents;
         } catch (Exception e) {
             throw new ResponseStatusException(HttpStatus.INTERNAL_SERVER_ERROR, "Try Later Please");
         }
@@ -273,23 +659,56 @@ public class DocumentLocalService implements IDocumentService {
 
 
 
+    /**
+     * Autocomplete over owned and shared documents. Served from the in-memory index when it is
+     * enabled and built, otherwise from the full text search queries.
+     * */
+    @Override
+    public List<DocumentSuggestionDto> suggest(String searchValue) {
+        if (inMemoryIndex.isPresent() && inMemoryIndex.get().isReady()) {
+            return inMemoryIndex.get().suggest(getAuthenticatedUserId(), searchValue, SUGGESTION_LIMIT).stream()
+                    .map(document -> DocumentSuggestionDto.builder()
+                            .id(document.id())
+                            .name(document.name())
+                            .type(document.type())
+                            .owner(document.ownerName())
+                            .build())
+                    .toList();
+        }
+        if (SearchQuery.parse(searchValue).terms().isEmpty()) {
+            return List.of();
+        }
+        return Stream.concat(search(searchValue).stream(), searchSharedWithMe(searchValue).stream())
+                .limit(SUGGESTION_LIMIT)
+                .map(document -> DocumentSuggestionDto.builder()
+                        .id(document.getId())
+                        .name(document.getName())
+                        .type(document.getType())
+                        .owner(document.getOwner())
+                        .build())
+                .toList();
+    }
+
     /**
      * Aymane
      * */
     @Override
     public Document get(UUID id) {
-        User authenticatedUser = getAuthenticatedUser();
         Document document = documentRepository.findById(id)
                 .orElseThrow(() -> new ResponseStatusException(HttpStatus.NOT_FOUND, "Document not found"));
 
-        if (!document.getUser().equals(authenticatedUser) &&
-                document.getPermissions().stream().noneMatch(permissionEntry -> permissionEntry.getUser().equals(authenticatedUser))) {
+        if (!accessControlService.canAccess(document, getAuthenticatedUserId())) {
             throw new ResponseStatusException(HttpStatus.FORBIDDEN, "User does not have permission to access this document");
         }
 
         return document;
     }
 
+    @Override
+    public DocumentResponseDto getDetails(UUID id) {
+        return convertToDtos(List.of(DocumentRow.of(get(id))), DocumentFields.ALL).get(0);
+    }
+
 
     /**
      * Aymane
@@ -297,26 +716,24 @@ public class DocumentLocalService implements IDocumentService {
     @Override
     public void delete(String id) {
         Document document = get(UUID.fromString(id));
-        var user = getAuthenticatedUser();
-
-        if (!document.getUser().equals(user)) {
-            List<PermissionEntry> permissionEntries = permissionEntryRepository.findByDocumentAndUser(document, user)
-                    .orElseThrow(() -> new ResponseStatusException(HttpStatus.NOT_FOUND, "Permission entry not found for this user and document"));
-            boolean hasDeletePermission = permissionEntries.stream().anyMatch(permissionEntry -> permissionEntry.getPermission().equals(Permission.ALL) || permissionEntry.getPermission().equals(Permission.DELETE));
-            if (!hasDeletePermission) {
-                throw new ResponseStatusException(HttpStatus.FORBIDDEN, "User does not have permission to delete this document");
-            }
+        if (!accessControlService.canDelete(document, getAuthenticatedUserId())) {
+            throw new ResponseStatusException(HttpStatus.FORBIDDEN, "User does not have permission to delete this document");
         }
 
         try {
-            Path foundFile = Paths.get(documentStorageProperties.getUploadDir(), document.getName());
-            if (!Files.exists(foundFile)) {
+            if (!resolveStoredResource(document).exists()) {
                 throw new ResponseStatusException(HttpStatus.NOT_FOUND, "File not found");
             }
-            Files.delete(foundFile);
+            // Read before the delete cascades the grants away
+            List<UUID> sharedWith = effectivePermissionRepository.findUserIds(document.getId());
             documentRepository.delete(document);
-        } catch (NoSuchFileException e) {
-            throw new ResponseStatusException(HttpStatus.NOT_FOUND, "File not found", e);
+            if (isLegacyLocation(document)) {
+                // Legacy files hold no blob reference; the file goes only once the row is gone for good
+                deleteAfterCommit(Paths.get(document.getStorageLocation()));
+            } else {
+                blobStore.release(document.getChecksum(), document.getStorageLocation());
+            }
+            eventPublisher.publishEvent(new DocumentDeletedEvent(document.getId(), document.getUser().getId(), sharedWith));
         } catch (IOException e) {
             throw new ResponseStatusException(HttpStatus.INTERNAL_SERVER_ERROR, "Failed to delete document", e);
         }
@@ -329,18 +746,7 @@ public class DocumentLocalService implements IDocumentService {
     /**
      * Karim
      * */
-    private void validatePermissions(List<Permission> permissions) {
-        for (Permission permission : permissions) {
-            if (!Arrays.asList(Permission.values()).contains(permission)) {
-                throw new IllegalArgumentException("Invalid permission: " + permission);
-            }
-        }
-    }
-
-    /**
-     * Karim
-     * */
-    private List<Permission> resolveEffectivePermissions(List<Permission> requestedPermissions) {
+    static List<Permission> resolveEffectivePermissions(List<Permission> requestedPermissions) {
         if (requestedPermissions.contains(Permission.ALL) ||
                 new HashSet<>(requestedPermissions).containsAll(Arrays.asList(Permission.READ, Permission.WRITE, Permission.DELETE))) {
             return Collections.singletonList(Permission.ALL);
@@ -358,10 +764,22 @@ public class DocumentLocalService implements IDocumentService {
     /**
      * Karim
      * */
-    private List<Permission> parsePermissions(String permissionsString) {
-        return Arrays.stream(permissionsString.split(","))
-                .map(Permission::valueOf)
-                .collect(Collectors.toList());
+    static List<Permission> parsePermissions(String permissionsString) {
+        if (permissionsString == null || permissionsString.isBlank()) {
+            throw new ResponseStatusException(HttpStatus.BAD_REQUEST, "No permission given");
+        }
+        try {
+            return Arrays.stream(permissionsString.split(","))
+                    .map(Permission::valueOf)
+                    .collect(Collectors.toList());
+        } catch (IllegalArgumentException e) {
+            throw new ResponseStatusException(HttpStatus.BAD_REQUEST, "Invalid permission: " + permissionsString, e);
+        }
+    }
+
+    private UUID getAuthenticatedUserId() {
+        var authentication = SecurityContextHolder.getContext().getAuthentication();
+        return ((UserDetailsImpl) authentication.getPrincipal()).getId();
     }
 
     /**
@@ -370,14 +788,134 @@ public class DocumentLocalService implements IDocumentService {
     private User getAuthenticatedUser(){
         var authentication = SecurityContextHolder.getContext().getAuthentication();
         UserDetailsImpl userDetails = (UserDetailsImpl) authentication.getPrincipal();
-        return userRepository.findByUserName(userDetails.getUsername())
-                .orElseThrow(() -> new ResponseStatusException(HttpStatus.NOT_FOUND, "User not found"));
+        // The principal comes from the token claims; a detached reference is enough for queries and associations
+        return User.builder()
+                .id(userDetails.getId())
+                .userName(userDetails.getUsername())
+                .email(userDetails.getEmail())
+                .build();
+    }
+
+    /**
+     * Streams the upload once into a temp file of the storage directory, hashing it and sniffing
+     * its content type on the way.
+     */
+    private StagedDocument stage(MultipartFile file) throws IOException, NoSuchAlgorithmException {
+        Path uploadPath = Paths.get(documentStorageProperties.getUploadDir());
+        String originalFilename = StringUtils.cleanPath(Objects.requireNonNull(file.getOriginalFilename()));
+        createDirectories(uploadPath);
+        Path tempFile = Files.createTempFile(uploadPath, "upload-", ".tmp");
+
+        Timer.Sample copyAndHash = metrics.start();
+        try (InputStream inputStream = new BufferedInputStream(file.getInputStream(), UPLOAD_BUFFER_SIZE)) {
+            String type = DocumentTypeDetector.detect(inputStream, originalFilename);
+            String checksum = DocumentHashCalculator.copyAndHash(inputStream, tempFile);
+            metrics.uploadStage(copyAndHash, UploadStage.COPY_AND_HASH);
+            metrics.uploaded(file.getSize());
+            return new StagedDocument(originalFilename, file.getSize(), type, checksum, tempFile);
+        } catch (IOException e) {
+            Files.deleteIfExists(tempFile);
+            throw new IOException("Could not save document: " + originalFilename, e);
+        } catch (NoSuchAlgorithmException | RuntimeException e) {
+            Files.deleteIfExists(tempFile);
+            throw e;
+        }
+    }
+
+    /**
+     * Moves the staged files into the blob store before any transaction is open, then saves their
+     * documents, owner permissions and metadata with one saveAll per table in a short transaction.
+     * The blob references are released again if that transaction fails.
+     */
+    private List<Document> persistAll(User user, List<StagedDocument> stagedDocuments, List<List<MetaData>> metadata) throws IOException {
+        Timer.Sample store = metrics.start();
+        List<StoredBlob> blobs = blobStore.storeAll(stagedDocuments.stream()
+                .map(staged -> new BlobSource(staged.tempFile(), staged.checksum(), staged.size(), staged.type()))
+                .toList());
+        metrics.uploadStage(store, UploadStage.STORE);
+
+        try {
+            return transactionTemplate.execute(status -> saveAll(user, stagedDocuments, blobs, metadata));
+        } catch (RuntimeException e) {
+            for (int i = 0; i < blobs.size(); i++) {
+                try {
+                    blobStore.release(stagedDocuments.get(i).checksum(), blobs.get(i).key());
+                } catch (IOException | RuntimeException releaseFailure) {
+                    logger.error("Could not release blob {}: {}", stagedDocuments.get(i).checksum(), releaseFailure.getMessage());
+                }
+            }
+            throw e;
+        }
+    }
+
+    private List<Document> saveAll(User user, List<StagedDocument> stagedDocuments, List<StoredBlob> blobs, List<List<MetaData>> metadata) {
+        Timer.Sample save = metrics.start();
+        List<Document> documents = new ArrayList<>(stagedDocuments.size());
+        for (int i = 0; i < stagedDocuments.size(); i++) {
+            StagedDocument staged = stagedDocuments.get(i);
+            documents.add(createDocument(staged.name(), staged.size(), staged.type(), staged.checksum(), blobs.get(i), user));
+        }
+        documentRepository.saveAll(documents);
+
+        permissionEntryRepository.saveAll(documents.stream()
+                .map(document -> PermissionEntry.builder()
+                        .document(document)
+                        .user(user)
+                        .permission(Permission.ALL)
+                        .build())
+                .toList());
+
+        List<MetaData> metadataRows = new ArrayList<>();
+        for (int i = 0; i < documents.size(); i++) {
+            Document document = documents.get(i);
+            metadata.get(i).forEach(metaDataItem -> {
+                metaDataItem.setDocument(document);
+                metadataRows.add(metaDataItem);
+            });
+        }
+        metaDataRepository.saveAll(metadataRows);
+        // Flushed here rather than at commit so the save stage covers the INSERTs
+        documentRepository.flush();
+        metrics.uploadStage(save, UploadStage.SAVE);
+
+        for (int i = 0; i < documents.size(); i++) {
+            Document document = documents.get(i);
+            eventPublisher.publishEvent(new DocumentUploadedEvent(document.getId(), document.getName(), document.getType(),
+                    user.getId(), user.getUserName(), metadata.get(i)));
+        }
+        return documents;
+    }
+
+    private static List<UUID> parseIds(List<String> ids) {
+        if (ids == null) {
+            return List.of();
+        }
+        return ids.stream().map(DocumentLocalService::parseId).distinct().toList();
+    }
+
+    private static UUID parseId(String id) {
+        if (id == null) {
+            throw new ResponseStatusException(HttpStatus.BAD_REQUEST, "Invalid id");
+        }
+        try {
+            return UUID.fromString(id);
+        } catch (IllegalArgumentException e) {
+            throw new ResponseStatusException(HttpStatus.BAD_REQUEST, "Invalid id", e);
+        }
+    }
+
+    private static BatchUploadResultDto batchResult(String docName, HttpStatus status, String message) {
+        return BatchUploadResultDto.builder()
+                .docName(docName)
+                .status(status.value())
+                .message(message)
+                .build();
     }
 
     /**
      * Karim
      */
-    private static Document createDocument(String name, long size, String type, String checksum, String storageLocation, User user) {
+    private static Document createDocument(String name, long size, String type, String checksum, StoredBlob blob, User user) {
         Timestamp now = Timestamp.from(Instant.now());
         return Document.builder()
                 .name(name)
@@ -386,7 +924,9 @@ public class DocumentLocalService implements IDocumentService {
                 .creationDate(now)
                 .modificationDate(now)
                 .checksum(checksum)
-                .storageLocation(storageLocation)
+                .storageLocation(blob.key())
+                .codec(blob.codec())
+                .storedSize(blob.storedSize())
                 .user(user)
                 .build();
     }
@@ -403,27 +943,108 @@ public class DocumentLocalService implements IDocumentService {
     /**
      * Karim
      * */
-    private void validateDocument(String checksum, String filename) {
-        if (documentRepository.findByChecksum(checksum).isPresent() || documentRepository.findByName(filename).isPresent()) {
+    private void validateDocument(User user, String checksum, String filename) {
+        if (documentRepository.existsByUserAndChecksum(user, checksum) || documentRepository.existsByUserAndName(user, filename)) {
             throw new ResponseStatusException(HttpStatus.CONFLICT, "Document already exists");
         }
     }
 
     /**
-     * Karim
+     * Documents uploaded before the blob store still point at their flat file path.
+     */
+    private Resource resolveStoredResource(Document document) {
+        if (isLegacyLocation(document)) {
+            return new FileSystemResource(document.getStorageLocation());
+        }
+        return blobStore.open(document.getStorageLocation());
+    }
+
+    private static void deleteAfterCommit(Path file) {
+        Runnable delete = () -> {
+            try {
+                Files.deleteIfExists(file);
+            } catch (IOException e) {
+                logger.error("Could not delete legacy file {}: {}", file, e.getMessage());
+            }
+        };
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            delete.run();
+            return;
+        }
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCommit() {
+                delete.run();
+            }
+        });
+    }
+
+    /**
+     * Rejects empty pages and caps larger ones at {@link #MAX_PAGE_SIZE}.
+     */
+    private static int pageSize(int size) {
+        if (size < 1) {
+            throw new ResponseStatusException(HttpStatus.BAD_REQUEST, "Page size must be positive");
+        }
+        return Math.min(size, MAX_PAGE_SIZE);
+    }
+
+    private static boolean isLegacyLocation(Document document) {
+        return document.getStorageLocation() != null && Paths.get(document.getStorageLocation()).isAbsolute();
+    }
+
+    private static String dayParameter(SearchQuery query) {
+        return query.day() == null ? null : query.day().toString();
+    }
+
+    /**
+     * Loads the documents behind the search hits and keeps the ranking order.
+     */
+    private List<DocumentResponseDto> toRankedDtos(List<DocumentSearchHit> hits) {
+        Map<UUID, DocumentResponseDto> documents = convertToDtos(
+                documentRepository.findRowsByIdIn(hits.stream().map(DocumentSearchHit::getId).toList()), DocumentFields.ALL)
+                .stream()
+                .collect(Collectors.toMap(DocumentResponseDto::getId, dto -> dto));
+        return hits.stream()
+                .filter(hit -> documents.containsKey(hit.getId()))
+                .map(hit -> {
+                    DocumentResponseDto dto = documents.get(hit.getId());
+                    dto.setRank(hit.getRank());
+                    dto.setHighlight(hit.getHighlight());
+                    return dto;
+                })
+                .collect(Collectors.toList());
+    }
+
+    /**
+     * Builds the response DTOs of a page of rows with at most one permissions query and one
+     * metadata query, skipping those the requested fields do not need.
      * */
-    private DocumentResponseDto convertToDto(Document document) {
-        return DocumentResponseDto.builder()
-                .id(document.getId())
-                .name(document.getName())
-                .type(document.getType())
-                .size(document.getSize())
-                .owner(document.getUser().getUserName())
-                .dateCreation(String.valueOf(document.getCreationDate()))
-                .dateModification(String.valueOf(document.getModificationDate()))
-                .permissions(document.getPermissions())
-                .metaData(document.getMetadata())
-                .build();
+    private List<DocumentResponseDto> convertToDtos(List<DocumentRow> rows, DocumentFields fields) {
+        if (rows.isEmpty()) {
+            return new ArrayList<>();
+        }
+        List<UUID> ids = rows.stream().map(DocumentRow::id).toList();
+        Map<UUID, List<PermissionDto>> permissions = fields.includes("permissions")
+                ? permissionEntryRepository.findDtosByDocumentIds(ids).stream().collect(Collectors.groupingBy(PermissionDto::documentId))
+                : null;
+        Map<UUID, List<MetaDataDto>> metadata = fields.includes("metaData")
+                ? metaDataRepository.findDtosByDocumentIds(ids).stream().collect(Collectors.groupingBy(MetaDataDto::documentId))
+                : null;
+        return rows.stream()
+                .map(row -> DocumentResponseDto.builder()
+                        .id(row.id())
+                        .name(row.name())
+                        .type(row.type())
+                        .size(row.size())
+                        .ownerId(row.ownerId())
+                        .owner(row.owner())
+                        .dateCreation(String.valueOf(row.creationDate()))
+                        .dateModification(String.valueOf(row.modificationDate()))
+                        .permissions(permissions == null ? null : permissions.getOrDefault(row.id(), List.of()))
+                        .metaData(metadata == null ? null : metadata.getOrDefault(row.id(), List.of()))
+                        .build())
+                .collect(Collectors.toList());
     }
 
 }
@@ -0,0 +1,110 @@
+package fr.norsys.docsapi.service;
+
+import fr.norsys.docsapi.search.SearchQuery;
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import org.springframework.stereotype.Component;
+
+/**
+ * Meters of the document hot paths, published under {@code docsapi.*} (Prometheus:
+ * {@code docsapi_*}). Timers and sizes carry percentile histograms so quantiles can be
+ * aggregated across instances.
+ */
+@Component
+public class DocumentMetrics {
+
+    /**
+     * Upload stages. Copy and hash are a single pass over the content and are timed together.
+     */
+    public enum UploadStage {
+        COPY_AND_HASH("copy_and_hash"),
+        DUPLICATE_CHECK("duplicate_check"),
+        STORE("store"),
+        SAVE("save");
+
+        private final String tag;
+
+        UploadStage(String tag) {
+            this.tag = tag;
+        }
+    }
+
+    private final MeterRegistry meterRegistry;
+    private final DistributionSummary uploadBytes;
+    private final DistributionSummary downloadBytes;
+    private final Timer downloadTimeToFirstByte;
+
+    public DocumentMetrics(MeterRegistry meterRegistry) {
+        this.meterRegistry = meterRegistry;
+        this.uploadBytes = DistributionSummary.builder("docsapi.upload.size")
+                .description("Size of uploaded documents")
+                .baseUnit("bytes")
+                .publishPercentileHistogram()
+                .register(meterRegistry);
+        this.downloadBytes = DistributionSummary.builder("docsapi.download.size")
+                .description("Size of downloaded documents, before any transfer encoding")
+                .baseUnit("bytes")
+                .publishPercentileHistogram()
+                .register(meterRegistry);
+        this.downloadTimeToFirstByte = Timer.builder("docsapi.download.first.byte")
+                .description("Time from the download request to its content being ready to stream: lookup, ACL check and blob open")
+                .publishPercentileHistogram()
+                .register(meterRegistry);
+    }
+
+    public Timer.Sample start() {
+        return Timer.start(meterRegistry);
+    }
+
+    public void uploaded(long size) {
+        uploadBytes.record(size);
+    }
+
+    public void uploadStage(Timer.Sample sample, UploadStage stage) {
+        sample.stop(Timer.builder("docsapi.upload.stage")
+                .description("Time spent in each stage of an upload")
+                .tag("stage", stage.tag)
+                .publishPercentileHistogram()
+                .register(meterRegistry));
+    }
+
+    public void downloadReady(Timer.Sample sample, long size) {
+        sample.stop(downloadTimeToFirstByte);
+        downloadBytes.record(size);
+    }
+
+    /**
+     * @param scope {@code owned} or {@code shared}
+     */
+    public void searched(Timer.Sample sample, String scope, SearchQuery query) {
+        sample.stop(Timer.builder("docsapi.search")
+                .description("Search latency by query shape")
+                .tag("scope", scope)
+                .tag("shape", shape(query))
+                .publishPercentileHistogram()
+                .register(meterRegistry));
+    }
+
+    /**
+     * @param mode {@code single} or {@code bulk}
+     */
+    public void shared(String mode, int recipients) {
+        DistributionSummary.builder("docsapi.share.fanout")
+                .description("Number of users a share grants access to")
+                .tag("mode", mode)
+                .publishPercentileHistogram()
+                .register(meterRegistry)
+                .record(recipients);
+    }
+
+    static String shape(SearchQuery query) {
+        if (query.isEmpty()) {
+            return "empty";
+        }
+        if (query.metaKey() != null) {
+            return "key_value";
+        }
+        return query.day() != null ? "date" : "text";
+    }
+}
@@ -0,0 +1,160 @@
+package fr.norsys.docsapi.service;
+
+import fr.norsys.docsapi.dto.group.GroupDto;
+import fr.norsys.docsapi.dto.group.GroupMembersDto;
+import fr.norsys.docsapi.dto.group.GroupResponseDto;
+import fr.norsys.docsapi.entity.Group;
+import fr.norsys.docsapi.entity.GroupMembership;
+import fr.norsys.docsapi.entity.User;
+import fr.norsys.docsapi.event.GroupMembershipChangedEvent;
+import fr.norsys.docsapi.repository.GroupMembershipRepository;
+import fr.norsys.docsapi.repository.GroupPermissionEntryRepository;
+import fr.norsys.docsapi.repository.GroupRepository;
+import fr.norsys.docsapi.repository.UserRepository;
+import fr.norsys.docsapi.security.service.UserDetailsImpl;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.http.HttpStatus;
+import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.util.StringUtils;
+import org.springframework.web.server.ResponseStatusException;
+
+import java.sql.Timestamp;
+import java.time.Instant;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.UUID;
+
+/**
+ * Groups are managed by their owner. Membership changes only touch group_memberships; the
+ * database triggers recompute effective_permissions for the documents shared with the group.
+ */
+@Service
+@Transactional
+public class GroupService {
+
+    private final GroupRepository groupRepository;
+    private final GroupMembershipRepository groupMembershipRepository;
+    private final GroupPermissionEntryRepository groupPermissionEntryRepository;
+    private final UserRepository userRepository;
+    private final ApplicationEventPublisher eventPublisher;
+
+    public GroupService(GroupRepository groupRepository, GroupMembershipRepository groupMembershipRepository, GroupPermissionEntryRepository groupPermissionEntryRepository, UserRepository userRepository, ApplicationEventPublisher eventPublisher) {
+        this.groupRepository = groupRepository;
+        this.groupMembershipRepository = groupMembershipRepository;
+        this.groupPermissionEntryRepository = groupPermissionEntryRepository;
+        this.userRepository = userRepository;
+        this.eventPublisher = eventPublisher;
+    }
+
+    public GroupResponseDto create(GroupDto groupDto) {
+        if (!StringUtils.hasText(groupDto.getName())) {
+            throw new ResponseStatusException(HttpStatus.BAD_REQUEST, "Group name is required");
+        }
+        List<UUID> memberIds = parseIds(groupDto.getMembersIds());
+        Group group = groupRepository.save(Group.builder()
+                .name(groupDto.getName())
+                .owner(userRepository.getReferenceById(getAuthenticatedUserId()))
+                .creationDate(Timestamp.from(Instant.now()))
+                .build());
+        if (!memberIds.isEmpty()) {
+            addMembers(group, memberIds);
+        }
+        return convertToDto(group);
+    }
+
+    @Transactional(readOnly = true)
+    public List<GroupResponseDto> getList() {
+        return groupRepository.findVisibleTo(getAuthenticatedUserId()).stream()
+                .map(this::convertToDto)
+                .toList();
+    }
+
+    public void addMembers(UUID groupId, GroupMembersDto groupMembersDto) {
+        addMembers(getOwnedGroup(groupId), parseIds(groupMembersDto.getUsersIds()));
+    }
+
+    public void removeMember(UUID groupId, UUID userId) {
+        Group group = getOwnedGroup(groupId);
+        if (groupMembershipRepository.deleteByGroupAndUserIds(group, List.of(userId)) == 0) {
+            throw new ResponseStatusException(HttpStatus.NOT_FOUND, "Member not found");
+        }
+        publishMembershipChange(group.getId(), List.of(userId));
+    }
+
+    public void delete(UUID groupId) {
+        Group group = getOwnedGroup(groupId);
+        // Read before the cascade removes them, so listeners know which grants went away
+        List<UUID> memberIds = groupMembershipRepository.findUserIdsByGroupIds(List.of(group.getId()));
+        List<UUID> documentIds = groupPermissionEntryRepository.findDocumentIdsByGroupId(group.getId());
+        groupRepository.delete(group);
+        eventPublisher.publishEvent(new GroupMembershipChangedEvent(group.getId(), documentIds, memberIds));
+    }
+
+    private void addMembers(Group group, List<UUID> userIds) {
+        if (userRepository.findAllById(userIds).size() != userIds.size()) {
+            throw new ResponseStatusException(HttpStatus.NOT_FOUND, "User not found");
+        }
+        Set<UUID> existing = new HashSet<>(groupMembershipRepository.findUserIdsByGroupIds(List.of(group.getId())));
+        List<UUID> newMemberIds = userIds.stream().filter(userId -> !existing.contains(userId)).toList();
+        groupMembershipRepository.saveAll(newMemberIds.stream()
+                .map(userId -> GroupMembership.builder()
+                        .group(group)
+                        .user(userRepository.getReferenceById(userId))
+                        .build())
+                .toList());
+        publishMembershipChange(group.getId(), newMemberIds);
+    }
+
+    private void publishMembershipChange(UUID groupId, List<UUID> userIds) {
+        if (userIds.isEmpty()) {
+            return;
+        }
+        List<UUID> documentIds = groupPermissionEntryRepository.findDocumentIdsByGroupId(groupId);
+        eventPublisher.publishEvent(new GroupMembershipChangedEvent(groupId, documentIds, userIds));
+    }
+
+    private Group getOwnedGroup(UUID groupId) {
+        Group group = groupRepository.findById(groupId)
+                .orElseThrow(() -> new ResponseStatusException(HttpStatus.NOT_FOUND, "Group not found"));
+        if (!group.getOwner().getId().equals(getAuthenticatedUserId())) {
+            throw new ResponseStatusException(HttpStatus.FORBIDDEN, "Only the group owner can manage its members");
+        }
+        return group;
+    }
+
+    private GroupResponseDto convertToDto(Group group) {
+        User owner = group.getOwner();
+        return GroupResponseDto.builder()
+                .id(group.getId())
+                .name(group.getName())
+                .ownerId(owner.getId())
+                .creationDate(group.getCreationDate())
+                .build();
+    }
+
+    private static List<UUID> parseIds(List<String> ids) {
+        if (ids == null) {
+            return List.of();
+        }
+        return ids.stream().map(GroupService::parseId).distinct().toList();
+    }
+
+    private static UUID parseId(String id) {
+        if (id == null) {
+            throw new ResponseStatusException(HttpStatus.BAD_REQUEST, "Invalid id");
+        }
+        try {
+            return UUID.fromString(id);
+        } catch (IllegalArgumentException e) {
+            throw new ResponseStatusException(HttpStatus.BAD_REQUEST, "Invalid id", e);
+        }
+    }
+
+    private UUID getAuthenticatedUserId() {
+        var authentication = SecurityContextHolder.getContext().getAuthentication();
+        return ((UserDetailsImpl) authentication.getPrincipal()).getId();
+    }
+}
@@ -1,13 +1,19 @@
 package fr.norsys.docsapi.service;
 
+import fr.norsys.docsapi.dto.document.BatchUploadResultDto;
+import fr.norsys.docsapi.dto.document.BulkShareDto;
+import fr.norsys.docsapi.dto.document.DocumentDownloadDto;
 import fr.norsys.docsapi.dto.document.DocumentResponseDto;
+import fr.norsys.docsapi.dto.document.DocumentSuggestionDto;
 import fr.norsys.docsapi.dto.document.ShareDto;
 import fr.norsys.docsapi.entity.Document;
 import fr.norsys.docsapi.entity.MetaData;
-import org.springframework.core.io.Resource;
+import fr.norsys.docsapi.utils.DocumentFields;
 import org.springframework.web.multipart.MultipartFile;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 
 import java.io.IOException;
+import java.nio.file.Path;
 import java.security.NoSuchAlgorithmException;
 import java.util.List;
 import java.util.Map;
@@ -15,15 +21,23 @@ import java.util.UUID;
 
 public interface IDocumentService {
     String upload(MultipartFile document, List<MetaData> metadata) throws IOException, NoSuchAlgorithmException;
-    Resource download(String docId) throws IOException, NoSuchAlgorithmException;
+    List<BatchUploadResultDto> uploadBatch(List<MultipartFile> documents, List<List<MetaData>> metadata);
+    String uploadAssembled(Path file, String name, long size, String checksum, List<MetaData> metadata) throws IOException;
+    DocumentDownloadDto download(String docId) throws IOException, NoSuchAlgorithmException;
 
     List<DocumentResponseDto> searchSharedWithMe(String searchValue);
+    List<DocumentSuggestionDto> suggest(String searchValue);
 
     Document get(UUID id);
+    DocumentResponseDto getDetails(UUID id);
     List<DocumentResponseDto> getList();
     void delete(String id);
     List<DocumentResponseDto> search(String searchValue);
     Map<String, Object> getListPagination(int page, int size);
+    Map<String, Object> getListCursor(String cursor, int size, boolean includeTotal);
     void share(ShareDto shareDto);
+    int shareBulk(BulkShareDto bulkShareDto);
     List<DocumentResponseDto> sharedWithMe();
+    StreamingResponseBody streamList(boolean ndjson, DocumentFields fields);
+    StreamingResponseBody streamSharedWithMe(boolean ndjson, DocumentFields fields);
 }
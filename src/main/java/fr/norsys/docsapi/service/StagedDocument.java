@@ -0,0 +1,9 @@
+package fr.norsys.docsapi.service;
+
+import java.nio.file.Path;
+
+/**
+ * An uploaded file written and hashed into a temp file, not yet checked nor persisted.
+ */
+record StagedDocument(String name, long size, String type, String checksum, Path tempFile) {
+}
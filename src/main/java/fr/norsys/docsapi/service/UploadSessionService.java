@@ -0,0 +1,366 @@
+package fr.norsys.docsapi.service;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.core.type.TypeReference;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import fr.norsys.docsapi.dto.document.DocumentUploadResponse;
+import fr.norsys.docsapi.dto.upload.UploadSessionDto;
+import fr.norsys.docsapi.dto.upload.UploadSessionResponseDto;
+import fr.norsys.docsapi.entity.MetaData;
+import fr.norsys.docsapi.entity.UploadChunk;
+import fr.norsys.docsapi.entity.UploadSession;
+import fr.norsys.docsapi.repository.DocumentRepository;
+import fr.norsys.docsapi.repository.UploadChunkRepository;
+import fr.norsys.docsapi.repository.UploadSessionRepository;
+import fr.norsys.docsapi.repository.UserRepository;
+import fr.norsys.docsapi.security.service.UserDetailsImpl;
+import fr.norsys.docsapi.utils.DocumentHashCalculator;
+import fr.norsys.docsapi.utils.DocumentStorageProperties;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.HttpStatus;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.util.StringUtils;
+import org.springframework.util.unit.DataSize;
+import org.springframework.web.server.ResponseStatusException;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.ByteBuffer;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.channels.ReadableByteChannel;
+import java.nio.file.DirectoryStream;
+import java.nio.file.Files;
+import java.nio.file.NoSuchFileException;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardOpenOption;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.sql.Timestamp;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Resumable uploads: a session fixes the file size and chunk size, chunks are PUT in any order
+ * and in parallel and written at their offset in a part file, and completing the session turns
+ * the part file into a document like a regular upload. Chunk bodies are streamed through a
+ * fixed buffer and no transaction is held while they transfer.
+ * <p>
+ * The part file and the running digest live on the node that created the session, so with
+ * several nodes the load balancer must route {@code /api/uploads/{id}/**} by upload id. A chunk
+ * or completion reaching another node is rejected with 409 rather than failing on the missing file.
+ */
+@Service
+@Transactional
+public class UploadSessionService {
+
+    private static final Logger logger = LoggerFactory.getLogger(UploadSessionService.class);
+    private static final int BUFFER_SIZE = 64 * 1024;
+    private static final int MIN_CHUNK_SIZE = 64 * 1024;
+    // A part file is created before its session row commits, so only older files can be orphans
+    private static final Duration ORPHAN_GRACE = Duration.ofMinutes(5);
+
+    private final UploadSessionRepository uploadSessionRepository;
+    private final UploadChunkRepository uploadChunkRepository;
+    private final DocumentRepository documentRepository;
+    private final UserRepository userRepository;
+    private final IDocumentService documentService;
+    private final DocumentStorageProperties documentStorageProperties;
+    private final ObjectMapper objectMapper;
+    private final int defaultChunkSize;
+    private final int maxChunkSize;
+    private final long maxFileSize;
+    private final Duration sessionTtl;
+    // Sessions live on the node holding their part file, so their running digests can stay in memory
+    private final Map<UUID, ChunkDigest> digests = new ConcurrentHashMap<>();
+
+    public UploadSessionService(UploadSessionRepository uploadSessionRepository, UploadChunkRepository uploadChunkRepository, DocumentRepository documentRepository, UserRepository userRepository, IDocumentService documentService, DocumentStorageProperties documentStorageProperties, ObjectMapper objectMapper,
+                                @Value("${docsapi.upload.chunked.chunk-size:8MB}") DataSize defaultChunkSize,
+                                @Value("${docsapi.upload.chunked.max-chunk-size:64MB}") DataSize maxChunkSize,
+                                @Value("${docsapi.upload.chunked.max-file-size:20GB}") DataSize maxFileSize,
+                                @Value("${docsapi.upload.chunked.session-ttl:24h}") Duration sessionTtl) {
+        this.uploadSessionRepository = uploadSessionRepository;
+        this.uploadChunkRepository = uploadChunkRepository;
+        this.documentRepository = documentRepository;
+        this.userRepository = userRepository;
+        this.documentService = documentService;
+        this.documentStorageProperties = documentStorageProperties;
+        this.objectMapper = objectMapper;
+        this.defaultChunkSize = Math.toIntExact(defaultChunkSize.toBytes());
+        this.maxChunkSize = Math.toIntExact(maxChunkSize.toBytes());
+        this.maxFileSize = maxFileSize.toBytes();
+        this.sessionTtl = sessionTtl;
+    }
+
+    public UploadSessionResponseDto create(UploadSessionDto uploadSessionDto) throws IOException {
+        if (!StringUtils.hasText(uploadSessionDto.getName()) || uploadSessionDto.getSize() <= 0) {
+            throw new ResponseStatusException(HttpStatus.BAD_REQUEST, "Name and size are required");
+        }
+        if (uploadSessionDto.getSize() > maxFileSize) {
+            throw new ResponseStatusException(HttpStatus.PAYLOAD_TOO_LARGE, "File exceeds the maximum upload size");
+        }
+        int chunkSize = uploadSessionDto.getChunkSize() != null ? uploadSessionDto.getChunkSize() : defaultChunkSize;
+        if (chunkSize < MIN_CHUNK_SIZE || chunkSize > maxChunkSize) {
+            throw new ResponseStatusException(HttpStatus.BAD_REQUEST, "Chunk size must be between " + MIN_CHUNK_SIZE + " and " + maxChunkSize + " bytes");
+        }
+        String name = StringUtils.cleanPath(uploadSessionDto.getName());
+        UUID userId = getAuthenticatedUserId();
+        // Fail before gigabytes are transferred; completion checks again, with the checksum
+        if (documentRepository.existsByUserAndName(userRepository.getReferenceById(userId), name)) {
+            throw new ResponseStatusException(HttpStatus.CONFLICT, "Document already exists");
+        }
+
+        Instant now = Instant.now();
+        UploadSession session = uploadSessionRepository.save(UploadSession.builder()
+                .user(userRepository.getReferenceById(userId))
+                .name(name)
+                .size(uploadSessionDto.getSize())
+                .chunkSize(chunkSize)
+                .chunkCount(Math.toIntExact((uploadSessionDto.getSize() + chunkSize - 1) / chunkSize))
+                .metadata(objectMapper.writeValueAsString(uploadSessionDto.getMetadata() != null ? uploadSessionDto.getMetadata() : List.of()))
+                .creationDate(Timestamp.from(now))
+                .expirationDate(Timestamp.from(now.plus(sessionTtl)))
+                .build());
+        Path partFile = partFile(session.getId());
+        Files.createDirectories(partFile.getParent());
+        Files.createFile(partFile);
+        return convertToDto(session, List.of());
+    }
+
+    @Transactional(readOnly = true)
+    public UploadSessionResponseDto getStatus(UUID sessionId) {
+        UploadSession session = getOwnedSession(sessionId);
+        return convertToDto(session, uploadChunkRepository.findIndexesBySessionId(sessionId));
+    }
+
+    /**
+     * Writes one chunk at its offset. Retrying a chunk simply overwrites it; a chunk whose
+     * length or {@code expectedChecksum} (hex SHA-256) does not match is dropped and must be sent again.
+     */
+    @Transactional(propagation = Propagation.NOT_SUPPORTED)
+    public void writeChunk(UUID sessionId, int index, InputStream body, String expectedChecksum) throws IOException {
+        UploadSession session = getOwnedSession(sessionId);
+        if (index < 0 || index >= session.getChunkCount()) {
+            throw new ResponseStatusException(HttpStatus.BAD_REQUEST, "Chunk index out of range");
+        }
+        int length = session.chunkLength(index);
+        MessageDigest digest = sha256();
+        long written = 0;
+        try (FileChannel channel = FileChannel.open(partFile(sessionId), StandardOpenOption.WRITE);
+             ReadableByteChannel in = Channels.newChannel(body)) {
+            ByteBuffer buffer = ByteBuffer.allocate(BUFFER_SIZE);
+            long position = session.chunkOffset(index);
+            int read;
+            while ((read = in.read(buffer)) != -1) {
+                written += read;
+                if (written > length) {
+                    break;
+                }
+                buffer.flip();
+                digest.update(buffer.duplicate());
+                while (buffer.hasRemaining()) {
+                    position += channel.write(buffer, position);
+                }
+                buffer.clear();
+            }
+        } catch (NoSuchFileException e) {
+            throw notOnThisNode(sessionId, e);
+        } catch (IOException e) {
+            forget(sessionId, index);
+            throw e;
+        }
+
+        String checksum = DocumentHashCalculator.bytesToHex(digest.digest());
+        if (written != length) {
+            forget(sessionId, index);
+            throw new ResponseStatusException(HttpStatus.BAD_REQUEST, "Chunk " + index + " must be " + length + " bytes");
+        }
+        if (expectedChecksum != null && !expectedChecksum.equalsIgnoreCase(checksum)) {
+            forget(sessionId, index);
+            throw new ResponseStatusException(HttpStatus.BAD_REQUEST, "Chunk " + index + " checksum mismatch");
+        }
+
+        ChunkDigest chunkDigest = digests.get(sessionId);
+        if (chunkDigest != null && chunkDigest.covers(index)) {
+            // Without a previous row a failed retry left bytes of its own, so the hashed chunk is stale
+            boolean unchanged = uploadChunkRepository.findById(new UploadChunk.Key(sessionId, index))
+                    .map(previous -> previous.getChecksum().equals(checksum))
+                    .orElse(false);
+            if (!unchanged) {
+                digests.remove(sessionId);
+            }
+        }
+        uploadChunkRepository.record(sessionId, index, length, checksum);
+        digests.computeIfAbsent(sessionId, id -> new ChunkDigest(partFile(id), session)).received(index);
+    }
+
+    /**
+     * Turns the assembled file into a document once every chunk has arrived. The session is
+     * removed when the document is created or rejected as a duplicate.
+     */
+    @Transactional(propagation = Propagation.NOT_SUPPORTED)
+    public DocumentUploadResponse complete(UUID sessionId) throws IOException {
+        UploadSession session = getOwnedSession(sessionId);
+        List<Integer> received = uploadChunkRepository.findIndexesBySessionId(sessionId);
+        if (received.size() != session.getChunkCount()) {
+            throw new ResponseStatusException(HttpStatus.CONFLICT, (session.getChunkCount() - received.size()) + " chunks are still missing");
+        }
+
+        Path partFile = partFile(sessionId);
+        if (!Files.exists(partFile)) {
+            throw notOnThisNode(sessionId, null);
+        }
+        String checksum;
+        try {
+            checksum = digests.computeIfAbsent(sessionId, id -> new ChunkDigest(partFile, session)).finish(received);
+        } catch (IllegalStateException e) {
+            // The digest no longer matches the recorded chunks; it is rebuilt from the file on retry
+            digests.remove(sessionId);
+            throw new ResponseStatusException(HttpStatus.CONFLICT, e.getMessage(), e);
+        }
+        try {
+            String documentId = documentService.uploadAssembled(partFile, session.getName(), session.getSize(), checksum, readMetadata(session));
+            discard(sessionId);
+            return DocumentUploadResponse.builder()
+                    .docName(session.getName())
+                    .downloadUri("/api/documents/download/" + documentId)
+                    .build();
+        } catch (ResponseStatusException e) {
+            if (e.getStatusCode() == HttpStatus.CONFLICT) {
+                discard(sessionId);
+            }
+            throw e;
+        }
+    }
+
+    public void abort(UUID sessionId) throws IOException {
+        getOwnedSession(sessionId);
+        discard(sessionId);
+    }
+
+    /**
+     * Removes expired sessions, then the local part files whose session is gone: another node may
+     * have removed the expired session first, and only this node can delete its file.
+     */
+    @Scheduled(fixedDelayString = "${docsapi.upload.chunked.cleanup-interval:PT1H}")
+    public void removeExpired() {
+        for (UUID sessionId : uploadSessionRepository.findExpiredIds(Timestamp.from(Instant.now()))) {
+            try {
+                discard(sessionId);
+            } catch (IOException e) {
+                logger.warn("Could not remove expired upload {}: {}", sessionId, e.getMessage());
+            }
+        }
+        try {
+            removeOrphanPartFiles();
+        } catch (IOException e) {
+            logger.warn("Could not remove orphan upload files: {}", e.getMessage());
+        }
+    }
+
+    private void removeOrphanPartFiles() throws IOException {
+        Path uploads = Paths.get(documentStorageProperties.getUploadDir(), "uploads");
+        if (!Files.isDirectory(uploads)) {
+            return;
+        }
+        Instant cutoff = Instant.now().minus(ORPHAN_GRACE);
+        Map<UUID, Path> candidates = new HashMap<>();
+        try (DirectoryStream<Path> files = Files.newDirectoryStream(uploads, "*.part")) {
+            for (Path file : files) {
+                String name = file.getFileName().toString();
+                try {
+                    if (Files.getLastModifiedTime(file).toInstant().isBefore(cutoff)) {
+                        candidates.put(UUID.fromString(name.substring(0, name.length() - ".part".length())), file);
+                    }
+                } catch (IllegalArgumentException | NoSuchFileException ignored) {
+                    // not a session file, or removed meanwhile
+                }
+            }
+        }
+        uploadSessionRepository.findAllById(candidates.keySet()).forEach(session -> candidates.remove(session.getId()));
+        for (Map.Entry<UUID, Path> orphan : candidates.entrySet()) {
+            digests.remove(orphan.getKey());
+            Files.deleteIfExists(orphan.getValue());
+        }
+    }
+
+    private void discard(UUID sessionId) throws IOException {
+        uploadSessionRepository.deleteById(sessionId);
+        digests.remove(sessionId);
+        Files.deleteIfExists(partFile(sessionId));
+    }
+
+    private static ResponseStatusException notOnThisNode(UUID sessionId, Exception cause) {
+        return new ResponseStatusException(HttpStatus.CONFLICT,
+                "Upload " + sessionId + " is held by another node; its requests must be routed to the node that created it", cause);
+    }
+
+    private void forget(UUID sessionId, int index) {
+        uploadChunkRepository.deleteById(new UploadChunk.Key(sessionId, index));
+        ChunkDigest chunkDigest = digests.get(sessionId);
+        if (chunkDigest != null && chunkDigest.discard(index)) {
+            digests.remove(sessionId);
+        }
+    }
+
+    private UploadSession getOwnedSession(UUID sessionId) {
+        UploadSession session = uploadSessionRepository.findById(sessionId)
+                .orElseThrow(() -> new ResponseStatusException(HttpStatus.NOT_FOUND, "Upload not found"));
+        if (!session.getUser().getId().equals(getAuthenticatedUserId())) {
+            throw new ResponseStatusException(HttpStatus.FORBIDDEN, "Upload belongs to another user");
+        }
+        if (session.getExpirationDate().toInstant().isBefore(Instant.now())) {
+            throw new ResponseStatusException(HttpStatus.GONE, "Upload has expired");
+        }
+        return session;
+    }
+
+    private List<MetaData> readMetadata(UploadSession session) {
+        try {
+            return objectMapper.readValue(session.getMetadata(), new TypeReference<>() {});
+        } catch (JsonProcessingException e) {
+            throw new ResponseStatusException(HttpStatus.INTERNAL_SERVER_ERROR, "Invalid upload metadata", e);
+        }
+    }
+
+    private Path partFile(UUID sessionId) {
+        return Paths.get(documentStorageProperties.getUploadDir(), "uploads", sessionId + ".part");
+    }
+
+    private static MessageDigest sha256() {
+        try {
+            return MessageDigest.getInstance("SHA-256");
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
+    private static UploadSessionResponseDto convertToDto(UploadSession session, List<Integer> receivedChunks) {
+        return UploadSessionResponseDto.builder()
+                .id(session.getId())
+                .name(session.getName())
+                .size(session.getSize())
+                .chunkSize(session.getChunkSize())
+                .chunkCount(session.getChunkCount())
+                .receivedChunks(receivedChunks)
+                .expirationDate(session.getExpirationDate())
+                .build();
+    }
+
+    private UUID getAuthenticatedUserId() {
+        var authentication = SecurityContextHolder.getContext().getAuthentication();
+        return ((UserDetailsImpl) authentication.getPrincipal()).getId();
+    }
+}
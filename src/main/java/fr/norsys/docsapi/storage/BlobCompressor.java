@@ -0,0 +1,78 @@
+package fr.norsys.docsapi.storage;
+
+import fr.norsys.docsapi.entity.StorageCodec;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.io.BufferedOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+import java.util.Optional;
+import java.util.zip.GZIPInputStream;
+import java.util.zip.GZIPOutputStream;
+
+/**
+ * Gzips text-like blobs before they are stored. Content that does not shrink by at least
+ * {@link #MIN_SAVING} is kept raw, so already compressed formats are never paid for twice.
+ */
+@Component
+public class BlobCompressor {
+
+    private static final int BUFFER_SIZE = 64 * 1024;
+    private static final double MIN_SAVING = 0.1;
+
+    private final boolean enabled;
+    private final long minSize;
+    private final int level;
+    private final List<String> types;
+
+    public BlobCompressor(@Value("${docsapi.storage.compression.enabled:true}") boolean enabled,
+                          @Value("${docsapi.storage.compression.min-size:1024}") long minSize,
+                          @Value("${docsapi.storage.compression.level:6}") int level,
+                          @Value("${docsapi.storage.compression.types:text/,application/json,application/xml,application/x-ndjson,application/javascript,image/svg+xml}") List<String> types) {
+        this.enabled = enabled;
+        this.minSize = minSize;
+        this.level = level;
+        this.types = types;
+    }
+
+    public boolean isCompressible(String type, long size) {
+        return enabled && size >= minSize && type != null
+                && types.stream().anyMatch(prefix -> type.startsWith(prefix));
+    }
+
+    /**
+     * Writes a gzipped sibling of {@code source} and returns it when it is worth keeping; the
+     * caller then owns both files.
+     */
+    public Optional<Path> compress(Path source, long size) throws IOException {
+        Path target = source.resolveSibling(source.getFileName() + StorageCodec.GZIP.keySuffix());
+        try (InputStream in = Files.newInputStream(source);
+             OutputStream out = new LeveledGzipOutputStream(new BufferedOutputStream(Files.newOutputStream(target), BUFFER_SIZE), level)) {
+            in.transferTo(out);
+        }
+        if (Files.size(target) > size * (1 - MIN_SAVING)) {
+            Files.delete(target);
+            return Optional.empty();
+        }
+        return Optional.of(target);
+    }
+
+    public static InputStream decode(StorageCodec codec, InputStream in) throws IOException {
+        return switch (codec) {
+            case NONE -> in;
+            case GZIP -> new GZIPInputStream(in, BUFFER_SIZE);
+        };
+    }
+
+    private static final class LeveledGzipOutputStream extends GZIPOutputStream {
+        private LeveledGzipOutputStream(OutputStream out, int level) throws IOException {
+            super(out, BUFFER_SIZE);
+            def.setLevel(level);
+        }
+    }
+}
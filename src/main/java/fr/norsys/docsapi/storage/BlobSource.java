@@ -0,0 +1,10 @@
+package fr.norsys.docsapi.storage;
+
+import java.nio.file.Path;
+
+/**
+ * A staged file waiting to be stored as the blob with this checksum; {@code type} is the
+ * sniffed content type used to decide on compression.
+ */
+public record BlobSource(Path file, String checksum, long size, String type) {
+}
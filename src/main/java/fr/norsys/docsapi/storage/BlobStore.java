@@ -0,0 +1,38 @@
+package fr.norsys.docsapi.storage;
+
+import org.springframework.core.io.Resource;
+
+import java.io.IOException;
+import java.util.List;
+
+/**
+ * Content addressable storage: blobs are keyed by their SHA-256 checksum and shared
+ * by every document with the same content.
+ */
+public interface BlobStore {
+
+    /**
+     * Takes ownership of {@code source} and adds a reference to the blob.
+     */
+    default StoredBlob store(BlobSource source) throws IOException {
+        return storeAll(List.of(source)).get(0);
+    }
+
+    /**
+     * Stores several blobs with their uploads running concurrently, returning them in order. Call it
+     * outside a transaction: the references are committed before the bytes move and no connection
+     * is held during the transfer, so a caller whose own transaction then fails must
+     * {@link #release} them.
+     */
+    List<StoredBlob> storeAll(List<BlobSource> sources) throws IOException;
+
+    /**
+     * The bytes stored under {@code key}, still encoded with the blob's codec.
+     */
+    Resource open(String key);
+
+    /**
+     * Drops a reference to the blob; its content is removed once nothing references it.
+     */
+    void release(String checksum, String key) throws IOException;
+}
@@ -0,0 +1,55 @@
+package fr.norsys.docsapi.storage;
+
+import fr.norsys.docsapi.entity.StorageCodec;
+import org.springframework.core.io.AbstractResource;
+import org.springframework.core.io.Resource;
+
+import java.io.IOException;
+import java.io.InputStream;
+
+/**
+ * The original bytes of an encoded blob, decompressed while they are read. The length is the
+ * document size so Content-Length and byte ranges still refer to the original content.
+ */
+public class DecodedResource extends AbstractResource {
+
+    private final Resource encoded;
+    private final StorageCodec codec;
+    private final long contentLength;
+
+    public DecodedResource(Resource encoded, StorageCodec codec, long contentLength) {
+        this.encoded = encoded;
+        this.codec = codec;
+        this.contentLength = contentLength;
+    }
+
+    @Override
+    public boolean exists() {
+        return encoded.exists();
+    }
+
+    @Override
+    public long contentLength() {
+        return contentLength;
+    }
+
+    @Override
+    public long lastModified() throws IOException {
+        return encoded.lastModified();
+    }
+
+    @Override
+    public InputStream getInputStream() throws IOException {
+        return BlobCompressor.decode(codec, encoded.getInputStream());
+    }
+
+    @Override
+    public String getFilename() {
+        return encoded.getFilename();
+    }
+
+    @Override
+    public String getDescription() {
+        return codec + " decoded " + encoded.getDescription();
+    }
+}
@@ -0,0 +1,172 @@
+package fr.norsys.docsapi.storage;
+
+import fr.norsys.docsapi.utils.DocumentStorageProperties;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.core.io.FileSystemResource;
+import org.springframework.core.io.Resource;
+import org.springframework.stereotype.Component;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.AsynchronousFileChannel;
+import java.nio.channels.CompletionHandler;
+import java.nio.file.AtomicMoveNotSupportedException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.concurrent.CompletableFuture;
+
+/**
+ * Keeps blobs under {@code <uploadDir>/blobs}. Staged files on the same file system are renamed
+ * into place; otherwise they are copied with an {@link AsynchronousFileChannel} so no request
+ * thread blocks on the transfer.
+ */
+@Component
+@ConditionalOnProperty(name = "docsapi.storage.backend", havingValue = "local", matchIfMissing = true)
+public class LocalStorageBackend implements StorageBackend {
+
+    private static final String BLOBS_DIR = "blobs";
+    private static final int COPY_BUFFER_SIZE = 1024 * 1024;
+
+    private final DocumentStorageProperties documentStorageProperties;
+
+    public LocalStorageBackend(DocumentStorageProperties documentStorageProperties) {
+        this.documentStorageProperties = documentStorageProperties;
+    }
+
+    @Override
+    public CompletableFuture<Void> put(String key, Path source, long size) {
+        Path target = root().resolve(key);
+        try {
+            Files.createDirectories(target.getParent());
+            Files.move(source, target, StandardCopyOption.ATOMIC_MOVE);
+            return CompletableFuture.completedFuture(null);
+        } catch (AtomicMoveNotSupportedException e) {
+            Path partial = target.resolveSibling(target.getFileName() + ".part");
+            return copy(source, partial).thenRun(() -> {
+                try {
+                    Files.move(partial, target, StandardCopyOption.ATOMIC_MOVE, StandardCopyOption.REPLACE_EXISTING);
+                    Files.delete(source);
+                } catch (IOException io) {
+                    throw new UncheckedIOException(io);
+                }
+            });
+        } catch (IOException e) {
+            return CompletableFuture.failedFuture(e);
+        }
+    }
+
+    @Override
+    public CompletableFuture<Boolean> exists(String key) {
+        return CompletableFuture.completedFuture(Files.exists(root().resolve(key)));
+    }
+
+    @Override
+    public Resource open(String key) {
+        return new FileSystemResource(root().resolve(key));
+    }
+
+    @Override
+    public CompletableFuture<Void> delete(String key) {
+        try {
+            Files.deleteIfExists(root().resolve(key));
+            return CompletableFuture.completedFuture(null);
+        } catch (IOException e) {
+            return CompletableFuture.failedFuture(e);
+        }
+    }
+
+    /**
+     * Copies {@code source} to {@code target} with chained asynchronous reads and writes.
+     */
+    static CompletableFuture<Void> copy(Path source, Path target) {
+        CompletableFuture<Void> done = new CompletableFuture<>();
+        AsynchronousFileChannel in;
+        AsynchronousFileChannel out;
+        try {
+            in = AsynchronousFileChannel.open(source, StandardOpenOption.READ);
+        } catch (IOException e) {
+            return CompletableFuture.failedFuture(e);
+        }
+        try {
+            out = AsynchronousFileChannel.open(target, StandardOpenOption.WRITE, StandardOpenOption.CREATE,
+                    StandardOpenOption.TRUNCATE_EXISTING);
+        } catch (IOException e) {
+            closeQuietly(in);
+            return CompletableFuture.failedFuture(e);
+        }
+        new AsyncCopy(in, out, done).read();
+        return done.whenComplete((ignored, error) -> {
+            closeQuietly(in);
+            closeQuietly(out);
+        });
+    }
+
+    private Path root() {
+        return Paths.get(documentStorageProperties.getUploadDir(), BLOBS_DIR);
+    }
+
+    private static void closeQuietly(AsynchronousFileChannel channel) {
+        try {
+            channel.close();
+        } catch (IOException ignored) {
+            // Nothing left to release
+        }
+    }
+
+    private static final class AsyncCopy {
+        private final AsynchronousFileChannel in;
+        private final AsynchronousFileChannel out;
+        private final CompletableFuture<Void> done;
+        private final ByteBuffer buffer = ByteBuffer.allocateDirect(COPY_BUFFER_SIZE);
+        private long position;
+
+        private AsyncCopy(AsynchronousFileChannel in, AsynchronousFileChannel out, CompletableFuture<Void> done) {
+            this.in = in;
+            this.out = out;
+            this.done = done;
+        }
+
+        private void read() {
+            buffer.clear();
+            in.read(buffer, position, null, new CompletionHandler<>() {
+                @Override
+                public void completed(Integer count, Object attachment) {
+                    if (count < 0) {
+                        done.complete(null);
+                        return;
+                    }
+                    buffer.flip();
+                    write();
+                }
+
+                @Override
+                public void failed(Throwable error, Object attachment) {
+                    done.completeExceptionally(error);
+                }
+            });
+        }
+
+        private void write() {
+            out.write(buffer, position, null, new CompletionHandler<>() {
+                @Override
+                public void completed(Integer count, Object attachment) {
+                    position += count;
+                    if (buffer.hasRemaining()) {
+                        write();
+                    } else {
+                        read();
+                    }
+                }
+
+                @Override
+                public void failed(Throwable error, Object attachment) {
+                    done.completeExceptionally(error);
+                }
+            });
+        }
+    }
+}
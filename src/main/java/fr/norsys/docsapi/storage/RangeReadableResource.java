@@ -0,0 +1,18 @@
+package fr.norsys.docsapi.storage;
+
+import org.springframework.core.io.Resource;
+
+import java.io.IOException;
+import java.io.InputStream;
+
+/**
+ * A resource that can fetch a byte range on its own, so serving a range does not read the content
+ * from the start and skip.
+ */
+public interface RangeReadableResource extends Resource {
+
+    /**
+     * The {@code count} bytes starting at {@code position}, fewer if the content ends first.
+     */
+    InputStream getInputStream(long position, long count) throws IOException;
+}
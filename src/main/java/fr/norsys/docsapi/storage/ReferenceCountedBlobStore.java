@@ -0,0 +1,246 @@
+package fr.norsys.docsapi.storage;
+
+import fr.norsys.docsapi.entity.Blob;
+import fr.norsys.docsapi.entity.StorageCodec;
+import fr.norsys.docsapi.repository.BlobRepository;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.core.io.Resource;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+
+/**
+ * Stores blobs under {@code ab/cd/abcd...} keys in the configured {@link StorageBackend}, so no
+ * directory or prefix grows past a few hundred entries, with reference counts, codec and stored
+ * size kept in the {@code blob} table.
+ * <p>
+ * A reference is committed before any byte moves, so a concurrent release can no longer drop the
+ * row or its object, and the content is reused only once its object is confirmed to exist. A row
+ * whose content is missing, still in flight or never written is written again. The codec of the first upload to record its content wins.
+ */
+@Component
+public class ReferenceCountedBlobStore implements BlobStore {
+
+    private static final Logger logger = LoggerFactory.getLogger(ReferenceCountedBlobStore.class);
+
+    private final StorageBackend storageBackend;
+    private final BlobRepository blobRepository;
+    private final BlobCompressor blobCompressor;
+    private final TransactionTemplate transactionTemplate;
+    private final TransactionTemplate newTransactionTemplate;
+
+    public ReferenceCountedBlobStore(StorageBackend storageBackend, BlobRepository blobRepository, BlobCompressor blobCompressor,
+                                     PlatformTransactionManager transactionManager) {
+        this.storageBackend = storageBackend;
+        this.blobRepository = blobRepository;
+        this.blobCompressor = blobCompressor;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.newTransactionTemplate = new TransactionTemplate(transactionManager);
+        this.newTransactionTemplate.setPropagationBehavior(TransactionDefinition.PROPAGATION_REQUIRES_NEW);
+    }
+
+    @Override
+    public List<StoredBlob> storeAll(List<BlobSource> sources) throws IOException {
+        Map<String, Blob> reserved = newTransactionTemplate.execute(status -> {
+            sources.forEach(source -> blobRepository.acquire(source.checksum(), source.size()));
+            return blobRepository.findAllById(sources.stream().map(BlobSource::checksum).distinct().toList()).stream()
+                    .collect(Collectors.toMap(Blob::getChecksum, Function.identity()));
+        });
+
+        Map<String, StoredBlob> written = new LinkedHashMap<>();
+        try {
+            return storeReserved(sources, reserved, written);
+        } catch (IOException | RuntimeException e) {
+            for (BlobSource source : sources) {
+                Blob blob = reserved.get(source.checksum());
+                StoredBlob target = written.get(source.checksum());
+                runQuietly(() -> release(source.checksum(), target != null ? target.key() : key(blob.getChecksum(), blob.getCodec())));
+            }
+            throw e;
+        }
+    }
+
+    private List<StoredBlob> storeReserved(List<BlobSource> sources, Map<String, Blob> reserved,
+                                           Map<String, StoredBlob> written) throws IOException {
+        Map<String, CompletableFuture<Boolean>> present = new HashMap<>();
+        reserved.values().stream()
+                .filter(ReferenceCountedBlobStore::isStored)
+                .forEach(blob -> present.put(blob.getChecksum(), storageBackend.exists(key(blob.getChecksum(), blob.getCodec()))));
+
+        Map<String, StoredBlob> known = new HashMap<>();
+        List<StoredBlob> stored = new ArrayList<>(sources.size());
+        List<CompletableFuture<Void>> uploads = new ArrayList<>();
+        for (BlobSource source : sources) {
+            StoredBlob blob = known.get(source.checksum());
+            CompletableFuture<Boolean> exists = present.get(source.checksum());
+            if (blob == null && exists != null && await(exists)) {
+                blob = toStoredBlob(reserved.get(source.checksum()));
+            }
+            if (blob != null) {
+                deleteSource(source.file());
+                known.put(source.checksum(), blob);
+                stored.add(blob);
+                continue;
+            }
+            StoredBlob target = encode(source);
+            Path file = target.codec() == StorageCodec.NONE ? source.file() : encodedFile(source);
+            uploads.add(storageBackend.put(target.key(), file, target.storedSize()));
+            written.put(source.checksum(), target);
+            known.put(source.checksum(), target);
+            stored.add(target);
+        }
+        await(CompletableFuture.allOf(uploads.toArray(CompletableFuture[]::new)));
+
+        List<String> contested = newTransactionTemplate.execute(status -> written.entrySet().stream()
+                .filter(entry -> blobRepository.markStored(entry.getKey(), entry.getValue().codec(), entry.getValue().storedSize(),
+                        entry.getValue().codec()) == 0)
+                .map(Map.Entry::getKey)
+                .toList());
+        for (String checksum : contested) {
+            StoredBlob settled = settle(checksum, written.get(checksum));
+            for (int i = 0; i < sources.size(); i++) {
+                if (sources.get(i).checksum().equals(checksum)) {
+                    stored.set(i, settled);
+                }
+            }
+        }
+        return stored;
+    }
+
+    /**
+     * Another upload recorded this content under a different codec first. Its object is used when
+     * it exists and ours is dropped; otherwise ours replaces the record.
+     */
+    private StoredBlob settle(String checksum, StoredBlob target) throws IOException {
+        while (true) {
+            Blob current = newTransactionTemplate.execute(status -> blobRepository.findById(checksum).orElseThrow());
+            StoredBlob recorded = toStoredBlob(current);
+            if (await(storageBackend.exists(recorded.key()))) {
+                await(storageBackend.delete(target.key()));
+                return recorded;
+            }
+            Integer updated = newTransactionTemplate.execute(status ->
+                    blobRepository.markStored(checksum, target.codec(), target.storedSize(), current.getCodec()));
+            if (updated != null && updated > 0) {
+                return target;
+            }
+        }
+    }
+
+    @Override
+    public Resource open(String key) {
+        return storageBackend.open(key);
+    }
+
+    @Override
+    public void release(String checksum, String key) {
+        transactionTemplate.executeWithoutResult(status -> blobRepository.decrement(checksum));
+        afterCommit(() -> collect(checksum, key));
+    }
+
+    /**
+     * Deletes an unreferenced blob's row and then its object in one transaction. The deleted row
+     * stays locked until the object is gone, so an upload of the same content waits for it and
+     * then writes the content afresh.
+     */
+    private void collect(String checksum, String key) {
+        newTransactionTemplate.executeWithoutResult(status -> {
+            if (blobRepository.deleteIfUnreferenced(checksum) > 0) {
+                storageBackend.delete(key).join();
+            }
+        });
+    }
+
+    static String key(String checksum, StorageCodec codec) {
+        return checksum.substring(0, 2) + "/" + checksum.substring(2, 4) + "/" + checksum + codec.keySuffix();
+    }
+
+    private static boolean isStored(Blob blob) {
+        return blob.getStoredSize() >= 0;
+    }
+
+    private static StoredBlob toStoredBlob(Blob blob) {
+        return new StoredBlob(key(blob.getChecksum(), blob.getCodec()), blob.getCodec(), blob.getStoredSize());
+    }
+
+    /**
+     * Compresses the staged file when its type and size qualify and it actually shrinks; the raw
+     * file is then dropped and the encoded sibling uploaded instead.
+     */
+    private StoredBlob encode(BlobSource source) throws IOException {
+        if (blobCompressor.isCompressible(source.type(), source.size())) {
+            Optional<Path> compressed = blobCompressor.compress(source.file(), source.size());
+            if (compressed.isPresent()) {
+                deleteSource(source.file());
+                return new StoredBlob(key(source.checksum(), StorageCodec.GZIP), StorageCodec.GZIP, Files.size(compressed.get()));
+            }
+        }
+        return new StoredBlob(key(source.checksum(), StorageCodec.NONE), StorageCodec.NONE, source.size());
+    }
+
+    private static Path encodedFile(BlobSource source) {
+        return source.file().resolveSibling(source.file().getFileName() + StorageCodec.GZIP.keySuffix());
+    }
+
+    private static void deleteSource(Path file) {
+        try {
+            Files.deleteIfExists(file);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    private static <T> T await(CompletableFuture<T> future) throws IOException {
+        try {
+            return future.join();
+        } catch (CompletionException e) {
+            if (e.getCause() instanceof IOException io) {
+                throw io;
+            }
+            if (e.getCause() instanceof UncheckedIOException io) {
+                throw io.getCause();
+            }
+            throw new IOException("Blob upload failed", e.getCause());
+        }
+    }
+
+    private void afterCommit(Runnable action) {
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            runQuietly(action);
+            return;
+        }
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCommit() {
+                runQuietly(action);
+            }
+        });
+    }
+
+    private static void runQuietly(Runnable action) {
+        try {
+            action.run();
+        } catch (RuntimeException e) {
+            logger.error("Blob cleanup failed: {}", e.getMessage());
+        }
+    }
+}
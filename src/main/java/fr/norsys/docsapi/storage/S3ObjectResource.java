@@ -0,0 +1,100 @@
+package fr.norsys.docsapi.storage;
+
+import org.springframework.core.io.AbstractResource;
+import software.amazon.awssdk.core.async.AsyncResponseTransformer;
+import software.amazon.awssdk.services.s3.S3AsyncClient;
+import software.amazon.awssdk.services.s3.model.GetObjectRequest;
+import software.amazon.awssdk.services.s3.model.HeadObjectRequest;
+import software.amazon.awssdk.services.s3.model.HeadObjectResponse;
+import software.amazon.awssdk.services.s3.model.S3Exception;
+
+import java.io.FileNotFoundException;
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.concurrent.CompletionException;
+
+/**
+ * An S3 object as a Spring {@link org.springframework.core.io.Resource}. The body is streamed
+ * from the async client as it is read, never buffered whole, and byte ranges are fetched with a
+ * ranged GET.
+ */
+class S3ObjectResource extends AbstractResource implements RangeReadableResource {
+
+    private final S3AsyncClient s3Client;
+    private final String bucket;
+    private final String key;
+    private HeadObjectResponse head;
+
+    S3ObjectResource(S3AsyncClient s3Client, String bucket, String key) {
+        this.s3Client = s3Client;
+        this.bucket = bucket;
+        this.key = key;
+    }
+
+    @Override
+    public boolean exists() {
+        try {
+            head();
+            return true;
+        } catch (IOException e) {
+            return false;
+        }
+    }
+
+    @Override
+    public long contentLength() throws IOException {
+        return head().contentLength();
+    }
+
+    @Override
+    public long lastModified() throws IOException {
+        return head().lastModified().toEpochMilli();
+    }
+
+    @Override
+    public InputStream getInputStream() throws IOException {
+        return get(GetObjectRequest.builder().bucket(bucket).key(key).build());
+    }
+
+    @Override
+    public InputStream getInputStream(long position, long count) throws IOException {
+        if (count <= 0) {
+            return InputStream.nullInputStream();
+        }
+        return get(GetObjectRequest.builder().bucket(bucket).key(key)
+                .range("bytes=" + position + "-" + (position + count - 1))
+                .build());
+    }
+
+    @Override
+    public String getFilename() {
+        return key.substring(key.lastIndexOf('/') + 1);
+    }
+
+    @Override
+    public String getDescription() {
+        return "S3 object [s3://" + bucket + "/" + key + "]";
+    }
+
+    private InputStream get(GetObjectRequest request) throws IOException {
+        try {
+            return s3Client.getObject(request, AsyncResponseTransformer.toBlockingInputStream()).join();
+        } catch (CompletionException e) {
+            throw new IOException("Could not read s3://" + bucket + "/" + key, e.getCause());
+        }
+    }
+
+    private HeadObjectResponse head() throws IOException {
+        if (head == null) {
+            try {
+                head = s3Client.headObject(HeadObjectRequest.builder().bucket(bucket).key(key).build()).join();
+            } catch (CompletionException e) {
+                if (e.getCause() instanceof S3Exception s3 && s3.statusCode() == 404) {
+                    throw new FileNotFoundException(getDescription() + " does not exist");
+                }
+                throw new IOException("Could not read s3://" + bucket + "/" + key, e.getCause());
+            }
+        }
+        return head;
+    }
+}
@@ -0,0 +1,85 @@
+package fr.norsys.docsapi.storage;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.core.io.Resource;
+import org.springframework.stereotype.Component;
+import software.amazon.awssdk.core.async.AsyncRequestBody;
+import software.amazon.awssdk.services.s3.S3AsyncClient;
+import software.amazon.awssdk.services.s3.model.DeleteObjectRequest;
+import software.amazon.awssdk.services.s3.model.HeadObjectRequest;
+import software.amazon.awssdk.services.s3.model.NoSuchKeyException;
+import software.amazon.awssdk.services.s3.model.PutObjectRequest;
+import software.amazon.awssdk.services.s3.model.S3Exception;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+
+/**
+ * Keeps blobs in an S3 compatible bucket (AWS, MinIO, ...) through the non-blocking
+ * {@link S3AsyncClient}, so storage scales independently of the application nodes.
+ */
+@Component
+@ConditionalOnProperty(name = "docsapi.storage.backend", havingValue = "s3")
+public class S3StorageBackend implements StorageBackend {
+
+    private static final int NOT_FOUND = 404;
+
+    private final S3AsyncClient s3Client;
+    private final String bucket;
+    private final String prefix;
+
+    public S3StorageBackend(S3AsyncClient s3Client,
+                            @Value("${docsapi.storage.s3.bucket}") String bucket,
+                            @Value("${docsapi.storage.s3.prefix:blobs/}") String prefix) {
+        this.s3Client = s3Client;
+        this.bucket = bucket;
+        this.prefix = prefix;
+    }
+
+    @Override
+    public CompletableFuture<Void> put(String key, Path source, long size) {
+        PutObjectRequest request = PutObjectRequest.builder()
+                .bucket(bucket)
+                .key(prefix + key)
+                .contentLength(size)
+                .build();
+        return s3Client.putObject(request, AsyncRequestBody.fromFile(source))
+                .thenRun(() -> {
+                    try {
+                        Files.deleteIfExists(source);
+                    } catch (IOException e) {
+                        throw new UncheckedIOException(e);
+                    }
+                });
+    }
+
+    @Override
+    public CompletableFuture<Boolean> exists(String key) {
+        return s3Client.headObject(HeadObjectRequest.builder().bucket(bucket).key(prefix + key).build())
+                .thenApply(response -> true)
+                .exceptionally(error -> {
+                    Throwable cause = error instanceof CompletionException ? error.getCause() : error;
+                    if (cause instanceof NoSuchKeyException
+                            || (cause instanceof S3Exception s3 && s3.statusCode() == NOT_FOUND)) {
+                        return false;
+                    }
+                    throw new CompletionException(cause);
+                });
+    }
+
+    @Override
+    public Resource open(String key) {
+        return new S3ObjectResource(s3Client, bucket, prefix + key);
+    }
+
+    @Override
+    public CompletableFuture<Void> delete(String key) {
+        return s3Client.deleteObject(DeleteObjectRequest.builder().bucket(bucket).key(prefix + key).build())
+                .thenApply(response -> null);
+    }
+}
@@ -0,0 +1,29 @@
+package fr.norsys.docsapi.storage;
+
+import org.springframework.core.io.Resource;
+
+import java.nio.file.Path;
+import java.util.concurrent.CompletableFuture;
+
+/**
+ * Where blob bytes live. Selected per deployment with {@code docsapi.storage.backend}
+ * ({@code local} or {@code s3}); reference counting and transactions stay in {@link BlobStore}.
+ * Keys are relative paths such as {@code ab/cd/abcd...}.
+ */
+public interface StorageBackend {
+
+    /**
+     * Stores the content of {@code source} under {@code key} and deletes {@code source}.
+     */
+    CompletableFuture<Void> put(String key, Path source, long size);
+
+    CompletableFuture<Boolean> exists(String key);
+
+    /**
+     * A readable view of the object. Local objects are file backed so large downloads can go
+     * through Tomcat's sendfile.
+     */
+    Resource open(String key);
+
+    CompletableFuture<Void> delete(String key);
+}
@@ -0,0 +1,9 @@
+package fr.norsys.docsapi.storage;
+
+import fr.norsys.docsapi.entity.StorageCodec;
+
+/**
+ * Where a blob ended up and how its bytes are encoded at rest.
+ */
+public record StoredBlob(String key, StorageCodec codec, long storedSize) {
+}
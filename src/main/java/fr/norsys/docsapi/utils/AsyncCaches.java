@@ -0,0 +1,40 @@
+package fr.norsys.docsapi.utils;
+
+import com.github.benmanes.caffeine.cache.AsyncCache;
+
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.function.Function;
+
+/**
+ * Loads cache misses on the calling thread. {@code Cache.get(key, loader)} runs the loader
+ * inside {@code ConcurrentHashMap.compute}, whose monitor pins a virtual thread to its carrier
+ * for the whole database round trip; here only a pending future is published under the
+ * monitor and concurrent callers for the same key wait on it without pinning.
+ */
+public class AsyncCaches {
+
+    public static <K, V> V getOrLoad(AsyncCache<K, V> cache, K key, Function<? super K, ? extends V> loader) {
+        CompletableFuture<V> pending = new CompletableFuture<>();
+        CompletableFuture<V> future = cache.get(key, (k, executor) -> pending);
+        if (future != pending) {
+            try {
+                return future.join();
+            } catch (CompletionException e) {
+                if (e.getCause() instanceof RuntimeException cause) {
+                    throw cause;
+                }
+                throw e;
+            }
+        }
+        // Caffeine drops the entry if the load fails or yields null, so neither is cached
+        try {
+            V value = loader.apply(key);
+            pending.complete(value);
+            return value;
+        } catch (RuntimeException | Error e) {
+            pending.completeExceptionally(e);
+            throw e;
+        }
+    }
+}
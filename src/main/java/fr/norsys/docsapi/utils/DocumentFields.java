@@ -0,0 +1,54 @@
+package fr.norsys.docsapi.utils;
+
+import com.fasterxml.jackson.databind.ser.FilterProvider;
+import com.fasterxml.jackson.databind.ser.impl.SimpleBeanPropertyFilter;
+import com.fasterxml.jackson.databind.ser.impl.SimpleFilterProvider;
+import org.springframework.http.converter.json.MappingJacksonValue;
+import org.springframework.util.StringUtils;
+
+import java.util.Arrays;
+import java.util.Set;
+import java.util.stream.Collectors;
+
+/**
+ * Field selection for document listings, e.g. {@code ?fields=id,name,size}. Applied as a
+ * Jackson property filter on {@code DocumentResponseDto}; no value means every field.
+ */
+public record DocumentFields(Set<String> names) {
+
+    public static final String FILTER = "documentFields";
+    public static final DocumentFields ALL = new DocumentFields(Set.of());
+
+    public static DocumentFields parse(String fields) {
+        if (!StringUtils.hasText(fields)) {
+            return ALL;
+        }
+        return new DocumentFields(Arrays.stream(fields.split(","))
+                .map(String::trim)
+                .filter(StringUtils::hasText)
+                .collect(Collectors.toUnmodifiableSet()));
+    }
+
+    public boolean includes(String field) {
+        return names.isEmpty() || names.contains(field);
+    }
+
+    public FilterProvider filterProvider() {
+        return new SimpleFilterProvider().addFilter(FILTER, names.isEmpty()
+                ? SimpleBeanPropertyFilter.serializeAll()
+                : SimpleBeanPropertyFilter.filterOutAllExcept(names));
+    }
+
+    public MappingJacksonValue select(Object body) {
+        MappingJacksonValue value = new MappingJacksonValue(body);
+        value.setFilters(filterProvider());
+        return value;
+    }
+
+    /**
+     * Used by every ObjectMapper in the application so unfiltered writes serialize all fields.
+     */
+    public static FilterProvider defaultFilterProvider() {
+        return new SimpleFilterProvider().setDefaultFilter(SimpleBeanPropertyFilter.serializeAll());
+    }
+}
@@ -3,7 +3,11 @@ package fr.norsys.docsapi.utils;
 import java.io.BufferedInputStream;
 import java.io.FileInputStream;
 import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.file.Files;
 import java.nio.file.Path;
+import java.security.DigestOutputStream;
 import java.security.MessageDigest;
 import java.security.NoSuchAlgorithmException;
 
@@ -25,6 +29,18 @@ public class DocumentHashCalculator {
         return bytesToHex(hash);
     }
 
+    /**
+     * Copies the stream into the target file and returns the SHA-256 of the written bytes,
+     * so the content is read only once.
+     */
+    public static String copyAndHash(InputStream inputStream, Path target) throws NoSuchAlgorithmException, IOException {
+        MessageDigest digest = MessageDigest.getInstance("SHA-256");
+        try (OutputStream outputStream = new DigestOutputStream(Files.newOutputStream(target), digest)) {
+            inputStream.transferTo(outputStream);
+        }
+        return bytesToHex(digest.digest());
+    }
+
     public static String bytesToHex(byte[] hash) {
         StringBuilder hexString = new StringBuilder();
         for (byte b : hash) {
@@ -0,0 +1,63 @@
+package fr.norsys.docsapi.utils;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.net.URLConnection;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Arrays;
+import java.util.Map;
+
+/**
+ * Detects a document content type from its first bytes, falling back to the file name.
+ */
+public class DocumentTypeDetector {
+    public static final int SNIFF_LENGTH = 64;
+
+    private static final Map<String, byte[]> SIGNATURES = Map.of(
+            "application/pdf", "%PDF-".getBytes(StandardCharsets.US_ASCII),
+            "image/png", new byte[]{(byte) 0x89, 'P', 'N', 'G'},
+            "image/jpeg", new byte[]{(byte) 0xFF, (byte) 0xD8, (byte) 0xFF},
+            "image/gif", "GIF8".getBytes(StandardCharsets.US_ASCII),
+            "application/zip", new byte[]{'P', 'K', 0x03, 0x04}
+    );
+
+    /**
+     * The stream must support mark/reset; it is left positioned at its first byte.
+     */
+    public static String detect(InputStream inputStream, String filename) throws IOException {
+        inputStream.mark(SNIFF_LENGTH);
+        byte[] head = inputStream.readNBytes(SNIFF_LENGTH);
+        inputStream.reset();
+
+        String type = URLConnection.guessContentTypeFromName(filename);
+        if (type == null) {
+            type = Files.probeContentType(Path.of(filename));
+        }
+        // Zip based formats (docx, xlsx, ...) are better described by their extension
+        String sniffed = fromSignature(head);
+        if (sniffed != null && !(type != null && sniffed.equals("application/zip"))) {
+            return sniffed;
+        }
+        if (type == null) {
+            type = URLConnection.guessContentTypeFromStream(new ByteArrayInputStream(head));
+        }
+        if (type == null) {
+            int dot = filename.lastIndexOf('.');
+            type = dot >= 0 ? filename.substring(dot + 1).toUpperCase() : null;
+        }
+        return type;
+    }
+
+    private static String fromSignature(byte[] head) {
+        for (Map.Entry<String, byte[]> signature : SIGNATURES.entrySet()) {
+            byte[] magic = signature.getValue();
+            if (head.length >= magic.length && Arrays.equals(head, 0, magic.length, magic, 0, magic.length)) {
+                return signature.getKey();
+            }
+        }
+        return null;
+    }
+}
@@ -0,0 +1,21 @@
+package fr.norsys.docsapi.utils;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+/**
+ * Bounded pool of virtual threads used to write and hash the files of a batch upload in parallel.
+ */
+@Configuration
+public class IngestionConfig {
+
+    @Bean(destroyMethod = "shutdown")
+    public ExecutorService ingestionExecutor(@Value("${docsapi.upload.batch.parallelism:0}") int parallelism) {
+        int threads = parallelism > 0 ? parallelism : Runtime.getRuntime().availableProcessors() * 2;
+        return Executors.newFixedThreadPool(threads, Thread.ofVirtual().name("ingest-", 0).factory());
+    }
+}
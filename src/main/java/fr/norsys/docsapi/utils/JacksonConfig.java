@@ -0,0 +1,14 @@
+package fr.norsys.docsapi.utils;
+
+import org.springframework.boot.autoconfigure.jackson.Jackson2ObjectMapperBuilderCustomizer;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+@Configuration
+public class JacksonConfig {
+
+    @Bean
+    public Jackson2ObjectMapperBuilderCustomizer documentFieldsFilter() {
+        return builder -> builder.filters(DocumentFields.defaultFilterProvider());
+    }
+}
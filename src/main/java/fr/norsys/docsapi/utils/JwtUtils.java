@@ -4,6 +4,7 @@ import fr.norsys.docsapi.security.service.UserDetailsImpl;
 import io.jsonwebtoken.*;
 import io.jsonwebtoken.io.Decoders;
 import io.jsonwebtoken.security.Keys;
+import jakarta.annotation.PostConstruct;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Value;
@@ -12,6 +13,7 @@ import org.springframework.security.core.Authentication;
 
 import java.security.Key;
 import java.util.Date;
+import java.util.UUID;
 
 /**
  * Karim
@@ -20,38 +22,53 @@ import java.util.Date;
 public class JwtUtils {
     private static final Logger logger = LoggerFactory.getLogger(JwtUtils.class);
 
+    public static final String USER_ID_CLAIM = "uid";
+    public static final String EMAIL_CLAIM = "email";
+
     @Value("${docsapi.app.jwtSecret}")
     private String jwtSecret;
 
     @Value("${docsapi.app.jwtExpirationMs}")
     private int jwtExpirationMs;
 
+    private Key signInKey;
+    private JwtParser jwtParser;
+
+    @PostConstruct
+    void init() {
+        signInKey = Keys.hmacShaKeyFor(Decoders.BASE64.decode(jwtSecret));
+        jwtParser = Jwts.parserBuilder().setSigningKey(signInKey).build();
+    }
+
     public String generateJwtToken(Authentication authentication) {
 
         UserDetailsImpl userPrincipal = (UserDetailsImpl) authentication.getPrincipal();
+        Date now = new Date();
         return Jwts.builder()
                 .setSubject((userPrincipal.getUsername()))
-                .setIssuedAt(new Date())
-                .setExpiration(new Date((new Date()).getTime() + jwtExpirationMs))
+                .setIssuedAt(now)
+                .setExpiration(new Date(now.getTime() + jwtExpirationMs))
                 .claim("authorities", userPrincipal.getAuthorities())
-                .signWith(getSignInKey())
+                .claim(USER_ID_CLAIM, userPrincipal.getId().toString())
+                .claim(EMAIL_CLAIM, userPrincipal.getEmail())
+                .signWith(signInKey)
                 .compact();
     }
 
     public String getUserNameFromJwtToken(String token) {
-        return Jwts.parserBuilder().setSigningKey(getSignInKey()).build()
-                .parseClaimsJws(token).getBody().getSubject();
+        return jwtParser.parseClaimsJws(token).getBody().getSubject();
     }
 
-    private Key getSignInKey() {
-        byte[] keyBytes = Decoders.BASE64.decode(jwtSecret);
-        return Keys.hmacShaKeyFor(keyBytes);
+    public boolean validateJwtToken(String authToken) {
+        return parseValidClaims(authToken) != null;
     }
 
-    public boolean validateJwtToken(String authToken) {
+    /**
+     * Verifies the token and returns its claims in a single parse, or null when it is not valid.
+     */
+    public Claims parseValidClaims(String authToken) {
         try {
-            Jwts.parserBuilder().setSigningKey(getSignInKey()).build().parse(authToken);
-            return true;
+            return jwtParser.parseClaimsJws(authToken).getBody();
         } catch (MalformedJwtException e) {
             logger.error("Invalid JWT token: {}", e.getMessage());
         } catch (ExpiredJwtException e) {
@@ -60,8 +77,21 @@ public class JwtUtils {
             logger.error("JWT token is unsupported: {}", e.getMessage());
         } catch (IllegalArgumentException e) {
             logger.error("JWT claims string is empty: {}", e.getMessage());
+        } catch (JwtException e) {
+            logger.error("Invalid JWT signature: {}", e.getMessage());
         }
 
-        return false;
+        return null;
+    }
+
+    /**
+     * Rebuilds the principal from the token claims; null for tokens issued without them.
+     */
+    public UserDetailsImpl getPrincipalFromClaims(Claims claims) {
+        String userId = claims.get(USER_ID_CLAIM, String.class);
+        if (userId == null) {
+            return null;
+        }
+        return new UserDetailsImpl(UUID.fromString(userId), claims.getSubject(), claims.get(EMAIL_CLAIM, String.class), null);
     }
-}
\ No newline at end of file
+}
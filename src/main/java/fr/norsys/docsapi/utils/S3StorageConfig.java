@@ -0,0 +1,43 @@
+package fr.norsys.docsapi.utils;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.util.StringUtils;
+import software.amazon.awssdk.auth.credentials.AwsBasicCredentials;
+import software.amazon.awssdk.auth.credentials.DefaultCredentialsProvider;
+import software.amazon.awssdk.auth.credentials.StaticCredentialsProvider;
+import software.amazon.awssdk.regions.Region;
+import software.amazon.awssdk.services.s3.S3AsyncClient;
+import software.amazon.awssdk.services.s3.S3AsyncClientBuilder;
+
+import java.net.URI;
+
+/**
+ * Builds the S3 client when {@code docsapi.storage.backend=s3}. Set an endpoint and path style
+ * access to target MinIO or another S3 compatible store; without keys the default AWS
+ * credential chain is used.
+ */
+@Configuration
+@ConditionalOnProperty(name = "docsapi.storage.backend", havingValue = "s3")
+public class S3StorageConfig {
+
+    @Bean(destroyMethod = "close")
+    public S3AsyncClient s3AsyncClient(@Value("${docsapi.storage.s3.region:us-east-1}") String region,
+                                       @Value("${docsapi.storage.s3.endpoint:}") String endpoint,
+                                       @Value("${docsapi.storage.s3.path-style-access:false}") boolean pathStyleAccess,
+                                       @Value("${docsapi.storage.s3.access-key:}") String accessKey,
+                                       @Value("${docsapi.storage.s3.secret-key:}") String secretKey) {
+        S3AsyncClientBuilder builder = S3AsyncClient.builder()
+                .region(Region.of(region))
+                .forcePathStyle(pathStyleAccess);
+        if (StringUtils.hasText(endpoint)) {
+            builder.endpointOverride(URI.create(endpoint));
+        }
+        builder.credentialsProvider(StringUtils.hasText(accessKey)
+                ? StaticCredentialsProvider.create(AwsBasicCredentials.create(accessKey, secretKey))
+                : DefaultCredentialsProvider.create());
+        return builder.build();
+    }
+}
@@ -0,0 +1,22 @@
+package fr.norsys.docsapi.utils;
+
+import org.springframework.core.io.Resource;
+import org.springframework.http.HttpOutputMessage;
+import org.springframework.http.converter.HttpMessageNotWritableException;
+import org.springframework.http.converter.ResourceHttpMessageConverter;
+
+import java.io.IOException;
+
+/**
+ * Leaves large file backed resources to Tomcat's sendfile (see {@link TomcatSendfile}); everything
+ * else is copied as usual.
+ */
+public class SendfileResourceHttpMessageConverter extends ResourceHttpMessageConverter {
+
+    @Override
+    protected void writeContent(Resource resource, HttpOutputMessage outputMessage) throws IOException, HttpMessageNotWritableException {
+        if (!TomcatSendfile.offer(resource, 0, resource.contentLength())) {
+            super.writeContent(resource, outputMessage);
+        }
+    }
+}
@@ -0,0 +1,40 @@
+package fr.norsys.docsapi.utils;
+
+import fr.norsys.docsapi.storage.RangeReadableResource;
+import org.springframework.core.io.support.ResourceRegion;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpOutputMessage;
+import org.springframework.http.converter.ResourceRegionHttpMessageConverter;
+import org.springframework.util.StreamUtils;
+
+import java.io.IOException;
+import java.io.InputStream;
+
+/**
+ * Leaves single byte ranges of large file backed resources to Tomcat's sendfile (see
+ * {@link TomcatSendfile}) and fetches those of a {@link RangeReadableResource} on their own
+ * instead of reading up to the range. Multipart byte ranges keep the default behaviour.
+ */
+public class SendfileResourceRegionHttpMessageConverter extends ResourceRegionHttpMessageConverter {
+
+    @Override
+    protected void writeResourceRegion(ResourceRegion region, HttpOutputMessage outputMessage) throws IOException {
+        long resourceLength = region.getResource().contentLength();
+        long start = region.getPosition();
+        long end = Math.min(start + region.getCount() - 1, resourceLength - 1);
+        long rangeLength = end - start + 1;
+        boolean sendfile = TomcatSendfile.offer(region.getResource(), start, rangeLength);
+        if (!sendfile && !(region.getResource() instanceof RangeReadableResource)) {
+            super.writeResourceRegion(region, outputMessage);
+            return;
+        }
+        HttpHeaders responseHeaders = outputMessage.getHeaders();
+        responseHeaders.add(HttpHeaders.CONTENT_RANGE, "bytes " + start + '-' + end + '/' + resourceLength);
+        responseHeaders.setContentLength(rangeLength);
+        if (!sendfile) {
+            try (InputStream in = ((RangeReadableResource) region.getResource()).getInputStream(start, rangeLength)) {
+                StreamUtils.copy(in, outputMessage.getBody());
+            }
+        }
+    }
+}
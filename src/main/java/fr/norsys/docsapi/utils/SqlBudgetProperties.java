@@ -0,0 +1,53 @@
+package fr.norsys.docsapi.utils;
+
+import lombok.Getter;
+import lombok.Setter;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * Per request SQL accounting under {@code docsapi.sql}: statement budgets per route, the
+ * repetition count reported as a likely N+1, and the development only row counting and
+ * response headers.
+ */
+@Setter
+@Getter
+@ConfigurationProperties(prefix = "docsapi.sql")
+public class SqlBudgetProperties {
+
+    /**
+     * Counts rows read per request; every result set is proxied, so keep it off in production.
+     */
+    private boolean countRows;
+
+    /**
+     * Adds X-SQL-Statements, X-SQL-Rows and X-SQL-Budget to responses.
+     */
+    private boolean responseHeaders;
+
+    /**
+     * Statements allowed per request on routes without their own budget.
+     */
+    private int defaultBudget = 25;
+
+    /**
+     * Statements allowed per request, keyed by method and route pattern such as
+     * {@code GET /api/documents/{docId}}, or by route pattern alone for every method.
+     */
+    private Map<String, Integer> budgets = new LinkedHashMap<>();
+
+    /**
+     * The same statement text run this many times in one request is reported as a likely N+1.
+     */
+    private int repeatedStatementThreshold = 10;
+
+    public int budgetFor(String method, String route) {
+        if (route == null) {
+            return defaultBudget;
+        }
+        Integer budget = budgets.get(method + " " + route);
+        return budget != null ? budget : budgets.getOrDefault(route, defaultBudget);
+    }
+}
@@ -0,0 +1,108 @@
+package fr.norsys.docsapi.utils;
+
+import net.ttddyy.dsproxy.ExecutionInfo;
+import net.ttddyy.dsproxy.QueryInfo;
+import net.ttddyy.dsproxy.listener.MethodExecutionContext;
+import net.ttddyy.dsproxy.listener.MethodExecutionListener;
+import net.ttddyy.dsproxy.listener.QueryExecutionListener;
+import net.ttddyy.dsproxy.support.ProxyDataSource;
+import net.ttddyy.dsproxy.support.ProxyDataSourceBuilder;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.beans.factory.config.BeanPostProcessor;
+import org.springframework.stereotype.Component;
+
+import javax.sql.DataSource;
+import java.sql.ResultSet;
+import java.util.List;
+
+/**
+ * Wraps the application DataSource with datasource-proxy and accounts the SQL run on the current
+ * thread between {@link #start()} and {@link #stop()}. Everything going through the pool is seen,
+ * JPA, native queries and JdbcTemplate alike.
+ * <p>
+ * The stats live in a thread local and are not handed to other threads. Work a request moves off
+ * its thread is not counted: streamed response bodies, files staged on the ingestion executor and
+ * storage backend callbacks. Neither of the latter two runs SQL today; the blob store waits for
+ * its transfers and writes its rows on the request thread. Any SQL moved onto an executor would
+ * drop out of the budgets.
+ */
+@Component
+public class SqlStatementCounter implements BeanPostProcessor {
+
+    private static final ThreadLocal<SqlStatementStats> CURRENT = new ThreadLocal<>();
+
+    private final boolean countRows;
+
+    public SqlStatementCounter(@Value("${docsapi.sql.count-rows:false}") boolean countRows) {
+        this.countRows = countRows;
+    }
+
+    @Override
+    public Object postProcessAfterInitialization(Object bean, String beanName) {
+        if (!(bean instanceof DataSource dataSource) || bean instanceof ProxyDataSource) {
+            return bean;
+        }
+        ProxyDataSourceBuilder builder = ProxyDataSourceBuilder.create(beanName, dataSource)
+                .listener(new StatementListener());
+        if (countRows) {
+            builder.proxyResultSet().methodListener(new RowListener());
+        }
+        return builder.build();
+    }
+
+    public void start() {
+        CURRENT.set(new SqlStatementStats());
+    }
+
+    /**
+     * What ran since {@link #start()}, or null when nothing was counted on this thread.
+     */
+    public SqlStatementStats current() {
+        return CURRENT.get();
+    }
+
+    /**
+     * What ran since {@link #start()}; counting stops on this thread.
+     */
+    public SqlStatementStats stop() {
+        SqlStatementStats stats = CURRENT.get();
+        CURRENT.remove();
+        return stats == null ? new SqlStatementStats() : stats;
+    }
+
+    public boolean countsRows() {
+        return countRows;
+    }
+
+    private static class StatementListener implements QueryExecutionListener {
+
+        @Override
+        public void beforeQuery(ExecutionInfo execInfo, List<QueryInfo> queryInfoList) {
+        }
+
+        @Override
+        public void afterQuery(ExecutionInfo execInfo, List<QueryInfo> queryInfoList) {
+            SqlStatementStats stats = CURRENT.get();
+            if (stats != null && !queryInfoList.isEmpty()) {
+                stats.executed(queryInfoList.get(0).getQuery());
+            }
+        }
+    }
+
+    private static class RowListener implements MethodExecutionListener {
+
+        @Override
+        public void beforeMethod(MethodExecutionContext executionContext) {
+        }
+
+        @Override
+        public void afterMethod(MethodExecutionContext executionContext) {
+            SqlStatementStats stats = CURRENT.get();
+            if (stats != null && executionContext.getTarget() instanceof ResultSet
+                    && "next".equals(executionContext.getMethod().getName())
+                    && Boolean.TRUE.equals(executionContext.getResult())) {
+                stats.rowRead();
+            }
+        }
+    }
+}
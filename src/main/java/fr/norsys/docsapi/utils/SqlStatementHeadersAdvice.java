@@ -0,0 +1,53 @@
+package fr.norsys.docsapi.utils;
+
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.core.MethodParameter;
+import org.springframework.http.MediaType;
+import org.springframework.http.converter.HttpMessageConverter;
+import org.springframework.http.server.ServerHttpRequest;
+import org.springframework.http.server.ServerHttpResponse;
+import org.springframework.web.bind.annotation.ControllerAdvice;
+import org.springframework.web.context.request.RequestAttributes;
+import org.springframework.web.context.request.RequestContextHolder;
+import org.springframework.web.servlet.HandlerMapping;
+import org.springframework.web.servlet.mvc.method.annotation.ResponseBodyAdvice;
+
+/**
+ * Development aid: reports the SQL run so far as X-SQL-Statements, X-SQL-Rows and X-SQL-Budget
+ * response headers, set just before the body is written. Enabled by
+ * {@code docsapi.sql.response-headers}; keep it off in production.
+ */
+@ControllerAdvice
+@ConditionalOnProperty(name = "docsapi.sql.response-headers", havingValue = "true")
+public class SqlStatementHeadersAdvice implements ResponseBodyAdvice<Object> {
+
+    private final SqlStatementCounter counter;
+    private final SqlBudgetProperties properties;
+
+    public SqlStatementHeadersAdvice(SqlStatementCounter counter, SqlBudgetProperties properties) {
+        this.counter = counter;
+        this.properties = properties;
+    }
+
+    @Override
+    public boolean supports(MethodParameter returnType, Class<? extends HttpMessageConverter<?>> converterType) {
+        return true;
+    }
+
+    @Override
+    public Object beforeBodyWrite(Object body, MethodParameter returnType, MediaType selectedContentType,
+                                  Class<? extends HttpMessageConverter<?>> selectedConverterType,
+                                  ServerHttpRequest request, ServerHttpResponse response) {
+        SqlStatementStats stats = counter.current();
+        if (stats != null) {
+            response.getHeaders().set("X-SQL-Statements", String.valueOf(stats.statements()));
+            if (counter.countsRows()) {
+                response.getHeaders().set("X-SQL-Rows", String.valueOf(stats.rows()));
+            }
+            Object pattern = RequestContextHolder.currentRequestAttributes()
+                    .getAttribute(HandlerMapping.BEST_MATCHING_PATTERN_ATTRIBUTE, RequestAttributes.SCOPE_REQUEST);
+            response.getHeaders().set("X-SQL-Budget", String.valueOf(properties.budgetFor(request.getMethod().name(), pattern == null ? null : pattern.toString())));
+        }
+        return body;
+    }
+}
@@ -0,0 +1,85 @@
+package fr.norsys.docsapi.utils;
+
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.core.Ordered;
+import org.springframework.core.annotation.Order;
+import org.springframework.stereotype.Component;
+import org.springframework.web.filter.OncePerRequestFilter;
+import org.springframework.web.servlet.HandlerMapping;
+
+import java.io.IOException;
+import java.util.Map;
+
+/**
+ * Records the SQL of each request, tagged with the route: statements as
+ * {@code docsapi.http.sql.statements}, rows read as {@code docsapi.http.sql.rows} when row counting
+ * is on, and requests going over their statement budget as {@code docsapi.http.sql.budget.exceeded}.
+ * Over budget requests and statements repeated often enough to look like an N+1 are logged.
+ * Only statements run on the request thread are counted (see {@link SqlStatementCounter}):
+ * streamed response bodies run after it returns and are not.
+ */
+@Component
+@Order(Ordered.HIGHEST_PRECEDENCE + 2)
+public class SqlStatementMetricsFilter extends OncePerRequestFilter {
+
+    private static final Logger logger = LoggerFactory.getLogger(SqlStatementMetricsFilter.class);
+
+    private final SqlStatementCounter counter;
+    private final SqlBudgetProperties properties;
+    private final MeterRegistry meterRegistry;
+
+    public SqlStatementMetricsFilter(SqlStatementCounter counter, SqlBudgetProperties properties, MeterRegistry meterRegistry) {
+        this.counter = counter;
+        this.properties = properties;
+        this.meterRegistry = meterRegistry;
+    }
+
+    @Override
+    protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response, FilterChain filterChain)
+            throws ServletException, IOException {
+        counter.start();
+        try {
+            filterChain.doFilter(request, response);
+        } finally {
+            SqlStatementStats stats = counter.stop();
+            Object pattern = request.getAttribute(HandlerMapping.BEST_MATCHING_PATTERN_ATTRIBUTE);
+            String uri = pattern == null ? "UNKNOWN" : pattern.toString();
+            DistributionSummary.builder("docsapi.http.sql.statements")
+                    .description("SQL statements executed per HTTP request")
+                    .tag("method", request.getMethod())
+                    .tag("uri", uri)
+                    .publishPercentileHistogram()
+                    .register(meterRegistry)
+                    .record(stats.statements());
+            if (counter.countsRows()) {
+                DistributionSummary.builder("docsapi.http.sql.rows")
+                        .description("Rows read per HTTP request")
+                        .tag("method", request.getMethod())
+                        .tag("uri", uri)
+                        .publishPercentileHistogram()
+                        .register(meterRegistry)
+                        .record(stats.rows());
+            }
+            check(request, uri, stats);
+        }
+    }
+
+    private void check(HttpServletRequest request, String uri, SqlStatementStats stats) {
+        int budget = properties.budgetFor(request.getMethod(), uri);
+        if (stats.statements() > budget) {
+            meterRegistry.counter("docsapi.http.sql.budget.exceeded", "method", request.getMethod(), "uri", uri).increment();
+            logger.warn("{} {} ran {} SQL statements, its budget is {}", request.getMethod(), uri, stats.statements(), budget);
+        }
+        Map.Entry<String, Integer> repeated = stats.mostRepeated();
+        if (repeated != null && repeated.getValue() >= properties.getRepeatedStatementThreshold()) {
+            logger.warn("Possible N+1 on {} {}: ran {} times: {}", request.getMethod(), uri, repeated.getValue(), repeated.getKey());
+        }
+    }
+}
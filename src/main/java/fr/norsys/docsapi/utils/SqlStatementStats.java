@@ -0,0 +1,39 @@
+package fr.norsys.docsapi.utils;
+
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * SQL executed by one request: statements (a JDBC batch counts once), rows read and how many
+ * times each statement text ran.
+ */
+public class SqlStatementStats {
+
+    private int statements;
+    private long rows;
+    private final Map<String, Integer> executions = new HashMap<>();
+
+    void executed(String sql) {
+        statements++;
+        executions.merge(sql, 1, Integer::sum);
+    }
+
+    void rowRead() {
+        rows++;
+    }
+
+    public int statements() {
+        return statements;
+    }
+
+    public long rows() {
+        return rows;
+    }
+
+    /**
+     * The statement text that ran the most times, or null when nothing ran.
+     */
+    public Map.Entry<String, Integer> mostRepeated() {
+        return executions.entrySet().stream().max(Map.Entry.comparingByValue()).orElse(null);
+    }
+}
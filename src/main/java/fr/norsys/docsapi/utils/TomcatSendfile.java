@@ -0,0 +1,48 @@
+package fr.norsys.docsapi.utils;
+
+import jakarta.servlet.http.HttpServletRequest;
+import org.springframework.core.io.Resource;
+import org.springframework.web.context.request.RequestAttributes;
+import org.springframework.web.context.request.RequestContextHolder;
+import org.springframework.web.context.request.ServletRequestAttributes;
+
+import java.io.IOException;
+
+/**
+ * Hands a file slice to Tomcat's sendfile: once the servlet returns, the connector writes it to
+ * the socket with {@code FileChannel.transferTo}, so the bytes never go through the heap. Tomcat
+ * only offers it on plain (non TLS) NIO connectors. Small files are cheaper to copy, so as in
+ * Tomcat's DefaultServlet sendfile is only used from {@link #MIN_SIZE} up.
+ */
+final class TomcatSendfile {
+
+    static final String SUPPORT = "org.apache.tomcat.sendfile.support";
+    static final String FILENAME = "org.apache.tomcat.sendfile.filename";
+    static final String START = "org.apache.tomcat.sendfile.start";
+    static final String END = "org.apache.tomcat.sendfile.end";
+    static final long MIN_SIZE = 48 * 1024;
+
+    private TomcatSendfile() {
+    }
+
+    /**
+     * Whether Tomcat will send the slice itself; the caller must then leave the body empty.
+     */
+    static boolean offer(Resource resource, long start, long length) throws IOException {
+        if (length < MIN_SIZE || !resource.isFile()) {
+            return false;
+        }
+        RequestAttributes attributes = RequestContextHolder.getRequestAttributes();
+        if (!(attributes instanceof ServletRequestAttributes servletAttributes)) {
+            return false;
+        }
+        HttpServletRequest request = servletAttributes.getRequest();
+        if (!Boolean.TRUE.equals(request.getAttribute(SUPPORT))) {
+            return false;
+        }
+        request.setAttribute(FILENAME, resource.getFile().getCanonicalPath());
+        request.setAttribute(START, start);
+        request.setAttribute(END, start + length);
+        return true;
+    }
+}
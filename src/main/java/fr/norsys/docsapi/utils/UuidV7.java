@@ -0,0 +1,24 @@
+package fr.norsys.docsapi.utils;
+
+import java.util.UUID;
+import java.util.concurrent.ThreadLocalRandom;
+
+/**
+ * Time ordered UUIDs (RFC 9562 version 7): 48 bits of Unix epoch milliseconds followed by random
+ * bits, so new rows land at the right edge of the primary key B-tree.
+ */
+public class UuidV7 {
+
+    public static UUID randomUuid() {
+        return fromEpochMillis(System.currentTimeMillis());
+    }
+
+    public static UUID fromEpochMillis(long epochMillis) {
+        ThreadLocalRandom random = ThreadLocalRandom.current();
+        long mostSigBits = (epochMillis & 0xFFFF_FFFF_FFFFL) << 16
+                | 0x7000L
+                | (random.nextLong() & 0x0FFFL);
+        long leastSigBits = (random.nextLong() & 0x3FFF_FFFF_FFFF_FFFFL) | 0x8000_0000_0000_0000L;
+        return new UUID(mostSigBits, leastSigBits);
+    }
+}
@@ -0,0 +1,29 @@
+package fr.norsys.docsapi.utils;
+
+import org.springframework.context.annotation.Configuration;
+import org.springframework.http.converter.HttpMessageConverter;
+import org.springframework.http.converter.ResourceHttpMessageConverter;
+import org.springframework.http.converter.ResourceRegionHttpMessageConverter;
+import org.springframework.web.servlet.config.annotation.WebMvcConfigurer;
+
+import java.util.List;
+
+/**
+ * Swaps the default resource converters for variants that hand large files to Tomcat's sendfile.
+ */
+@Configuration
+public class WebMvcConfig implements WebMvcConfigurer {
+
+    @Override
+    public void extendMessageConverters(List<HttpMessageConverter<?>> converters) {
+        converters.replaceAll(converter -> {
+            if (converter.getClass() == ResourceHttpMessageConverter.class) {
+                return new SendfileResourceHttpMessageConverter();
+            }
+            if (converter.getClass() == ResourceRegionHttpMessageConverter.class) {
+                return new SendfileResourceRegionHttpMessageConverter();
+            }
+            return converter;
+        });
+    }
+}
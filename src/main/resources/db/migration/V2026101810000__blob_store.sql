@@ -0,0 +1,11 @@
+CREATE TABLE IF NOT EXISTS blob (
+    checksum VARCHAR(64) PRIMARY KEY,
+    size BIGINT NOT NULL,
+    ref_count INTEGER NOT NULL DEFAULT 0,
+    creation_date TIMESTAMP DEFAULT CURRENT_TIMESTAMP
+);
+
+-- Not backfilled from document: existing documents keep their flat files, so their content was
+-- never written under a blob key and they hold no blob reference
+
+CREATE INDEX IF NOT EXISTS idx_document_owner_checksum ON document (owner_id, checksum);
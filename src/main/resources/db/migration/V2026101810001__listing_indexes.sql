@@ -0,0 +1,4 @@
+CREATE INDEX IF NOT EXISTS idx_document_owner_id ON document (owner_id);
+CREATE INDEX IF NOT EXISTS idx_metadata_document_id ON metadata (document_id);
+CREATE INDEX IF NOT EXISTS idx_permissions_document_id ON permissions (document_id);
+CREATE INDEX IF NOT EXISTS idx_permissions_user_id ON permissions (user_id);
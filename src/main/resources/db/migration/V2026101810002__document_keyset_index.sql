@@ -0,0 +1,3 @@
+CREATE INDEX IF NOT EXISTS idx_document_owner_creation_id ON document (owner_id, creation_date DESC, id DESC);
+
+DROP INDEX IF EXISTS idx_document_owner_id;
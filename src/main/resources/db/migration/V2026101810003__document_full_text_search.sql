@@ -0,0 +1,47 @@
+ALTER TABLE document ADD COLUMN IF NOT EXISTS search_vector tsvector;
+
+CREATE OR REPLACE FUNCTION build_document_search_vector(doc_name TEXT, doc_type TEXT, doc_id UUID) RETURNS tsvector AS $$
+    SELECT setweight(to_tsvector('simple', coalesce(doc_name, '') || ' ' || regexp_replace(coalesce(doc_name, ''), '[^[:alnum:]]+', ' ', 'g')), 'A')
+        || setweight(to_tsvector('simple', regexp_replace(coalesce(doc_type, ''), '[^[:alnum:]]+', ' ', 'g')), 'B')
+        || setweight(to_tsvector('simple', coalesce((SELECT string_agg(m.key || ' ' || m.value, ' ')
+                                                     FROM metadata m
+                                                     WHERE m.document_id = doc_id), '')), 'C');
+$$ LANGUAGE sql STABLE;
+
+CREATE OR REPLACE FUNCTION document_search_vector_trigger() RETURNS trigger AS $$
+BEGIN
+    NEW.search_vector := build_document_search_vector(NEW.name, NEW.type, NEW.id);
+    RETURN NEW;
+END
+$$ LANGUAGE plpgsql;
+
+DROP TRIGGER IF EXISTS document_search_vector_update ON document;
+CREATE TRIGGER document_search_vector_update
+    BEFORE INSERT OR UPDATE OF name, type ON document
+    FOR EACH ROW EXECUTE FUNCTION document_search_vector_trigger();
+
+CREATE OR REPLACE FUNCTION metadata_search_vector_trigger() RETURNS trigger AS $$
+DECLARE
+    doc_id UUID := CASE WHEN TG_OP = 'DELETE' THEN OLD.document_id ELSE NEW.document_id END;
+BEGIN
+    UPDATE document d
+    SET search_vector = build_document_search_vector(d.name, d.type, d.id)
+    WHERE d.id = doc_id;
+    IF TG_OP = 'UPDATE' AND OLD.document_id IS DISTINCT FROM NEW.document_id THEN
+        UPDATE document d
+        SET search_vector = build_document_search_vector(d.name, d.type, d.id)
+        WHERE d.id = OLD.document_id;
+    END IF;
+    RETURN NULL;
+END
+$$ LANGUAGE plpgsql;
+
+DROP TRIGGER IF EXISTS metadata_search_vector_update ON metadata;
+CREATE TRIGGER metadata_search_vector_update
+    AFTER INSERT OR UPDATE OR DELETE ON metadata
+    FOR EACH ROW EXECUTE FUNCTION metadata_search_vector_trigger();
+
+UPDATE document SET search_vector = build_document_search_vector(name, type, id);
+
+CREATE INDEX IF NOT EXISTS idx_document_search_vector ON document USING GIN (search_vector);
+CREATE INDEX IF NOT EXISTS idx_metadata_key_value ON metadata (key, value);
@@ -0,0 +1,3 @@
+CREATE INDEX IF NOT EXISTS idx_permissions_document_user ON permissions (document_id, user_id);
+
+DROP INDEX IF EXISTS idx_permissions_document_id;
@@ -0,0 +1,11 @@
+DELETE FROM permissions a
+USING permissions b
+WHERE a.ctid < b.ctid
+  AND a.document_id = b.document_id
+  AND a.user_id = b.user_id
+  AND a.permission = b.permission;
+
+ALTER TABLE permissions
+    ADD CONSTRAINT uq_permissions_document_user_permission UNIQUE (document_id, user_id, permission);
+
+DROP INDEX IF EXISTS idx_permissions_document_user;
@@ -0,0 +1,135 @@
+CREATE TABLE IF NOT EXISTS user_groups (
+    id UUID PRIMARY KEY DEFAULT uuid_generate_v4(),
+    name VARCHAR(255) NOT NULL,
+    owner_id UUID NOT NULL,
+    creation_date TIMESTAMP DEFAULT CURRENT_TIMESTAMP,
+    CONSTRAINT fk_group_owner_id FOREIGN KEY (owner_id) REFERENCES "users"(id) ON DELETE CASCADE
+);
+CREATE INDEX IF NOT EXISTS idx_user_groups_owner_id ON user_groups (owner_id);
+
+CREATE TABLE IF NOT EXISTS group_memberships (
+    id UUID PRIMARY KEY DEFAULT uuid_generate_v4(),
+    group_id UUID NOT NULL,
+    user_id UUID NOT NULL,
+    CONSTRAINT fk_membership_group_id FOREIGN KEY (group_id) REFERENCES user_groups(id) ON DELETE CASCADE,
+    CONSTRAINT fk_membership_user_id FOREIGN KEY (user_id) REFERENCES "users"(id) ON DELETE CASCADE,
+    CONSTRAINT uq_group_memberships_group_user UNIQUE (group_id, user_id)
+);
+CREATE INDEX IF NOT EXISTS idx_group_memberships_user_id ON group_memberships (user_id);
+
+CREATE TABLE IF NOT EXISTS group_permissions (
+    id UUID PRIMARY KEY DEFAULT uuid_generate_v4(),
+    document_id UUID NOT NULL,
+    group_id UUID NOT NULL,
+    permission VARCHAR(10) NOT NULL CHECK (permission IN ('READ', 'WRITE', 'DELETE', 'SHARE', 'ALL')),
+    CONSTRAINT fk_group_permission_document_id FOREIGN KEY (document_id) REFERENCES document(id) ON DELETE CASCADE,
+    CONSTRAINT fk_group_permission_group_id FOREIGN KEY (group_id) REFERENCES user_groups(id) ON DELETE CASCADE,
+    CONSTRAINT uq_group_permissions_document_group_permission UNIQUE (document_id, group_id, permission)
+);
+CREATE INDEX IF NOT EXISTS idx_group_permissions_group_id ON group_permissions (group_id);
+
+-- One row per (user, document) with the OR of direct and group grants. The primary key
+-- includes the mask so both sharedWithMe and ACL checks are index-only scans.
+CREATE TABLE IF NOT EXISTS effective_permissions (
+    user_id UUID NOT NULL,
+    document_id UUID NOT NULL,
+    mask SMALLINT NOT NULL,
+    CONSTRAINT pk_effective_permissions PRIMARY KEY (user_id, document_id) INCLUDE (mask),
+    CONSTRAINT fk_effective_user_id FOREIGN KEY (user_id) REFERENCES "users"(id) ON DELETE CASCADE,
+    CONSTRAINT fk_effective_document_id FOREIGN KEY (document_id) REFERENCES document(id) ON DELETE CASCADE
+);
+CREATE INDEX IF NOT EXISTS idx_effective_permissions_document_id ON effective_permissions (document_id);
+
+CREATE OR REPLACE FUNCTION permission_mask(permission TEXT) RETURNS SMALLINT AS $$
+    SELECT (CASE permission WHEN 'READ' THEN 1 WHEN 'WRITE' THEN 2 WHEN 'DELETE' THEN 4 WHEN 'ALL' THEN 7 ELSE 0 END)::SMALLINT;
+$$ LANGUAGE sql IMMUTABLE;
+
+-- Recomputes every (document, user) pair of the two sets from the grant tables.
+CREATE OR REPLACE FUNCTION refresh_effective_permissions(doc_ids UUID[], user_ids UUID[]) RETURNS void AS $$
+BEGIN
+    IF cardinality(doc_ids) = 0 OR cardinality(user_ids) = 0 THEN
+        RETURN;
+    END IF;
+
+    DELETE FROM effective_permissions e
+    WHERE e.document_id = ANY (doc_ids) AND e.user_id = ANY (user_ids);
+
+    INSERT INTO effective_permissions (user_id, document_id, mask)
+    SELECT g.user_id, g.document_id, bit_or(permission_mask(g.permission))
+    FROM (SELECT p.user_id, p.document_id, p.permission
+          FROM permissions p
+          WHERE p.document_id = ANY (doc_ids) AND p.user_id = ANY (user_ids)
+          UNION ALL
+          SELECT gm.user_id, gp.document_id, gp.permission
+          FROM group_permissions gp
+          JOIN group_memberships gm ON gm.group_id = gp.group_id
+          WHERE gp.document_id = ANY (doc_ids) AND gm.user_id = ANY (user_ids)) g
+    JOIN document d ON d.id = g.document_id
+    JOIN "users" u ON u.id = g.user_id
+    GROUP BY g.user_id, g.document_id;
+END
+$$ LANGUAGE plpgsql;
+
+CREATE OR REPLACE FUNCTION permissions_effective_trigger() RETURNS trigger AS $$
+BEGIN
+    PERFORM refresh_effective_permissions(
+        ARRAY(SELECT DISTINCT c.document_id FROM changed_rows c),
+        ARRAY(SELECT DISTINCT c.user_id FROM changed_rows c));
+    RETURN NULL;
+END
+$$ LANGUAGE plpgsql;
+
+CREATE OR REPLACE FUNCTION group_permissions_effective_trigger() RETURNS trigger AS $$
+BEGIN
+    PERFORM refresh_effective_permissions(
+        ARRAY(SELECT DISTINCT c.document_id FROM changed_rows c),
+        ARRAY(SELECT DISTINCT gm.user_id FROM group_memberships gm
+              WHERE gm.group_id IN (SELECT c.group_id FROM changed_rows c)));
+    RETURN NULL;
+END
+$$ LANGUAGE plpgsql;
+
+CREATE OR REPLACE FUNCTION group_memberships_effective_trigger() RETURNS trigger AS $$
+BEGIN
+    PERFORM refresh_effective_permissions(
+        ARRAY(SELECT DISTINCT gp.document_id FROM group_permissions gp
+              WHERE gp.group_id IN (SELECT c.group_id FROM changed_rows c)),
+        ARRAY(SELECT DISTINCT c.user_id FROM changed_rows c));
+    RETURN NULL;
+END
+$$ LANGUAGE plpgsql;
+
+-- Statement level triggers with transition tables, so a bulk share recomputes its pairs once
+CREATE TRIGGER permissions_effective_insert AFTER INSERT ON permissions
+    REFERENCING NEW TABLE AS changed_rows FOR EACH STATEMENT EXECUTE FUNCTION permissions_effective_trigger();
+CREATE TRIGGER permissions_effective_update_new AFTER UPDATE ON permissions
+    REFERENCING NEW TABLE AS changed_rows FOR EACH STATEMENT EXECUTE FUNCTION permissions_effective_trigger();
+CREATE TRIGGER permissions_effective_update_old AFTER UPDATE ON permissions
+    REFERENCING OLD TABLE AS changed_rows FOR EACH STATEMENT EXECUTE FUNCTION permissions_effective_trigger();
+CREATE TRIGGER permissions_effective_delete AFTER DELETE ON permissions
+    REFERENCING OLD TABLE AS changed_rows FOR EACH STATEMENT EXECUTE FUNCTION permissions_effective_trigger();
+
+CREATE TRIGGER group_permissions_effective_insert AFTER INSERT ON group_permissions
+    REFERENCING NEW TABLE AS changed_rows FOR EACH STATEMENT EXECUTE FUNCTION group_permissions_effective_trigger();
+CREATE TRIGGER group_permissions_effective_update_new AFTER UPDATE ON group_permissions
+    REFERENCING NEW TABLE AS changed_rows FOR EACH STATEMENT EXECUTE FUNCTION group_permissions_effective_trigger();
+CREATE TRIGGER group_permissions_effective_update_old AFTER UPDATE ON group_permissions
+    REFERENCING OLD TABLE AS changed_rows FOR EACH STATEMENT EXECUTE FUNCTION group_permissions_effective_trigger();
+CREATE TRIGGER group_permissions_effective_delete AFTER DELETE ON group_permissions
+    REFERENCING OLD TABLE AS changed_rows FOR EACH STATEMENT EXECUTE FUNCTION group_permissions_effective_trigger();
+
+CREATE TRIGGER group_memberships_effective_insert AFTER INSERT ON group_memberships
+    REFERENCING NEW TABLE AS changed_rows FOR EACH STATEMENT EXECUTE FUNCTION group_memberships_effective_trigger();
+CREATE TRIGGER group_memberships_effective_update_new AFTER UPDATE ON group_memberships
+    REFERENCING NEW TABLE AS changed_rows FOR EACH STATEMENT EXECUTE FUNCTION group_memberships_effective_trigger();
+CREATE TRIGGER group_memberships_effective_update_old AFTER UPDATE ON group_memberships
+    REFERENCING OLD TABLE AS changed_rows FOR EACH STATEMENT EXECUTE FUNCTION group_memberships_effective_trigger();
+CREATE TRIGGER group_memberships_effective_delete AFTER DELETE ON group_memberships
+    REFERENCING OLD TABLE AS changed_rows FOR EACH STATEMENT EXECUTE FUNCTION group_memberships_effective_trigger();
+
+INSERT INTO effective_permissions (user_id, document_id, mask)
+SELECT p.user_id, p.document_id, bit_or(permission_mask(p.permission))
+FROM permissions p
+WHERE p.user_id IS NOT NULL AND p.document_id IS NOT NULL
+GROUP BY p.user_id, p.document_id
+ON CONFLICT DO NOTHING;
@@ -0,0 +1,8 @@
+ALTER TABLE blob ADD COLUMN IF NOT EXISTS codec VARCHAR(10) NOT NULL DEFAULT 'NONE';
+ALTER TABLE blob ADD COLUMN IF NOT EXISTS stored_size BIGINT;
+UPDATE blob SET stored_size = size WHERE stored_size IS NULL;
+ALTER TABLE blob ALTER COLUMN stored_size SET NOT NULL;
+
+ALTER TABLE document ADD COLUMN IF NOT EXISTS codec VARCHAR(10) NOT NULL DEFAULT 'NONE';
+ALTER TABLE document ADD COLUMN IF NOT EXISTS stored_size BIGINT;
+UPDATE document SET stored_size = size WHERE stored_size IS NULL;
@@ -0,0 +1,25 @@
+-- Resumable uploads: the file is assembled under file.upload-dir/uploads/<id>.part, one row per
+-- received chunk so retries are idempotent and clients can ask which chunks are still missing.
+CREATE TABLE IF NOT EXISTS upload_sessions (
+    id UUID PRIMARY KEY,
+    user_id UUID NOT NULL,
+    name VARCHAR(255) NOT NULL,
+    size BIGINT NOT NULL,
+    chunk_size INTEGER NOT NULL,
+    chunk_count INTEGER NOT NULL,
+    metadata TEXT,
+    creation_date TIMESTAMP DEFAULT CURRENT_TIMESTAMP,
+    expiration_date TIMESTAMP NOT NULL,
+    CONSTRAINT fk_upload_session_user_id FOREIGN KEY (user_id) REFERENCES "users"(id) ON DELETE CASCADE
+);
+CREATE INDEX IF NOT EXISTS idx_upload_sessions_user_id ON upload_sessions (user_id);
+CREATE INDEX IF NOT EXISTS idx_upload_sessions_expiration_date ON upload_sessions (expiration_date);
+
+CREATE TABLE IF NOT EXISTS upload_chunks (
+    session_id UUID NOT NULL,
+    chunk_index INTEGER NOT NULL,
+    size INTEGER NOT NULL,
+    checksum VARCHAR(64) NOT NULL,
+    CONSTRAINT pk_upload_chunks PRIMARY KEY (session_id, chunk_index),
+    CONSTRAINT fk_upload_chunk_session_id FOREIGN KEY (session_id) REFERENCES upload_sessions(id) ON DELETE CASCADE
+);
@@ -0,0 +1,232 @@
+package fr.norsys.docsapi.controller;
+
+import fr.norsys.docsapi.dto.document.DocumentDownloadDto;
+import fr.norsys.docsapi.entity.StorageCodec;
+import fr.norsys.docsapi.exception.CustomExceptionHandler;
+import fr.norsys.docsapi.service.IDocumentService;
+import fr.norsys.docsapi.storage.BlobCompressor;
+import fr.norsys.docsapi.storage.DecodedResource;
+import fr.norsys.docsapi.storage.RangeReadableResource;
+import fr.norsys.docsapi.utils.DocumentFields;
+import fr.norsys.docsapi.utils.SendfileResourceHttpMessageConverter;
+import fr.norsys.docsapi.utils.SendfileResourceRegionHttpMessageConverter;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.core.io.ByteArrayResource;
+import org.springframework.core.io.FileSystemResource;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.http.converter.StringHttpMessageConverter;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.MvcResult;
+import org.springframework.test.web.servlet.setup.MockMvcBuilders;
+import org.springframework.transaction.CannotCreateTransactionException;
+import org.springframework.web.server.ResponseStatusException;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.sql.SQLTransientConnectionException;
+import java.util.List;
+
+import static org.hamcrest.Matchers.hasItem;
+import static org.hamcrest.Matchers.nullValue;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.asyncDispatch;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.content;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.header;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.request;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+class DocumentControllerTests {
+
+    private static final String DOC_ID = "3f2b7c1e-0000-4000-8000-000000000001";
+    private static final String GZIP_DOC_ID = "3f2b7c1e-0000-4000-8000-000000000002";
+    private static final String LARGE_DOC_ID = "3f2b7c1e-0000-4000-8000-000000000003";
+    private static final String RANGED_DOC_ID = "3f2b7c1e-0000-4000-8000-000000000004";
+    private static final String CHECKSUM = "abcdef";
+    private static final long LAST_MODIFIED = 1_700_000_000_000L;
+
+    @TempDir
+    Path tempDir;
+
+    private MockMvc mockMvc;
+    private Path gzipped;
+    private Path large;
+
+    @BeforeEach
+    void setUp() throws Exception {
+        Path file = tempDir.resolve("report.txt");
+        Files.writeString(file, "0123456789", StandardCharsets.US_ASCII);
+
+        IDocumentService documentService = mock(IDocumentService.class);
+        when(documentService.download(DOC_ID)).thenReturn(DocumentDownloadDto.builder()
+                .resource(new FileSystemResource(file))
+                .name("report.txt")
+                .type("text/plain")
+                .checksum(CHECKSUM)
+                .lastModified(LAST_MODIFIED)
+                .build());
+
+        String text = "line of text\n".repeat(200);
+        Path textFile = tempDir.resolve("notes.txt");
+        Files.writeString(textFile, text, StandardCharsets.US_ASCII);
+        gzipped = new BlobCompressor(true, 1024, 6, List.of("text/")).compress(textFile, text.length()).orElseThrow();
+        FileSystemResource encoded = new FileSystemResource(gzipped);
+        when(documentService.download(GZIP_DOC_ID)).thenReturn(DocumentDownloadDto.builder()
+                .resource(new DecodedResource(encoded, StorageCodec.GZIP, text.length()))
+                .encodedResource(encoded)
+                .codec(StorageCodec.GZIP)
+                .name("notes.txt")
+                .type("text/plain")
+                .checksum(CHECKSUM)
+                .lastModified(LAST_MODIFIED)
+                .build());
+        large = Files.write(tempDir.resolve("large.bin"), new byte[64 * 1024]);
+        when(documentService.download(LARGE_DOC_ID)).thenReturn(DocumentDownloadDto.builder()
+                .resource(new FileSystemResource(large))
+                .name("large.bin")
+                .type("application/octet-stream")
+                .checksum(CHECKSUM)
+                .lastModified(LAST_MODIFIED)
+                .build());
+        when(documentService.download(RANGED_DOC_ID)).thenReturn(DocumentDownloadDto.builder()
+                .resource(new RangedResource("0123456789".getBytes(StandardCharsets.US_ASCII)))
+                .name("remote.txt")
+                .type("text/plain")
+                .checksum(CHECKSUM)
+                .lastModified(LAST_MODIFIED)
+                .build());
+        when(documentService.streamList(true, DocumentFields.ALL)).thenReturn(outputStream -> outputStream.write("{\"name\":\"a\"}\n{\"name\":\"b\"}".getBytes(StandardCharsets.UTF_8)));
+
+        SQLTransientConnectionException poolTimeout = new SQLTransientConnectionException("HikariPool-1 - Connection is not available, request timed out after 2000ms.");
+        when(documentService.getList()).thenThrow(new CannotCreateTransactionException("Could not open JPA EntityManager for transaction", poolTimeout));
+        when(documentService.sharedWithMe()).thenThrow(new ResponseStatusException(HttpStatus.INTERNAL_SERVER_ERROR, "Error retrieving documents", poolTimeout));
+
+        mockMvc = MockMvcBuilders.standaloneSetup(new DocumentController(documentService))
+                .setControllerAdvice(new CustomExceptionHandler())
+                .setMessageConverters(new SendfileResourceHttpMessageConverter(), new SendfileResourceRegionHttpMessageConverter(),
+                        new StringHttpMessageConverter())
+                .build();
+    }
+
+    @Test
+    void downloadServesFullBodyWithValidators() throws Exception {
+        mockMvc.perform(get("/api/documents/download/" + DOC_ID))
+                .andExpect(status().isOk())
+                .andExpect(header().string(HttpHeaders.ETAG, "\"" + CHECKSUM + "\""))
+                .andExpect(header().string(HttpHeaders.ACCEPT_RANGES, "bytes"))
+                .andExpect(content().string("0123456789"));
+    }
+
+    @Test
+    void downloadServesRequestedRange() throws Exception {
+        mockMvc.perform(get("/api/documents/download/" + DOC_ID).header(HttpHeaders.RANGE, "bytes=2-5"))
+                .andExpect(status().isPartialContent())
+                .andExpect(header().string(HttpHeaders.CONTENT_RANGE, "bytes 2-5/10"))
+                .andExpect(content().string("2345"));
+    }
+
+    @Test
+    void rangeOfARangeReadableResourceIsFetchedOnItsOwn() throws Exception {
+        mockMvc.perform(get("/api/documents/download/" + RANGED_DOC_ID).header(HttpHeaders.RANGE, "bytes=-3"))
+                .andExpect(status().isPartialContent())
+                .andExpect(header().string(HttpHeaders.CONTENT_RANGE, "bytes 7-9/10"))
+                .andExpect(header().longValue(HttpHeaders.CONTENT_LENGTH, 3))
+                .andExpect(content().string("789"));
+    }
+
+    @Test
+    void largeDownloadsAreLeftToSendfileWhenTheConnectorSupportsIt() throws Exception {
+        mockMvc.perform(get("/api/documents/download/" + LARGE_DOC_ID).requestAttr("org.apache.tomcat.sendfile.support", true))
+                .andExpect(status().isOk())
+                .andExpect(header().longValue(HttpHeaders.CONTENT_LENGTH, 64 * 1024))
+                .andExpect(request().attribute("org.apache.tomcat.sendfile.filename", large.toFile().getCanonicalPath()))
+                .andExpect(request().attribute("org.apache.tomcat.sendfile.start", 0L))
+                .andExpect(request().attribute("org.apache.tomcat.sendfile.end", 64L * 1024))
+                .andExpect(content().bytes(new byte[0]));
+
+        mockMvc.perform(get("/api/documents/download/" + LARGE_DOC_ID).header(HttpHeaders.RANGE, "bytes=1024-58367")
+                        .requestAttr("org.apache.tomcat.sendfile.support", true))
+                .andExpect(status().isPartialContent())
+                .andExpect(header().string(HttpHeaders.CONTENT_RANGE, "bytes 1024-58367/65536"))
+                .andExpect(request().attribute("org.apache.tomcat.sendfile.start", 1024L))
+                .andExpect(request().attribute("org.apache.tomcat.sendfile.end", 58368L))
+                .andExpect(content().bytes(new byte[0]));
+
+        // Without connector support the body is copied
+        mockMvc.perform(get("/api/documents/download/" + LARGE_DOC_ID))
+                .andExpect(status().isOk())
+                .andExpect(request().attribute("org.apache.tomcat.sendfile.filename", nullValue()))
+                .andExpect(content().bytes(Files.readAllBytes(large)));
+    }
+
+    @Test
+    void downloadPassesCompressedBlobThroughOnlyWhenAccepted() throws Exception {
+        mockMvc.perform(get("/api/documents/download/" + GZIP_DOC_ID).header(HttpHeaders.ACCEPT_ENCODING, "br, gzip"))
+                .andExpect(status().isOk())
+                .andExpect(header().string(HttpHeaders.CONTENT_ENCODING, "gzip"))
+                .andExpect(header().stringValues(HttpHeaders.VARY, hasItem(HttpHeaders.ACCEPT_ENCODING)))
+                .andExpect(content().bytes(Files.readAllBytes(gzipped)));
+
+        mockMvc.perform(get("/api/documents/download/" + GZIP_DOC_ID))
+                .andExpect(status().isOk())
+                .andExpect(header().doesNotExist(HttpHeaders.CONTENT_ENCODING))
+                .andExpect(content().string("line of text\n".repeat(200)));
+    }
+
+    @Test
+    void streamNegotiatesNdjson() throws Exception {
+        MvcResult result = mockMvc.perform(get("/api/documents/stream").accept(MediaType.APPLICATION_NDJSON))
+                .andExpect(request().asyncStarted())
+                .andReturn();
+        mockMvc.perform(asyncDispatch(result))
+                .andExpect(status().isOk())
+                .andExpect(content().contentType(MediaType.APPLICATION_NDJSON))
+                .andExpect(content().string("{\"name\":\"a\"}\n{\"name\":\"b\"}"));
+    }
+
+    @Test
+    void downloadAnswersNotModifiedForMatchingEtag() throws Exception {
+        mockMvc.perform(get("/api/documents/download/" + DOC_ID).header(HttpHeaders.IF_NONE_MATCH, "\"" + CHECKSUM + "\""))
+                .andExpect(status().isNotModified())
+                .andExpect(content().string(""));
+    }
+
+    @Test
+    void poolTimeoutsCaughtByTheControllerAreShedWith503() throws Exception {
+        mockMvc.perform(get("/api/documents"))
+                .andExpect(status().isServiceUnavailable())
+                .andExpect(header().string(HttpHeaders.RETRY_AFTER, "1"));
+        mockMvc.perform(get("/api/documents/sharedwithme"))
+                .andExpect(status().isServiceUnavailable())
+                .andExpect(header().string(HttpHeaders.RETRY_AFTER, "1"));
+    }
+
+    /**
+     * Stands in for an S3 object: reading it from the start fails, only ranged reads work.
+     */
+    private static final class RangedResource extends ByteArrayResource implements RangeReadableResource {
+
+        RangedResource(byte[] content) {
+            super(content);
+        }
+
+        @Override
+        public InputStream getInputStream() throws IOException {
+            throw new IOException("Ranges must not be read from the start");
+        }
+
+        @Override
+        public InputStream getInputStream(long position, long count) {
+            return new ByteArrayInputStream(getByteArray(), (int) position, (int) count);
+        }
+    }
+}
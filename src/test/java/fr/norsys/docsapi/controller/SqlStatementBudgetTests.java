@@ -0,0 +1,145 @@
+package fr.norsys.docsapi.controller;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.CsvSource;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.web.client.TestRestTemplate;
+import org.springframework.boot.testcontainers.service.connection.ServiceConnection;
+import org.springframework.core.io.ByteArrayResource;
+import org.springframework.http.HttpEntity;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpMethod;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.test.context.DynamicPropertyRegistry;
+import org.springframework.test.context.DynamicPropertySource;
+import org.springframework.util.LinkedMultiValueMap;
+import org.springframework.util.MultiValueMap;
+import org.testcontainers.containers.PostgreSQLContainer;
+import org.testcontainers.junit.jupiter.Container;
+import org.testcontainers.junit.jupiter.Testcontainers;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Fails when a read endpoint runs more SQL statements than its {@code docsapi.sql.budgets} entry.
+ * There are more documents than any budget, so a query per document cannot fit. Needs Docker.
+ */
+@Testcontainers(disabledWithoutDocker = true)
+@SpringBootTest(webEnvironment = SpringBootTest.WebEnvironment.RANDOM_PORT, properties = {
+        "docsapi.sql.response-headers=true",
+        "docsapi.sql.count-rows=true",
+        "docsapi.response-cache.maximum-size=0",
+})
+class SqlStatementBudgetTests {
+
+    private static final int DOCUMENTS = 12;
+
+    @Container
+    @ServiceConnection
+    static PostgreSQLContainer<?> postgres = new PostgreSQLContainer<>("postgres:16-alpine");
+
+    @DynamicPropertySource
+    static void storage(DynamicPropertyRegistry registry) {
+        registry.add("file.upload-dir", () -> {
+            try {
+                return Files.createTempDirectory("docs-api-budget").toString();
+            } catch (IOException e) {
+                throw new IllegalStateException(e);
+            }
+        });
+    }
+
+    private static final Map<String, String> tokens = new HashMap<>();
+    private static final List<String> documentIds = new ArrayList<>();
+
+    @Autowired
+    private TestRestTemplate restTemplate;
+
+    @BeforeEach
+    void seed() {
+        if (!documentIds.isEmpty()) {
+            return;
+        }
+        String recipient = signup("reader");
+        signup("owner");
+        for (int i = 0; i < DOCUMENTS; i++) {
+            documentIds.add(upload("owner", "report_" + i + ".txt"));
+        }
+        ResponseEntity<String> shared = restTemplate.exchange("/api/documents/share/bulk", HttpMethod.POST,
+                json("owner", Map.of("documentIds", documentIds, "usersIds", List.of(recipient), "permissions", "READ")),
+                String.class);
+        assertTrue(shared.getStatusCode().is2xxSuccessful(), shared::toString);
+    }
+
+    @ParameterizedTest
+    @CsvSource({
+            "owner, /api/documents",
+            "owner, /api/documents/page?page=0&size=5",
+            "owner, /api/documents/cursor?size=5",
+            "owner, /api/documents/search?searchValue=report",
+            "owner, /api/documents/{first}",
+            "reader, /api/documents/sharedwithme",
+            "reader, /api/documents/searchwithme?searchValue=report",
+            "reader, /api/documents/download/{first}",
+    })
+    void readEndpointsStayWithinTheirStatementBudget(String user, String uri) {
+        ResponseEntity<byte[]> response = restTemplate.exchange(uri.replace("{first}", documentIds.get(0)), HttpMethod.GET,
+                new HttpEntity<>(authorization(user)), byte[].class);
+
+        assertTrue(response.getStatusCode().is2xxSuccessful(), response::toString);
+        String statements = response.getHeaders().getFirst("X-SQL-Statements");
+        String budget = response.getHeaders().getFirst("X-SQL-Budget");
+        assertNotNull(statements);
+        assertTrue(Integer.parseInt(statements) <= Integer.parseInt(budget),
+                () -> uri + " ran " + statements + " SQL statements, its budget is " + budget);
+    }
+
+    private String signup(String username) {
+        Map<String, String> credentials = Map.of("username", username, "email", username + "@example.com", "password", "password");
+        restTemplate.postForEntity("/api/auth/signup", credentials, String.class);
+        JsonNode login = restTemplate.postForObject("/api/auth/login", credentials, JsonNode.class);
+        tokens.put(username, login.get("token").asText());
+        return login.get("id").asText();
+    }
+
+    private String upload(String username, String name) {
+        MultiValueMap<String, Object> parts = new LinkedMultiValueMap<>();
+        parts.add("document", new ByteArrayResource((name + " quarterly report").getBytes(StandardCharsets.UTF_8)) {
+            @Override
+            public String getFilename() {
+                return name;
+            }
+        });
+        parts.add("metadata", "[{\"key\":\"client\",\"value\":\"Norsys\"},{\"key\":\"year\",\"value\":\"2024\"}]");
+        HttpHeaders headers = authorization(username);
+        headers.setContentType(MediaType.MULTIPART_FORM_DATA);
+        JsonNode uploaded = restTemplate.postForObject("/api/documents/upload", new HttpEntity<>(parts, headers), JsonNode.class);
+        String downloadUri = uploaded.get("downloadUri").asText();
+        return downloadUri.substring(downloadUri.lastIndexOf('/') + 1);
+    }
+
+    private HttpEntity<Object> json(String username, Object body) {
+        HttpHeaders headers = authorization(username);
+        headers.setContentType(MediaType.APPLICATION_JSON);
+        return new HttpEntity<>(body, headers);
+    }
+
+    private HttpHeaders authorization(String username) {
+        HttpHeaders headers = new HttpHeaders();
+        headers.setBearerAuth(tokens.get(username));
+        return headers;
+    }
+}
@@ -0,0 +1,91 @@
+package fr.norsys.docsapi.search;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+import java.util.UUID;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class InvertedIndexTests {
+
+    private final UUID owner = UUID.randomUUID();
+    private final UUID reader = UUID.randomUUID();
+
+    @Test
+    void matchesEveryTermByPrefixNewestFirst() {
+        InvertedIndex index = new InvertedIndex();
+        IndexedDocument older = document("annual_report_2023.pdf");
+        IndexedDocument newer = document("annual_report_2024.pdf");
+        index.addDocument(older);
+        index.addDocument(newer);
+        index.addDocument(document("budget.xlsx"));
+
+        assertThat(index.search(owner, List.of("ann", "rep"), 10)).containsExactly(newer, older);
+        assertThat(index.search(owner, List.of("ann", "2023"), 10)).containsExactly(older);
+        assertThat(index.search(owner, List.of("ann"), 1)).containsExactly(newer);
+    }
+
+    @Test
+    void filtersByReadableDocuments() {
+        InvertedIndex index = new InvertedIndex();
+        IndexedDocument invoice = document("invoice.pdf");
+        index.addDocument(invoice);
+        index.addMetaData(invoice.id(), "client", "Norsys");
+
+        assertThat(index.search(reader, List.of("norsys"), 10)).isEmpty();
+        index.grant(invoice.id(), reader);
+        assertThat(index.search(reader, List.of("norsys"), 10)).containsExactly(invoice);
+    }
+
+    @Test
+    void revokesGrantsButNotOwnership() {
+        InvertedIndex index = new InvertedIndex();
+        IndexedDocument report = document("report.pdf");
+        index.addDocument(report);
+        index.grant(report.id(), reader);
+
+        index.revoke(report.id(), reader);
+        index.revoke(report.id(), owner);
+
+        assertThat(index.search(reader, List.of("report"), 10)).isEmpty();
+        assertThat(index.search(owner, List.of("report"), 10)).containsExactly(report);
+    }
+
+    @Test
+    void forgetsRemovedDocuments() {
+        InvertedIndex index = new InvertedIndex();
+        IndexedDocument contract = document("contract.docx");
+        index.addDocument(contract);
+        index.remove(contract.id());
+
+        assertThat(index.search(owner, List.of("contract"), 10)).isEmpty();
+        assertThat(index.size()).isZero();
+    }
+
+    @Test
+    void compactsTombstonesAndKeepsNewestFirst() {
+        InvertedIndex index = new InvertedIndex(2);
+        IndexedDocument first = document("report_1.pdf");
+        IndexedDocument second = document("report_2.pdf");
+        IndexedDocument third = document("report_3.pdf");
+        IndexedDocument fourth = document("report_4.pdf");
+        List.of(first, second, third, fourth).forEach(index::addDocument);
+        index.grant(third.id(), reader);
+
+        index.remove(first.id());
+        assertThat(index.ordinalCount()).isEqualTo(4);
+        index.remove(second.id());
+
+        assertThat(index.ordinalCount()).isEqualTo(2);
+        assertThat(index.search(owner, List.of("report"), 10)).containsExactly(fourth, third);
+        assertThat(index.search(reader, List.of("report"), 10)).containsExactly(third);
+        IndexedDocument fifth = document("report_5.pdf");
+        index.addDocument(fifth);
+        assertThat(index.search(owner, List.of("report"), 10)).containsExactly(fifth, fourth, third);
+    }
+
+    private IndexedDocument document(String name) {
+        return new IndexedDocument(UUID.randomUUID(), name, "application/pdf", owner, "owner");
+    }
+}
@@ -0,0 +1,100 @@
+package fr.norsys.docsapi.service;
+
+import fr.norsys.docsapi.dto.document.DocumentResponseDto;
+import fr.norsys.docsapi.event.DocumentDeletedEvent;
+import fr.norsys.docsapi.event.DocumentSharedEvent;
+import fr.norsys.docsapi.event.DocumentUploadedEvent;
+import fr.norsys.docsapi.security.service.UserDetailsImpl;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
+import org.springframework.security.core.context.SecurityContextHolder;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.UUID;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+class CachingDocumentServiceTests {
+
+    private final UUID userId = UUID.randomUUID();
+    private final UUID documentId = UUID.randomUUID();
+    private final DocumentLocalService delegate = mock(DocumentLocalService.class);
+    private CachingDocumentService service;
+
+    @BeforeEach
+    void setUp() {
+        service = new CachingDocumentService(delegate, mock(AccessControlService.class), new SimpleMeterRegistry(),
+                100, Duration.ofMinutes(5));
+        UserDetailsImpl principal = new UserDetailsImpl(userId, "reader", "reader@norsys.fr", null);
+        SecurityContextHolder.getContext().setAuthentication(new UsernamePasswordAuthenticationToken(principal, null, List.of()));
+        DocumentResponseDto dto = DocumentResponseDto.builder().id(documentId).name("report.pdf").build();
+        when(delegate.getList()).thenReturn(List.of(dto));
+        when(delegate.sharedWithMe()).thenReturn(List.of(dto));
+    }
+
+    @AfterEach
+    void tearDown() {
+        SecurityContextHolder.clearContext();
+    }
+
+    @Test
+    void servesRepeatedListsFromCacheUntilUpload() {
+        service.getList();
+        service.getList();
+        verify(delegate, times(1)).getList();
+
+        service.onUploaded(new DocumentUploadedEvent(UUID.randomUUID(), "new.pdf", "application/pdf", userId, "reader", List.of()));
+        assertThat(service.getList()).hasSize(1);
+        verify(delegate, times(2)).getList();
+    }
+
+    @Test
+    void invalidatesSharedListsOfAffectedUsers() {
+        service.sharedWithMe();
+        service.onShared(new DocumentSharedEvent(UUID.randomUUID(), UUID.randomUUID(), List.of(UUID.randomUUID()), List.of(), List.of()));
+        service.sharedWithMe();
+        verify(delegate, times(1)).sharedWithMe();
+
+        service.onShared(new DocumentSharedEvent(UUID.randomUUID(), UUID.randomUUID(), List.of(userId), List.of(), List.of()));
+        service.sharedWithMe();
+        verify(delegate, times(2)).sharedWithMe();
+    }
+
+    @Test
+    void invalidatesSharedListsOfExistingGrantees() {
+        service.sharedWithMe();
+        service.onShared(new DocumentSharedEvent(documentId, UUID.randomUUID(), List.of(UUID.randomUUID()), List.of(), List.of(userId)));
+        service.sharedWithMe();
+        verify(delegate, times(2)).sharedWithMe();
+    }
+
+    @Test
+    void dropsSharedListsContainingDeletedDocument() {
+        service.sharedWithMe();
+        service.onDeleted(new DocumentDeletedEvent(UUID.randomUUID(), UUID.randomUUID(), List.of(UUID.randomUUID())));
+        service.sharedWithMe();
+        verify(delegate, times(1)).sharedWithMe();
+
+        service.onDeleted(new DocumentDeletedEvent(documentId, UUID.randomUUID(), List.of(userId)));
+        service.sharedWithMe();
+        verify(delegate, times(2)).sharedWithMe();
+    }
+
+    @Test
+    void handsOutCopiesOfCachedDocuments() {
+        service.getList().get(0).setName("renamed.pdf");
+
+        List<DocumentResponseDto> again = service.getList();
+        assertThat(again.get(0).getName()).isEqualTo("report.pdf");
+        assertThatThrownBy(() -> again.add(again.get(0))).isInstanceOf(UnsupportedOperationException.class);
+    }
+}
@@ -0,0 +1,65 @@
+package fr.norsys.docsapi.service;
+
+import fr.norsys.docsapi.entity.UploadSession;
+import fr.norsys.docsapi.utils.DocumentHashCalculator;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.List;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class ChunkDigestTests {
+
+    @TempDir
+    Path tempDir;
+
+    @Test
+    void outOfOrderChunksHashLikeTheWholeFile() throws Exception {
+        byte[] content = new byte[250_000];
+        new Random(42).nextBytes(content);
+        Path file = tempDir.resolve("upload.part");
+        Files.write(file, content);
+        UploadSession session = UploadSession.builder().size(content.length).chunkSize(100_000).chunkCount(3).build();
+
+        ChunkDigest digest = new ChunkDigest(file, session);
+        digest.received(2);
+        assertFalse(digest.covers(2));
+        digest.received(0);
+        assertTrue(digest.covers(0));
+        assertFalse(digest.covers(1));
+
+        assertEquals(DocumentHashCalculator.calculateHash(file), digest.finish(List.of(0, 1, 2)));
+    }
+
+    @Test
+    void failedRewriteIsNotHashedUntilWrittenAgain() throws Exception {
+        byte[] content = new byte[250_000];
+        new Random(42).nextBytes(content);
+        Path file = tempDir.resolve("upload.part");
+        Files.write(file, content);
+        UploadSession session = UploadSession.builder().size(content.length).chunkSize(100_000).chunkCount(3).build();
+
+        ChunkDigest digest = new ChunkDigest(file, session);
+        digest.received(1);
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.WRITE)) {
+            channel.write(ByteBuffer.wrap(new byte[1_000]), 100_000);
+        }
+        assertFalse(digest.discard(1));
+        digest.received(0);
+        assertTrue(digest.covers(0));
+        assertFalse(digest.covers(1));
+
+        Files.write(file, content);
+        digest.received(1);
+        assertEquals(DocumentHashCalculator.calculateHash(file), digest.finish(List.of(0, 1, 2)));
+    }
+}
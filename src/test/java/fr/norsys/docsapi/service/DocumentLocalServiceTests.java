@@ -0,0 +1,91 @@
+package fr.norsys.docsapi.service;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import fr.norsys.docsapi.dto.document.ShareDto;
+import fr.norsys.docsapi.entity.Document;
+import fr.norsys.docsapi.entity.Permission;
+import fr.norsys.docsapi.entity.User;
+import fr.norsys.docsapi.repository.DocumentRepository;
+import fr.norsys.docsapi.repository.EffectivePermissionRepository;
+import fr.norsys.docsapi.repository.GroupMembershipRepository;
+import fr.norsys.docsapi.repository.GroupPermissionEntryRepository;
+import fr.norsys.docsapi.repository.GroupRepository;
+import fr.norsys.docsapi.repository.MetaDataRepository;
+import fr.norsys.docsapi.repository.PermissionEntryRepository;
+import fr.norsys.docsapi.repository.UserRepository;
+import fr.norsys.docsapi.security.service.UserDetailsImpl;
+import fr.norsys.docsapi.storage.BlobStore;
+import fr.norsys.docsapi.utils.DocumentStorageProperties;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.http.HttpStatus;
+import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
+import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.web.server.ResponseStatusException;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.Optional;
+import java.util.UUID;
+import java.util.concurrent.ExecutorService;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+class DocumentLocalServiceTests {
+
+    private final UUID ownerId = UUID.randomUUID();
+    private final UUID readerId = UUID.randomUUID();
+    private final Document document = Document.builder()
+            .id(UUID.randomUUID())
+            .name("report.pdf")
+            .user(User.builder().id(ownerId).userName("owner").build())
+            .build();
+    private final DocumentRepository documentRepository = mock(DocumentRepository.class);
+    private final EffectivePermissionRepository effectivePermissionRepository = mock(EffectivePermissionRepository.class);
+    private final PermissionEntryRepository permissionEntryRepository = mock(PermissionEntryRepository.class);
+    private DocumentLocalService service;
+
+    @BeforeEach
+    void setUp() {
+        AccessControlService accessControlService = new AccessControlService(effectivePermissionRepository,
+                new SimpleMeterRegistry(), 100, Duration.ofMinutes(1));
+        service = new DocumentLocalService(new DocumentStorageProperties(), documentRepository, mock(UserRepository.class),
+                mock(MetaDataRepository.class), permissionEntryRepository, mock(GroupRepository.class),
+                mock(GroupMembershipRepository.class), mock(GroupPermissionEntryRepository.class), effectivePermissionRepository,
+                mock(BlobStore.class), accessControlService, mock(ApplicationEventPublisher.class), Optional.empty(),
+                mock(ExecutorService.class), mock(PlatformTransactionManager.class), new ObjectMapper(),
+                new DocumentMetrics(new SimpleMeterRegistry()), 1);
+        when(documentRepository.findById(document.getId())).thenReturn(Optional.of(document));
+        when(effectivePermissionRepository.findMask(document.getId(), readerId)).thenReturn(Optional.of((short) Permission.READ.mask()));
+        UserDetailsImpl principal = new UserDetailsImpl(readerId, "reader", "reader@norsys.fr", null);
+        SecurityContextHolder.getContext().setAuthentication(new UsernamePasswordAuthenticationToken(principal, null, List.of()));
+    }
+
+    @AfterEach
+    void tearDown() {
+        SecurityContextHolder.clearContext();
+    }
+
+    @Test
+    void readGranteeCannotShare() {
+        ShareDto shareDto = new ShareDto();
+        shareDto.setDocumentId(document.getId().toString());
+        shareDto.setUsersIds(List.of(UUID.randomUUID().toString()));
+        shareDto.setPermissions("ALL");
+
+        assertThatThrownBy(() -> service.share(shareDto))
+                .isInstanceOfSatisfying(ResponseStatusException.class,
+                        e -> assertThat(e.getStatusCode()).isEqualTo(HttpStatus.FORBIDDEN));
+        verify(permissionEntryRepository, never()).saveAll(any());
+    }
+}
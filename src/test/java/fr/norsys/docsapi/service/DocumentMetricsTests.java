@@ -0,0 +1,41 @@
+package fr.norsys.docsapi.service;
+
+import fr.norsys.docsapi.search.SearchQuery;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+class DocumentMetricsTests {
+
+    @Test
+    void searchesAreTaggedWithTheirShape() {
+        SimpleMeterRegistry registry = new SimpleMeterRegistry();
+        DocumentMetrics metrics = new DocumentMetrics(registry);
+
+        metrics.searched(metrics.start(), "owned", SearchQuery.parse("annual report"));
+        metrics.searched(metrics.start(), "owned", SearchQuery.parse("2024-05-01"));
+        metrics.searched(metrics.start(), "shared", SearchQuery.parse("client:Norsys"));
+        metrics.searched(metrics.start(), "shared", SearchQuery.parse(""));
+
+        assertEquals(1, registry.get("docsapi.search").tags("scope", "owned", "shape", "text").timer().count());
+        assertEquals(1, registry.get("docsapi.search").tags("scope", "owned", "shape", "date").timer().count());
+        assertEquals(1, registry.get("docsapi.search").tags("scope", "shared", "shape", "key_value").timer().count());
+        assertEquals(1, registry.get("docsapi.search").tags("scope", "shared", "shape", "empty").timer().count());
+    }
+
+    @Test
+    void uploadStagesAreTimedSeparately() {
+        SimpleMeterRegistry registry = new SimpleMeterRegistry();
+        DocumentMetrics metrics = new DocumentMetrics(registry);
+
+        metrics.uploadStage(metrics.start(), DocumentMetrics.UploadStage.COPY_AND_HASH);
+        metrics.uploadStage(metrics.start(), DocumentMetrics.UploadStage.SAVE);
+        metrics.uploadStage(metrics.start(), DocumentMetrics.UploadStage.SAVE);
+        metrics.uploaded(2048);
+
+        assertEquals(1, registry.get("docsapi.upload.stage").tag("stage", "copy_and_hash").timer().count());
+        assertEquals(2, registry.get("docsapi.upload.stage").tag("stage", "save").timer().count());
+        assertEquals(2048, registry.get("docsapi.upload.size").summary().totalAmount());
+    }
+}
@@ -0,0 +1,136 @@
+package fr.norsys.docsapi.storage;
+
+import fr.norsys.docsapi.entity.Blob;
+import fr.norsys.docsapi.entity.StorageCodec;
+import fr.norsys.docsapi.repository.BlobRepository;
+import fr.norsys.docsapi.utils.DocumentStorageProperties;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.transaction.PlatformTransactionManager;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.ConcurrentHashMap;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.doAnswer;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.spy;
+import static org.mockito.Mockito.when;
+
+class ReferenceCountedBlobStoreTests {
+
+    private static final String CHECKSUM = "ab".repeat(32);
+    private static final String KEY = ReferenceCountedBlobStore.key(CHECKSUM, StorageCodec.NONE);
+
+    @TempDir
+    Path tempDir;
+
+    private final Map<String, Blob> rows = new ConcurrentHashMap<>();
+    private LocalStorageBackend storageBackend;
+    private ReferenceCountedBlobStore blobStore;
+
+    @BeforeEach
+    void setUp() {
+        DocumentStorageProperties properties = new DocumentStorageProperties();
+        properties.setUploadDir(tempDir.toString());
+        storageBackend = spy(new LocalStorageBackend(properties));
+        blobStore = new ReferenceCountedBlobStore(storageBackend, blobRepository(),
+                new BlobCompressor(false, 1024, 6, List.of()), mock(PlatformTransactionManager.class));
+    }
+
+    @Test
+    void rewritesContentOfARowWhoseObjectWasNeverStored() throws Exception {
+        // recorded as stored, but its object is missing from the backend
+        rows.put(CHECKSUM, Blob.builder().checksum(CHECKSUM).size(7).refCount(1).codec(StorageCodec.NONE).storedSize(7).build());
+
+        StoredBlob stored = blobStore.store(source("content"));
+
+        assertThat(stored.key()).isEqualTo(KEY);
+        assertThat(storageBackend.open(KEY).getContentAsByteArray()).isEqualTo("content".getBytes());
+        assertThat(rows.get(CHECKSUM).getRefCount()).isEqualTo(2);
+    }
+
+    @Test
+    void keepsTheObjectWhenTheLastOtherReferenceIsReleasedDuringTheUpload() throws Exception {
+        blobStore.store(source("content"));
+        doAnswer(invocation -> {
+            blobStore.release(CHECKSUM, KEY);
+            return invocation.callRealMethod();
+        }).when(storageBackend).exists(KEY);
+
+        StoredBlob stored = blobStore.store(source("content"));
+
+        assertThat(stored.key()).isEqualTo(KEY);
+        assertThat(storageBackend.open(KEY).getContentAsByteArray()).isEqualTo("content".getBytes());
+        assertThat(rows.get(CHECKSUM).getRefCount()).isEqualTo(1);
+    }
+
+    @Test
+    void writesTheContentAgainAfterItWasCollected() throws Exception {
+        blobStore.store(source("content"));
+        blobStore.release(CHECKSUM, KEY);
+        assertThat(rows).isEmpty();
+        assertThat(storageBackend.exists(KEY).join()).isFalse();
+
+        blobStore.store(source("content"));
+
+        assertThat(storageBackend.open(KEY).getContentAsByteArray()).isEqualTo("content".getBytes());
+        assertThat(rows.get(CHECKSUM).getStoredSize()).isEqualTo(7);
+    }
+
+    private BlobSource source(String content) throws Exception {
+        Path file = Files.writeString(Files.createTempFile(tempDir, "upload-", ".tmp"), content);
+        return new BlobSource(file, CHECKSUM, content.length(), "text/plain");
+    }
+
+    /**
+     * The queries of {@link BlobRepository} over a map, one row per checksum.
+     */
+    @SuppressWarnings("unchecked")
+    private BlobRepository blobRepository() {
+        BlobRepository repository = mock(BlobRepository.class);
+        doAnswer(invocation -> rows.compute(invocation.getArgument(0), (checksum, row) -> {
+            if (row == null) {
+                return Blob.builder().checksum(checksum).size(invocation.getArgument(1)).refCount(1)
+                        .codec(StorageCodec.NONE).storedSize(-1).build();
+            }
+            row.setRefCount(row.getRefCount() + 1);
+            return row;
+        })).when(repository).acquire(anyString(), anyLong());
+        when(repository.findAllById(any())).thenAnswer(invocation -> ((Collection<String>) invocation.getArgument(0)).stream()
+                .map(rows::get)
+                .toList());
+        when(repository.findById(anyString())).thenAnswer(invocation -> Optional.ofNullable(rows.get(invocation.<String>getArgument(0))));
+        when(repository.markStored(anyString(), any(), anyLong(), any())).thenAnswer(invocation -> {
+            Blob row = rows.get(invocation.<String>getArgument(0));
+            if (row.getStoredSize() >= 0 && row.getCodec() != invocation.getArgument(3)) {
+                return 0;
+            }
+            row.setCodec(invocation.getArgument(1));
+            row.setStoredSize(invocation.getArgument(2));
+            return 1;
+        });
+        when(repository.decrement(anyString())).thenAnswer(invocation -> {
+            rows.computeIfPresent(invocation.getArgument(0), (checksum, row) -> {
+                row.setRefCount(row.getRefCount() - 1);
+                return row;
+            });
+            return 1;
+        });
+        when(repository.deleteIfUnreferenced(anyString())).thenAnswer(invocation -> {
+            String checksum = invocation.getArgument(0);
+            Blob row = rows.get(checksum);
+            return row != null && row.getRefCount() <= 0 && rows.remove(checksum, row) ? 1 : 0;
+        });
+        return repository;
+    }
+}
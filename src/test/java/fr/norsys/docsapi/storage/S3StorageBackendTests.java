@@ -0,0 +1,245 @@
+package fr.norsys.docsapi.storage;
+
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpServer;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import software.amazon.awssdk.auth.credentials.AwsBasicCredentials;
+import software.amazon.awssdk.auth.credentials.StaticCredentialsProvider;
+import software.amazon.awssdk.regions.Region;
+import software.amazon.awssdk.services.s3.S3AsyncClient;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.net.InetSocketAddress;
+import java.net.URI;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.time.ZoneOffset;
+import java.time.ZonedDateTime;
+import java.time.format.DateTimeFormatter;
+import java.util.Arrays;
+import java.util.HexFormat;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CopyOnWriteArrayList;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Runs {@link S3StorageBackend} with the real SDK client against an in-process S3 fake that keeps
+ * objects in memory and answers PUT, HEAD, GET with an optional single Range, and DELETE.
+ */
+class S3StorageBackendTests {
+
+    @TempDir
+    Path tempDir;
+
+    private FakeS3 fakeS3;
+    private S3AsyncClient client;
+    private S3StorageBackend backend;
+
+    @BeforeEach
+    void setUp() throws IOException {
+        fakeS3 = new FakeS3();
+        client = S3AsyncClient.builder()
+                .region(Region.US_EAST_1)
+                .endpointOverride(fakeS3.endpoint())
+                .forcePathStyle(true)
+                .credentialsProvider(StaticCredentialsProvider.create(AwsBasicCredentials.create("key", "secret")))
+                .build();
+        backend = new S3StorageBackend(client, "docs", "blobs/");
+    }
+
+    @AfterEach
+    void tearDown() {
+        client.close();
+        fakeS3.stop();
+    }
+
+    @Test
+    void putThenReadBack() throws Exception {
+        byte[] content = randomBytes(256 * 1024);
+        Path source = Files.write(tempDir.resolve("upload.tmp"), content);
+
+        backend.put("ab/cd/abcd", source, content.length).join();
+
+        assertThat(source).doesNotExist();
+        assertThat(fakeS3.objects).containsKey("/docs/blobs/ab/cd/abcd");
+        assertThat(backend.exists("ab/cd/abcd").join()).isTrue();
+        assertThat(backend.exists("ab/cd/missing").join()).isFalse();
+        try (InputStream in = backend.open("ab/cd/abcd").getInputStream()) {
+            assertThat(in.readAllBytes()).isEqualTo(content);
+        }
+        assertThat(backend.open("ab/cd/abcd").contentLength()).isEqualTo(content.length);
+    }
+
+    @Test
+    void rangeIsFetchedWithARangedGet() throws Exception {
+        byte[] content = randomBytes(256 * 1024);
+        backend.put("ab/cd/abcd", Files.write(tempDir.resolve("upload.tmp"), content), content.length).join();
+        RangeReadableResource resource = (RangeReadableResource) backend.open("ab/cd/abcd");
+
+        try (InputStream in = resource.getInputStream(content.length - 100, 100)) {
+            assertThat(in.readAllBytes()).isEqualTo(Arrays.copyOfRange(content, content.length - 100, content.length));
+        }
+        assertThat(fakeS3.ranges).containsExactly("bytes=" + (content.length - 100) + "-" + (content.length - 1));
+        assertThat(fakeS3.bytesServed).isEqualTo(100);
+    }
+
+    @Test
+    void deleteRemovesTheObject() throws Exception {
+        backend.put("ab/cd/abcd", Files.writeString(tempDir.resolve("upload.tmp"), "content"), 7).join();
+
+        backend.delete("ab/cd/abcd").join();
+
+        assertThat(backend.exists("ab/cd/abcd").join()).isFalse();
+        assertThat(backend.open("ab/cd/abcd").exists()).isFalse();
+    }
+
+    private static byte[] randomBytes(int length) {
+        byte[] content = new byte[length];
+        new Random(11).nextBytes(content);
+        return content;
+    }
+
+    /**
+     * Just enough of the S3 REST API, with path style addressing, for the storage backend.
+     */
+    private static final class FakeS3 {
+
+        private final Map<String, byte[]> objects = new ConcurrentHashMap<>();
+        private final List<String> ranges = new CopyOnWriteArrayList<>();
+        private final HttpServer server;
+        private volatile long bytesServed;
+
+        FakeS3() throws IOException {
+            server = HttpServer.create(new InetSocketAddress("127.0.0.1", 0), 0);
+            server.createContext("/", this::handle);
+            server.start();
+        }
+
+        URI endpoint() {
+            return URI.create("http://127.0.0.1:" + server.getAddress().getPort());
+        }
+
+        void stop() {
+            server.stop(0);
+        }
+
+        private void handle(HttpExchange exchange) throws IOException {
+            String path = exchange.getRequestURI().getPath();
+            byte[] object = objects.get(path);
+            switch (exchange.getRequestMethod()) {
+                case "PUT" -> {
+                    byte[] body = body(exchange);
+                    objects.put(path, body);
+                    exchange.getResponseHeaders().set("ETag", etag(body));
+                    exchange.sendResponseHeaders(200, -1);
+                }
+                case "HEAD" -> {
+                    if (object == null) {
+                        exchange.sendResponseHeaders(404, -1);
+                        break;
+                    }
+                    objectHeaders(exchange, object);
+                    exchange.sendResponseHeaders(200, -1);
+                }
+                case "GET" -> {
+                    if (object == null) {
+                        byte[] error = "<Error><Code>NoSuchKey</Code></Error>".getBytes(StandardCharsets.UTF_8);
+                        exchange.sendResponseHeaders(404, error.length);
+                        exchange.getResponseBody().write(error);
+                        break;
+                    }
+                    String range = exchange.getRequestHeaders().getFirst("Range");
+                    int start = 0;
+                    int end = object.length - 1;
+                    int status = 200;
+                    if (range != null) {
+                        ranges.add(range);
+                        String[] bounds = range.substring("bytes=".length()).split("-");
+                        start = Integer.parseInt(bounds[0]);
+                        end = Math.min(Integer.parseInt(bounds[1]), object.length - 1);
+                        status = 206;
+                        exchange.getResponseHeaders().set("Content-Range", "bytes " + start + "-" + end + "/" + object.length);
+                    }
+                    objectHeaders(exchange, object);
+                    exchange.sendResponseHeaders(status, end - start + 1);
+                    try (OutputStream out = exchange.getResponseBody()) {
+                        out.write(object, start, end - start + 1);
+                    }
+                    bytesServed += end - start + 1;
+                }
+                case "DELETE" -> {
+                    objects.remove(path);
+                    exchange.sendResponseHeaders(204, -1);
+                }
+                default -> exchange.sendResponseHeaders(405, -1);
+            }
+            exchange.close();
+        }
+
+        private static void objectHeaders(HttpExchange exchange, byte[] object) {
+            exchange.getResponseHeaders().set("ETag", etag(object));
+            exchange.getResponseHeaders().set("Last-Modified",
+                    DateTimeFormatter.RFC_1123_DATE_TIME.format(ZonedDateTime.now(ZoneOffset.UTC)));
+            if (!exchange.getRequestMethod().equals("GET")) {
+                exchange.getResponseHeaders().set("Content-Length", String.valueOf(object.length));
+            }
+        }
+
+        /**
+         * The MD5 of the content, as S3 returns for single part uploads and the SDK checks.
+         */
+        private static String etag(byte[] content) {
+            try {
+                return "\"" + HexFormat.of().formatHex(MessageDigest.getInstance("MD5").digest(content)) + "\"";
+            } catch (NoSuchAlgorithmException e) {
+                throw new IllegalStateException(e);
+            }
+        }
+
+        /**
+         * The request body, with the aws-chunked framing of streamed signed uploads removed.
+         */
+        private static byte[] body(HttpExchange exchange) throws IOException {
+            byte[] raw = exchange.getRequestBody().readAllBytes();
+            String sha = exchange.getRequestHeaders().getFirst("x-amz-content-sha256");
+            if (sha == null || !sha.startsWith("STREAMING-")) {
+                return raw;
+            }
+            ByteArrayOutputStream decoded = new ByteArrayOutputStream(raw.length);
+            int position = 0;
+            while (position < raw.length) {
+                int lineEnd = indexOfCrlf(raw, position);
+                String header = new String(raw, position, lineEnd - position, StandardCharsets.US_ASCII);
+                int size = Integer.parseInt(header.split(";")[0], 16);
+                if (size == 0) {
+                    break;
+                }
+                decoded.write(raw, lineEnd + 2, size);
+                position = lineEnd + 2 + size + 2;
+            }
+            return decoded.toByteArray();
+        }
+
+        private static int indexOfCrlf(byte[] bytes, int from) {
+            for (int i = from; i < bytes.length - 1; i++) {
+                if (bytes[i] == '\r' && bytes[i + 1] == '\n') {
+                    return i;
+                }
+            }
+            throw new IllegalArgumentException("Malformed aws-chunked body");
+        }
+    }
+}
@@ -0,0 +1,65 @@
+package fr.norsys.docsapi.storage;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import software.amazon.awssdk.core.async.AsyncRequestBody;
+import software.amazon.awssdk.services.s3.S3AsyncClient;
+import software.amazon.awssdk.services.s3.model.HeadObjectRequest;
+import software.amazon.awssdk.services.s3.model.NoSuchKeyException;
+import software.amazon.awssdk.services.s3.model.PutObjectRequest;
+import software.amazon.awssdk.services.s3.model.PutObjectResponse;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Random;
+import java.util.concurrent.CompletableFuture;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.argThat;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+class StorageBackendTests {
+
+    @TempDir
+    Path tempDir;
+
+    @Test
+    void localCopySpansSeveralBuffers() throws Exception {
+        byte[] content = new byte[3 * 1024 * 1024 + 17];
+        new Random(7).nextBytes(content);
+        Path source = Files.write(tempDir.resolve("source.bin"), content);
+        Path target = tempDir.resolve("target.bin");
+
+        LocalStorageBackend.copy(source, target).join();
+
+        assertThat(Files.readAllBytes(target)).isEqualTo(content);
+    }
+
+    @Test
+    void s3PutUploadsUnderPrefixAndConsumesSource() throws Exception {
+        S3AsyncClient client = mock(S3AsyncClient.class);
+        when(client.putObject(any(PutObjectRequest.class), any(AsyncRequestBody.class)))
+                .thenReturn(CompletableFuture.completedFuture(PutObjectResponse.builder().build()));
+        Path source = Files.writeString(tempDir.resolve("upload.tmp"), "content");
+        S3StorageBackend backend = new S3StorageBackend(client, "docs", "blobs/");
+
+        backend.put("ab/cd/abcd", source, 7).join();
+
+        verify(client).putObject(argThat((PutObjectRequest request) -> request.bucket().equals("docs")
+                && request.key().equals("blobs/ab/cd/abcd") && request.contentLength() == 7), any(AsyncRequestBody.class));
+        assertThat(source).doesNotExist();
+    }
+
+    @Test
+    void s3MissingObjectDoesNotExist() {
+        S3AsyncClient client = mock(S3AsyncClient.class);
+        when(client.headObject(any(HeadObjectRequest.class)))
+                .thenReturn(CompletableFuture.failedFuture(NoSuchKeyException.builder().statusCode(404).build()));
+        S3StorageBackend backend = new S3StorageBackend(client, "docs", "blobs/");
+
+        assertThat(backend.exists("ab/cd/abcd").join()).isFalse();
+    }
+}
@@ -0,0 +1,57 @@
+package fr.norsys.docsapi.utils;
+
+import com.github.benmanes.caffeine.cache.AsyncCache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class AsyncCachesTests {
+
+    @Test
+    void concurrentMissesLoadOnce() throws Exception {
+        AsyncCache<String, Integer> cache = Caffeine.newBuilder().buildAsync();
+        AtomicInteger loads = new AtomicInteger();
+        CountDownLatch release = new CountDownLatch(1);
+
+        List<Future<Integer>> results = new ArrayList<>();
+        try (ExecutorService executor = Executors.newVirtualThreadPerTaskExecutor()) {
+            for (int i = 0; i < 100; i++) {
+                results.add(executor.submit(() -> AsyncCaches.getOrLoad(cache, "key", key -> {
+                    loads.incrementAndGet();
+                    try {
+                        release.await();
+                    } catch (InterruptedException e) {
+                        Thread.currentThread().interrupt();
+                    }
+                    return 42;
+                })));
+            }
+            release.countDown();
+            for (Future<Integer> result : results) {
+                assertThat(result.get()).isEqualTo(42);
+            }
+        }
+        assertThat(loads).hasValue(1);
+    }
+
+    @Test
+    void failedLoadsAreNotCached() {
+        AsyncCache<String, Integer> cache = Caffeine.newBuilder().executor(Runnable::run).buildAsync();
+
+        assertThatThrownBy(() -> AsyncCaches.getOrLoad(cache, "key", key -> {
+            throw new IllegalStateException("database down");
+        })).isInstanceOf(IllegalStateException.class);
+
+        assertThat(AsyncCaches.getOrLoad(cache, "key", key -> 7)).isEqualTo(7);
+    }
+}
@@ -0,0 +1,40 @@
+package fr.norsys.docsapi.utils;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import fr.norsys.docsapi.dto.document.DocumentResponseDto;
+import fr.norsys.docsapi.dto.document.MetaDataDto;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+import java.util.UUID;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class DocumentFieldsTests {
+
+    private final ObjectMapper objectMapper = new ObjectMapper().setFilterProvider(DocumentFields.defaultFilterProvider());
+    private final DocumentResponseDto document = DocumentResponseDto.builder()
+            .id(UUID.fromString("3f2b7c1e-0000-4000-8000-000000000001"))
+            .name("report.pdf")
+            .size(42)
+            .metaData(List.of(new MetaDataDto(UUID.randomUUID(), "client", "Norsys")))
+            .build();
+
+    @Test
+    void selectsRequestedFieldsOnly() throws Exception {
+        DocumentFields fields = DocumentFields.parse("id, name,size");
+
+        String json = objectMapper.writer(fields.filterProvider()).writeValueAsString(document);
+
+        assertThat(json).isEqualTo("{\"id\":\"3f2b7c1e-0000-4000-8000-000000000001\",\"name\":\"report.pdf\",\"size\":42}");
+        assertThat(fields.includes("permissions")).isFalse();
+    }
+
+    @Test
+    void serializesEverythingWithoutSelection() throws Exception {
+        String json = objectMapper.writeValueAsString(document);
+
+        assertThat(DocumentFields.parse(null).includes("permissions")).isTrue();
+        assertThat(json).contains("\"metaData\":[{\"key\":\"client\",\"value\":\"Norsys\"}]");
+    }
+}
@@ -0,0 +1,129 @@
+package fr.norsys.docsapi.utils;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import jakarta.servlet.FilterChain;
+import org.junit.jupiter.api.Test;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+import org.springframework.web.servlet.HandlerMapping;
+
+import javax.sql.DataSource;
+import java.sql.Connection;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+class SqlStatementMetricsFilterTests {
+
+    @Test
+    void statementsAndRowsAreRecordedPerRoute() throws Exception {
+        SimpleMeterRegistry registry = new SimpleMeterRegistry();
+        SqlStatementCounter counter = new SqlStatementCounter(true);
+        DataSource dataSource = proxied(counter);
+        SqlStatementMetricsFilter filter = new SqlStatementMetricsFilter(counter, budgets(Map.of("/api/documents", 4)), registry);
+
+        filter.doFilter(request("/api/documents"), new MockHttpServletResponse(), query(dataSource, 2));
+
+        assertEquals(2, registry.get("docsapi.http.sql.statements").tag("uri", "/api/documents").summary().totalAmount());
+        assertEquals(4, registry.get("docsapi.http.sql.rows").tag("uri", "/api/documents").summary().totalAmount());
+        assertTrue(registry.find("docsapi.http.sql.budget.exceeded").counters().isEmpty());
+    }
+
+    @Test
+    void requestsOverTheirBudgetAreCounted() throws Exception {
+        SimpleMeterRegistry registry = new SimpleMeterRegistry();
+        SqlStatementCounter counter = new SqlStatementCounter(false);
+        DataSource dataSource = proxied(counter);
+        SqlStatementMetricsFilter filter = new SqlStatementMetricsFilter(counter, budgets(Map.of("/api/documents", 4)), registry);
+
+        filter.doFilter(request("/api/documents"), new MockHttpServletResponse(), query(dataSource, 12));
+        filter.doFilter(request("/api/documents/page"), new MockHttpServletResponse(), query(dataSource, 12));
+
+        assertEquals(1, registry.get("docsapi.http.sql.budget.exceeded").tag("uri", "/api/documents").counter().count());
+        assertTrue(registry.find("docsapi.http.sql.budget.exceeded").tag("uri", "/api/documents/page").counters().isEmpty());
+        assertTrue(registry.find("docsapi.http.sql.rows").summaries().isEmpty());
+    }
+
+    @Test
+    void methodBudgetsLeaveOtherMethodsOnTheDefault() throws Exception {
+        SimpleMeterRegistry registry = new SimpleMeterRegistry();
+        SqlStatementCounter counter = new SqlStatementCounter(false);
+        DataSource dataSource = proxied(counter);
+        SqlStatementMetricsFilter filter = new SqlStatementMetricsFilter(counter,
+                budgets(Map.of("GET /api/documents/{docId}", 4)), registry);
+
+        filter.doFilter(request("DELETE", "/api/documents/{docId}"), new MockHttpServletResponse(), query(dataSource, 12));
+        assertTrue(registry.find("docsapi.http.sql.budget.exceeded").counters().isEmpty());
+
+        filter.doFilter(request("GET", "/api/documents/{docId}"), new MockHttpServletResponse(), query(dataSource, 12));
+        assertEquals(1, registry.get("docsapi.http.sql.budget.exceeded").tag("method", "GET").counter().count());
+    }
+
+    @Test
+    void repeatedStatementsAreReported() throws Exception {
+        SqlStatementCounter counter = new SqlStatementCounter(false);
+        DataSource dataSource = proxied(counter);
+
+        counter.start();
+        query(dataSource, 12).doFilter(null, null);
+        Map.Entry<String, Integer> repeated = counter.stop().mostRepeated();
+
+        assertEquals("SELECT * FROM metadata WHERE document_id = ?", repeated.getKey());
+        assertEquals(12, repeated.getValue());
+        assertEquals(0, counter.stop().statements());
+    }
+
+    private static DataSource proxied(SqlStatementCounter counter) throws Exception {
+        ResultSet resultSet = mock(ResultSet.class);
+        when(resultSet.next()).thenReturn(true, true, false, true, true, false);
+        Statement statement = mock(Statement.class);
+        when(statement.executeQuery(anyString())).thenReturn(resultSet);
+        Connection connection = mock(Connection.class);
+        when(connection.createStatement()).thenReturn(statement);
+        DataSource dataSource = mock(DataSource.class);
+        when(dataSource.getConnection()).thenReturn(connection);
+        return (DataSource) counter.postProcessAfterInitialization(dataSource, "dataSource");
+    }
+
+    /**
+     * A request running the same query once per document, as an N+1 would.
+     */
+    private static FilterChain query(DataSource dataSource, int times) {
+        return (request, response) -> {
+            try (Connection connection = dataSource.getConnection(); Statement statement = connection.createStatement()) {
+                for (int i = 0; i < times; i++) {
+                    try (ResultSet resultSet = statement.executeQuery("SELECT * FROM metadata WHERE document_id = ?")) {
+                        while (resultSet.next()) {
+                            // read every row
+                        }
+                    }
+                }
+            } catch (SQLException e) {
+                throw new IllegalStateException(e);
+            }
+        };
+    }
+
+    private static SqlBudgetProperties budgets(Map<String, Integer> budgets) {
+        SqlBudgetProperties properties = new SqlBudgetProperties();
+        properties.getBudgets().putAll(budgets);
+        return properties;
+    }
+
+    private static MockHttpServletRequest request(String route) {
+        return request("GET", route);
+    }
+
+    private static MockHttpServletRequest request(String method, String route) {
+        MockHttpServletRequest request = new MockHttpServletRequest(method, route);
+        request.setAttribute(HandlerMapping.BEST_MATCHING_PATTERN_ATTRIBUTE, route);
+        return request;
+    }
+}